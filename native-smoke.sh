@@ -0,0 +1,102 @@
+#!/bin/bash
+
+# Native image smoke test
+# Boots the backend against a throwaway SQLite file, exercises /api/users and
+# /transfers, and checks startup time and resident memory.
+#
+#   ./native-smoke.sh target/hello-world-backend            (native executable)
+#   ./native-smoke.sh java -jar target/hello-world-backend-1.0.0.jar
+#
+# SMOKE_PORT (default 18090) and MAX_RSS_MB (default 100) can be overridden.
+
+set -euo pipefail
+
+if [ $# -eq 0 ]; then
+    set -- target/hello-world-backend
+fi
+
+PORT=${SMOKE_PORT:-18090}
+MAX_RSS_MB=${MAX_RSS_MB:-100}
+BASE_URL="http://localhost:$PORT"
+WORK_DIR=$(mktemp -d)
+PID=
+
+cleanup() {
+    if [ -n "$PID" ]; then
+        kill "$PID" 2>/dev/null || true
+        wait "$PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+fail() {
+    echo "❌ $1"
+    echo "--- application log ---"
+    cat "$WORK_DIR/app.log"
+    exit 1
+}
+
+# Sends a request and fails unless the status matches; the body is kept in $WORK_DIR/body
+expect_status() {
+    local expected=$1 method=$2 path=$3 body=${4:-}
+    local status
+    if [ -n "$body" ]; then
+        status=$(curl -s -o "$WORK_DIR/body" -w '%{http_code}' -X "$method" \
+            -H 'Content-Type: application/json' -d "$body" "$BASE_URL$path")
+    else
+        status=$(curl -s -o "$WORK_DIR/body" -w '%{http_code}' -X "$method" "$BASE_URL$path")
+    fi
+    if [ "$status" != "$expected" ]; then
+        fail "$method $path returned $status, expected $expected: $(cat "$WORK_DIR/body")"
+    fi
+    echo "✅ $method $path -> $status"
+}
+
+# Extracts the first "id" of the last response body
+response_id() {
+    grep -o '"id":[0-9]*' "$WORK_DIR/body" | head -1 | cut -d: -f2
+}
+
+echo "🚀 Starting: $*"
+"$@" --server.port="$PORT" \
+     --spring.datasource.url="jdbc:sqlite:$WORK_DIR/smoke.db" \
+     --spring.jpa.show-sql=false \
+     > "$WORK_DIR/app.log" 2>&1 &
+PID=$!
+
+for _ in $(seq 1 300); do
+    if curl -sf "$BASE_URL/actuator/health" > /dev/null; then
+        break
+    fi
+    kill -0 "$PID" 2>/dev/null || fail "Application exited during startup"
+    sleep 0.1
+done
+curl -sf "$BASE_URL/actuator/health" > /dev/null || fail "Application did not become healthy"
+grep -h "Started HelloWorldBackendApplication" "$WORK_DIR/app.log" || true
+
+expect_status 200 GET /api/users
+
+expect_status 201 POST /api/users \
+    '{"firstName":"Smoke","lastName":"Sender","email":"smoke.sender@example.com","points":500}'
+SENDER_ID=$(response_id)
+expect_status 201 POST /api/users \
+    '{"firstName":"Smoke","lastName":"Receiver","email":"smoke.receiver@example.com","points":0}'
+RECEIVER_ID=$(response_id)
+expect_status 200 GET "/api/users/$SENDER_ID"
+
+expect_status 201 POST /transfers \
+    "{\"fromUserId\":$SENDER_ID,\"toUserId\":$RECEIVER_ID,\"amount\":120,\"note\":\"smoke\"}"
+expect_status 409 POST /transfers \
+    "{\"fromUserId\":$SENDER_ID,\"toUserId\":$RECEIVER_ID,\"amount\":100000}"
+expect_status 200 GET "/transfers?userId=$SENDER_ID"
+grep -q '"amount":120' "$WORK_DIR/body" || fail "Transfer missing from history: $(cat "$WORK_DIR/body")"
+
+RSS_KB=$(awk '/VmRSS/ {print $2}' "/proc/$PID/status")
+RSS_MB=$((RSS_KB / 1024))
+echo "📏 RSS: ${RSS_MB} MB (limit ${MAX_RSS_MB} MB)"
+if [ "$RSS_MB" -gt "$MAX_RSS_MB" ]; then
+    fail "RSS ${RSS_MB} MB exceeds ${MAX_RSS_MB} MB"
+fi
+
+echo "✅ Smoke test passed"
@@ -0,0 +1,112 @@
+package com.workshop4.helloworldbackend.benchmark;
+
+import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.infrastructure.memory.AccountTable;
+import com.workshop4.helloworldbackend.infrastructure.memory.HeapAccountTable;
+import com.workshop4.helloworldbackend.infrastructure.memory.OffHeapAccountTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account balance lookups and credits in the heap and off-heap account tables
+ * against a ConcurrentHashMap&lt;Long, User&gt; cache of the same accounts.
+ * fullCollection times a System.gc() with the accounts live, which grows with
+ * the number of objects the collector has to trace.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+public class AccountTableBenchmark {
+
+    @Param({"heap", "offheap", "map"})
+    public String store;
+
+    @Param({"1000000"})
+    public int accounts;
+
+    private AccountTable table;
+    private ConcurrentHashMap<Long, User> users;
+
+    @Setup(Level.Trial)
+    public void load() {
+        switch (store) {
+            case "heap" -> table = new HeapAccountTable(accounts);
+            case "offheap" -> table = new OffHeapAccountTable(accounts);
+            case "map" -> users = new ConcurrentHashMap<>(accounts);
+            default -> throw new IllegalArgumentException("Unknown store: " + store);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (long id = 1; id <= accounts; id++) {
+            if (users != null) {
+                User user = new User();
+                user.setId(id);
+                user.setFirstName("First" + id);
+                user.setLastName("Last" + id);
+                user.setEmail("user" + id + "@example.com");
+                user.setPoints(1_000);
+                user.setIsActive(true);
+                user.setCreatedAt(now);
+                users.put(id, user);
+            } else {
+                table.put(id, AccountStateStore.pack(true, 1_000));
+            }
+        }
+    }
+
+    @Benchmark
+    public long lookup() {
+        long id = randomId();
+        if (users != null) {
+            User user = users.get(id);
+            return user.getIsActive() ? user.getPoints() : -1;
+        }
+        long state = table.get(id);
+        return AccountStateStore.isActive(state) ? AccountStateStore.points(state) : -1;
+    }
+
+    @Benchmark
+    public void credit() {
+        long id = randomId();
+        if (users != null) {
+            users.computeIfPresent(id, (key, user) -> {
+                user.addPoints(1);
+                return user;
+            });
+        } else {
+            table.update(id, state -> AccountStateStore.pack(
+                AccountStateStore.isActive(state), AccountStateStore.points(state) + 1));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public void fullCollection() {
+        System.gc();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(accounts) + 1;
+    }
+}
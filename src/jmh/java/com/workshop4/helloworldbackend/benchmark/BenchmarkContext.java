@@ -0,0 +1,57 @@
+package com.workshop4.helloworldbackend.benchmark;
+
+import com.workshop4.helloworldbackend.HelloWorldBackendApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the application without a web server on a throwaway SQLite file, with
+ * the background jobs that would allocate next to the measured code switched off.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private final Path directory;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(Path directory, ConfigurableApplicationContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    static BenchmarkContext start(String... properties) throws IOException {
+        Path directory = Files.createTempDirectory("benchmark");
+        List<String> args = new ArrayList<>(List.of(
+            "--spring.datasource.url=jdbc:sqlite:" + directory.resolve("benchmark.db"),
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--app.outbox.enabled=false",
+            "--app.transfer-archive.enabled=false",
+            "--app.statement-metrics.enabled=false"
+        ));
+        Arrays.stream(properties).map(property -> "--" + property).forEach(args::add);
+
+        SpringApplication application = new SpringApplication(HelloWorldBackendApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return new BenchmarkContext(directory, application.run(args.toArray(String[]::new)));
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+}
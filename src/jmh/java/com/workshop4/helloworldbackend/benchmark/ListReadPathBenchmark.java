@@ -0,0 +1,91 @@
+package com.workshop4.helloworldbackend.benchmark;
+
+import com.workshop4.helloworldbackend.application.dto.TransferListResponseDTO;
+import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
+import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+import com.workshop4.helloworldbackend.application.mapper.TransferMapper;
+import com.workshop4.helloworldbackend.application.mapper.UserMapper;
+import com.workshop4.helloworldbackend.application.service.TransferQueryService;
+import com.workshop4.helloworldbackend.application.service.UserQueryService;
+import com.workshop4.helloworldbackend.domain.usecase.TransferUseCase;
+import com.workshop4.helloworldbackend.domain.usecase.UserUseCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List reads through the entity -> domain -> DTO chain against the projections
+ * that read rows straight into response DTOs (GET /api/users and
+ * GET /transfers?userId=). Run with -prof gc to compare gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListReadPathBenchmark {
+
+    private static final long USER_ID = 1L;
+    private static final int PAGE_SIZE = 100;
+
+    private BenchmarkContext context;
+    private UserUseCase userUseCase;
+    private UserMapper userMapper;
+    private UserQueryService userQueryService;
+    private TransferUseCase transferUseCase;
+    private TransferMapper transferMapper;
+    private TransferQueryService transferQueryService;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BenchmarkContext.start("app.seed.users=1000", "app.seed.transfers=100000");
+        userUseCase = context.bean(UserUseCase.class);
+        userMapper = context.bean(UserMapper.class);
+        userQueryService = context.bean(UserQueryService.class);
+        transferUseCase = context.bean(TransferUseCase.class);
+        transferMapper = context.bean(TransferMapper.class);
+        transferQueryService = context.bean(TransferQueryService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> usersThroughDomain() {
+        return userUseCase.getAllUsers().stream()
+            .map(userMapper::toResponseDTO)
+            .toList();
+    }
+
+    @Benchmark
+    public List<UserResponseDTO> usersFromProjection() {
+        return userQueryService.getAllUsers();
+    }
+
+    @Benchmark
+    public List<TransferResponseDTO> transfersThroughDomain() {
+        return transferUseCase.getTransfersByUserId(USER_ID, 1, PAGE_SIZE).getData().stream()
+            .map(transferMapper::toResponseDTO)
+            .toList();
+    }
+
+    @Benchmark
+    public TransferListResponseDTO transfersFromProjection() {
+        return transferQueryService.getTransfersByUserId(USER_ID, 1, PAGE_SIZE);
+    }
+}
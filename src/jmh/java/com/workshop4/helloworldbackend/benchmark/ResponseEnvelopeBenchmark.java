@@ -0,0 +1,108 @@
+package com.workshop4.helloworldbackend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop4.helloworldbackend.application.dto.ApiErrorDTO;
+import com.workshop4.helloworldbackend.application.dto.UserEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.UserListEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+import com.workshop4.helloworldbackend.application.service.UserQueryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and serializes response bodies with the application's ObjectMapper, once
+ * as the HashMap envelopes the controllers used to return and once as the records
+ * that replaced them. Run with -prof gc to compare gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEnvelopeBenchmark {
+
+    private BenchmarkContext context;
+    private ObjectMapper objectMapper;
+    private UserResponseDTO user;
+    private List<UserResponseDTO> users;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BenchmarkContext.start("app.seed.users=20");
+        objectMapper = context.bean(ObjectMapper.class);
+        users = context.bean(UserQueryService.class).getAllUsers();
+        user = users.get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public int userAsMap() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "User retrieved successfully");
+        response.put("user", user);
+        return write(response);
+    }
+
+    @Benchmark
+    public int userAsRecord() throws Exception {
+        return write(new UserEnvelopeDTO("User retrieved successfully", user));
+    }
+
+    @Benchmark
+    public int userListAsMap() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("count", users.size());
+        response.put("message", "Users retrieved successfully");
+        response.put("users", users);
+        return write(response);
+    }
+
+    @Benchmark
+    public int userListAsRecord() throws Exception {
+        return write(new UserListEnvelopeDTO("Users retrieved successfully", users));
+    }
+
+    @Benchmark
+    public int errorAsMap() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("status", 404);
+        response.put("error", "Not Found");
+        response.put("message", "User not found with id: 42");
+        return write(response);
+    }
+
+    @Benchmark
+    public int errorAsRecord() throws Exception {
+        return write(ApiErrorDTO.of(404, "Not Found", "User not found with id: 42"));
+    }
+
+    private int write(Object body) throws Exception {
+        out.reset();
+        objectMapper.writeValue(out, body);
+        return out.size();
+    }
+}
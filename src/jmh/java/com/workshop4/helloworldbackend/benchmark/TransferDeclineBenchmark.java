@@ -0,0 +1,111 @@
+package com.workshop4.helloworldbackend.benchmark;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferOutcome;
+import com.workshop4.helloworldbackend.domain.usecase.TransferUseCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The decline path of POST /transfers: a sealed Rejected outcome mapped to its
+ * HTTP status with a switch, against the IllegalStateException the use case used
+ * to throw and the controller classified with getMessage().contains(...).
+ *
+ * The use case benchmarks run the real decline (validation, account store
+ * precheck, FAILED audit row queued) and add only the classification on top;
+ * the classify benchmarks isolate the classification. Run with -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransferDeclineBenchmark {
+
+    private BenchmarkContext context;
+    private TransferUseCase transferUseCase;
+    private TransferOutcome.Rejected rejected;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BenchmarkContext.start("app.seed.users=100");
+        transferUseCase = context.bean(TransferUseCase.class);
+        rejected = new TransferOutcome.Rejected(new Transfer("benchmark", 1L, 2L, 1, null),
+            TransferOutcome.Reason.INSUFFICIENT_POINTS, "Insufficient points. Available: 10, Required: 20");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public int declineAsOutcome() {
+        return statusOf(decline());
+    }
+
+    @Benchmark
+    public int declineAsException() {
+        return statusOfThrown(decline());
+    }
+
+    @Benchmark
+    public int classifyOutcome() {
+        return statusOf(rejected);
+    }
+
+    @Benchmark
+    public int classifyException() {
+        return statusOfThrown(rejected);
+    }
+
+    private TransferOutcome.Rejected decline() {
+        TransferOutcome outcome = transferUseCase.createTransfer(1L, 2L, Integer.MAX_VALUE, null);
+        if (!(outcome instanceof TransferOutcome.Rejected declined)) {
+            throw new IllegalStateException("Expected a declined transfer, got " + outcome);
+        }
+        return declined;
+    }
+
+    private static int statusOf(TransferOutcome.Rejected rejected) {
+        return switch (rejected.reason()) {
+            case SENDER_NOT_FOUND, RECEIVER_NOT_FOUND -> 400;
+            case SENDER_INACTIVE, RECEIVER_INACTIVE, INSUFFICIENT_POINTS -> 409;
+        };
+    }
+
+    /**
+     * The former contract: the use case threw and TransferController scanned the message
+     */
+    private static int statusOfThrown(TransferOutcome.Rejected rejected) {
+        try {
+            raise(rejected);
+            return 201;
+        } catch (IllegalStateException e) {
+            if (e.getMessage().contains("Insufficient points") ||
+                e.getMessage().contains("not active")) {
+                return 409;
+            }
+            return 422;
+        }
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static void raise(TransferOutcome.Rejected rejected) {
+        throw new IllegalStateException(rejected.message());
+    }
+}
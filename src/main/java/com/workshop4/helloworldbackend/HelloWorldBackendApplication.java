@@ -1,9 +1,14 @@
 package com.workshop4.helloworldbackend;
 
+import com.workshop4.helloworldbackend.infrastructure.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class HelloWorldBackendApplication {
 
     public static void main(String[] args) {
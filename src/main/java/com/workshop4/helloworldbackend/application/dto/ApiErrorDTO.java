@@ -0,0 +1,28 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Error response body shared by all endpoints
+ * Absent fields are omitted, so the short {error, message} form used by
+ * the transfer API and the full form of GlobalExceptionHandler share one type
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ApiErrorDTO(
+        LocalDateTime timestamp,
+        Integer status,
+        String error,
+        String message,
+        Map<String, String> validationErrors) {
+
+    public static ApiErrorDTO of(String error, String message) {
+        return new ApiErrorDTO(null, null, error, message, null);
+    }
+
+    public static ApiErrorDTO of(int status, String error, String message) {
+        return new ApiErrorDTO(LocalDateTime.now(), status, error, message, null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.workshop4.helloworldbackend.domain.model.BulkUpdateProgress;
+
+/**
+ * One progress line of a bulk user operation
+ * A failed operation ends with a line carrying the error and the progress
+ * committed before it; operationId is null when no chunk had committed yet
+ */
+public record BulkUpdateProgressDTO(String operationId, long processed, long updated, Long total, boolean done,
+                                    @JsonInclude(JsonInclude.Include.NON_NULL) ApiErrorDTO error) {
+    
+    public static BulkUpdateProgressDTO from(BulkUpdateProgress progress) {
+        return new BulkUpdateProgressDTO(progress.operationId(), progress.processed(), progress.updated(),
+            progress.total(), progress.done(), null);
+    }
+    
+    public static BulkUpdateProgressDTO failed(BulkUpdateProgress lastProgress, ApiErrorDTO error) {
+        if (lastProgress == null) {
+            return new BulkUpdateProgressDTO(null, 0, 0, null, false, error);
+        }
+        return new BulkUpdateProgressDTO(lastProgress.operationId(), lastProgress.processed(),
+            lastProgress.updated(), lastProgress.total(), false, error);
+    }
+}
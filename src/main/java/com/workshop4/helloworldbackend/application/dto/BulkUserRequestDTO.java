@@ -0,0 +1,25 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+import java.util.List;
+
+/**
+ * Body of the bulk user operations: either ids or criteria selects the users;
+ * criteria must set at least one field, unless all is true, which selects
+ * every user. delta and reason apply to point adjustments only
+ */
+public record BulkUserRequestDTO(List<Long> ids, Criteria criteria, Boolean all, Integer delta, String reason) {
+    
+    /**
+     * Same fields and matching rules as GET /api/users/search
+     */
+    public record Criteria(String firstName, String lastName, String email, String city, Boolean isActive) {
+        
+        public boolean isEmpty() {
+            return isBlank(firstName) && isBlank(lastName) && isBlank(email) && isBlank(city) && isActive == null;
+        }
+        
+        private static boolean isBlank(String value) {
+            return value == null || value.isBlank();
+        }
+    }
+}
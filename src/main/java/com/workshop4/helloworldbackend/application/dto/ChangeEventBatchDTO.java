@@ -0,0 +1,9 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+import java.util.List;
+
+/**
+ * A batch of change events; nextOffset is the offset to resume after
+ */
+public record ChangeEventBatchDTO(List<ChangeEventDTO> events, long nextOffset) {
+}
@@ -0,0 +1,18 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.workshop4.helloworldbackend.domain.model.ChangeEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change event as sent to consumers; data is the stored JSON payload
+ */
+public record ChangeEventDTO(long offset, String type, String aggregateId, LocalDateTime occurredAt,
+                             @JsonRawValue String data) {
+    
+    public static ChangeEventDTO from(ChangeEvent event) {
+        return new ChangeEventDTO(event.offset(), event.type(), event.aggregateId(), event.occurredAt(),
+            event.payload());
+    }
+}
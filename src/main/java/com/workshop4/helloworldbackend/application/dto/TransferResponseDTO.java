@@ -1,6 +1,7 @@
 package com.workshop4.helloworldbackend.application.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
 import java.time.LocalDateTime;
 
 /**
@@ -26,6 +27,26 @@ public class TransferResponseDTO {
     public TransferResponseDTO() {
     }
     
+    /**
+     * Projection constructor: lets JPQL build the response straight from the row,
+     * skipping the entity and domain copies on list endpoints
+     */
+    public TransferResponseDTO(String idemKey, Long transferId, Long fromUserId, Long toUserId,
+                               Integer amount, TransferStatus status, String note, LocalDateTime createdAt,
+                               LocalDateTime updatedAt, LocalDateTime completedAt, String failReason) {
+        this.idemKey = idemKey;
+        this.transferId = transferId;
+        this.fromUserId = fromUserId;
+        this.toUserId = toUserId;
+        this.amount = amount;
+        this.status = status != null ? status.name().toLowerCase() : null;
+        this.note = note;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.completedAt = completedAt;
+        this.failReason = failReason;
+    }
+    
     // Getters and Setters
     public String getIdemKey() {
         return idemKey;
@@ -0,0 +1,7 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+/**
+ * Response body for a deleted user
+ */
+public record UserDeletedDTO(String message, Long deletedUserId) {
+}
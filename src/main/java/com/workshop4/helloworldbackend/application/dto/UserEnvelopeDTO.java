@@ -0,0 +1,7 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+/**
+ * Response envelope for endpoints returning a single user
+ */
+public record UserEnvelopeDTO(String message, UserResponseDTO user) {
+}
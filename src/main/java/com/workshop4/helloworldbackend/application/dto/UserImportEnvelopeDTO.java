@@ -0,0 +1,7 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+/**
+ * Response envelope for a bulk user import
+ */
+public record UserImportEnvelopeDTO(String message, UserImportResultDTO result) {
+}
@@ -0,0 +1,94 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * User Import Result DTO
+ * Summary of a bulk user import with the rows that were rejected
+ */
+public class UserImportResultDTO {
+    
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    
+    // Constructors
+    public UserImportResultDTO() {
+    }
+    
+    // Getters and Setters
+    public long getTotalRows() {
+        return totalRows;
+    }
+    
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+    
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+    
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+    
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+    
+    /**
+     * A single rejected input row (1-based, header excluded for CSV)
+     */
+    public static class RowError {
+        private long row;
+        private String message;
+        
+        public RowError() {
+        }
+        
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+        
+        public long getRow() {
+            return row;
+        }
+        
+        public void setRow(long row) {
+            this.row = row;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+import java.util.List;
+
+/**
+ * Response envelope for endpoints returning a list of users
+ */
+public record UserListEnvelopeDTO(int count, String message, List<UserResponseDTO> users) {
+
+    public UserListEnvelopeDTO(String message, List<UserResponseDTO> users) {
+        this(users.size(), message, users);
+    }
+}
@@ -30,6 +30,42 @@ public class UserResponseDTO {
     private LocalDateTime updatedAt;
     private String fullName;
 
+    // Constructors
+    public UserResponseDTO() {
+    }
+
+    /**
+     * Projection constructor: lets JPQL build the response straight from the row,
+     * skipping the entity and domain copies on list endpoints
+     */
+    public UserResponseDTO(Long id, String memberId, String firstName, String lastName, String email,
+                           String phone, LocalDate birthDate, String gender, String address, String city,
+                           String country, String postalCode, String bio, String avatarUrl,
+                           String membershipLevel, Integer points, LocalDate registrationDate,
+                           Boolean isActive, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.memberId = memberId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+        this.phone = phone;
+        this.birthDate = birthDate;
+        this.gender = gender;
+        this.address = address;
+        this.city = city;
+        this.country = country;
+        this.postalCode = postalCode;
+        this.bio = bio;
+        this.avatarUrl = avatarUrl;
+        this.membershipLevel = membershipLevel;
+        this.points = points;
+        this.registrationDate = registrationDate;
+        this.isActive = isActive;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.fullName = firstName + " " + lastName;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,10 @@
+package com.workshop4.helloworldbackend.application.dto;
+
+/**
+ * Response envelope for user statistics
+ */
+public record UserStatsEnvelopeDTO(Stats stats, String message) {
+
+    public record Stats(long totalUsers, long activeUsers, long inactiveUsers) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.workshop4.helloworldbackend.application.query;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import com.workshop4.helloworldbackend.domain.model.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Entity Revision
+ * Strong ETag of a user or transfer representation, computed either from the
+ * loaded object or from the few columns the conditional requests read, so both
+ * paths always produce the same tag. Users are tagged by their version, which
+ * every update increments (including the points changes of transfers);
+ * transfers by updatedAt and the status code, which unlike the enum ordinal
+ * never changes when constants are added or reordered.
+ *
+ * @param eTag      quoted entity tag
+ * @param immutable the representation can never change again
+ * @param version   the user's version, null for transfers
+ */
+public record EntityRevision(String eTag, boolean immutable, Long version) {
+
+    /**
+     * Projection constructor for a user row
+     */
+    public EntityRevision(Long version) {
+        this("\"" + Long.toHexString(version != null ? version : 0) + "\"", false, version);
+    }
+
+    /**
+     * Projection constructor for a transfer row; finished transfers never change
+     */
+    public EntityRevision(LocalDateTime updatedAt, TransferStatus status) {
+        this(tag(updatedAt, status.code()), status.isFinal(), null);
+    }
+
+    public static EntityRevision of(User user) {
+        return new EntityRevision(user.getVersion());
+    }
+
+    public static EntityRevision of(Transfer transfer) {
+        return new EntityRevision(transfer.getUpdatedAt(), transfer.getStatus());
+    }
+
+    /**
+     * Whether an If-None-Match header lists this revision. Uses the weak
+     * comparison RFC 9110 prescribes for If-None-Match.
+     */
+    public boolean matches(String ifNoneMatch) {
+        return matches(ifNoneMatch, true);
+    }
+
+    /**
+     * Whether an If-Match header lists this revision. Uses the strong
+     * comparison RFC 9110 prescribes for If-Match, so weak tags never match.
+     */
+    public boolean matchesStrongly(String ifMatch) {
+        return matches(ifMatch, false);
+    }
+
+    private boolean matches(String header, boolean weak) {
+        if (header == null) {
+            return false;
+        }
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String tag(LocalDateTime updatedAt, long state) {
+        long millis = updatedAt != null ? updatedAt.toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        return "\"" + Long.toHexString(millis) + "-" + Long.toHexString(state) + "\"";
+    }
+}
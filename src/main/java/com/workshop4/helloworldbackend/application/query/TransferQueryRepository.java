@@ -0,0 +1,24 @@
+package com.workshop4.helloworldbackend.application.query;
+
+import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-side Repository Interface for transfer list endpoints
+ * Implementations project rows directly into response DTOs,
+ * without materializing entities or domain models
+ */
+public interface TransferQueryRepository {
+    
+    /**
+     * Finds a page of transfers involving a user (as sender or receiver), newest first
+     */
+    List<TransferResponseDTO> findByUserId(Long userId, int page, int pageSize);
+    
+    /**
+     * Current revision of a transfer, hot or archived, read without loading the row
+     */
+    Optional<EntityRevision> findRevision(String idemKey);
+}
@@ -0,0 +1,28 @@
+package com.workshop4.helloworldbackend.application.query;
+
+import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-side Repository Interface for user list endpoints
+ * Implementations project rows directly into response DTOs,
+ * without materializing entities or domain models
+ */
+public interface UserQueryRepository {
+    
+    List<UserResponseDTO> findAll();
+    
+    List<UserResponseDTO> findActive();
+    
+    List<UserResponseDTO> findByName(String name);
+    
+    List<UserResponseDTO> search(String firstName, String lastName, String email,
+                                 String city, Boolean isActive);
+    
+    /**
+     * Current revision of a user, read without loading the row
+     */
+    Optional<EntityRevision> findRevision(Long id);
+}
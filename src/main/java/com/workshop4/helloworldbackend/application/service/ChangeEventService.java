@@ -0,0 +1,66 @@
+package com.workshop4.helloworldbackend.application.service;
+
+import com.workshop4.helloworldbackend.application.dto.ChangeEventBatchDTO;
+import com.workshop4.helloworldbackend.application.dto.ChangeEventDTO;
+import com.workshop4.helloworldbackend.domain.model.ChangeEvent;
+import com.workshop4.helloworldbackend.domain.repository.ChangeEventFeed;
+import com.workshop4.helloworldbackend.exception.InvalidRequestException;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Change Event Service - Read side of the change stream
+ * Validates consumer positions and turns published events into batches
+ */
+@Service
+public class ChangeEventService {
+    
+    public static final int MAX_BATCH_SIZE = 1000;
+    
+    private final ChangeEventFeed changeEventFeed;
+    
+    public ChangeEventService(ChangeEventFeed changeEventFeed) {
+        this.changeEventFeed = changeEventFeed;
+    }
+    
+    /**
+     * Gets up to limit events after the offset; the batch is empty when the consumer is up to date
+     */
+    public ChangeEventBatchDTO read(long afterOffset, int limit) {
+        validate(afterOffset, limit);
+        return toBatch(afterOffset, changeEventFeed.readAfter(afterOffset, limit));
+    }
+    
+    /**
+     * Delivers every batch after the offset until the listener returns false or the subscription is cancelled
+     */
+    public ChangeEventFeed.Subscription subscribe(long afterOffset, int batchSize,
+                                                  Predicate<ChangeEventBatchDTO> listener) {
+        validate(afterOffset, batchSize);
+        return changeEventFeed.subscribe(afterOffset, batchSize,
+            events -> listener.test(toBatch(afterOffset, events)));
+    }
+    
+    /**
+     * Offset a new consumer starts after to receive only future events
+     */
+    public long latestOffset() {
+        return changeEventFeed.latestOffset();
+    }
+    
+    private static void validate(long afterOffset, int limit) {
+        if (afterOffset < 0) {
+            throw new InvalidRequestException("after must be >= 0");
+        }
+        if (limit < 1 || limit > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_BATCH_SIZE);
+        }
+    }
+    
+    private static ChangeEventBatchDTO toBatch(long afterOffset, List<ChangeEvent> events) {
+        long nextOffset = events.isEmpty() ? afterOffset : events.get(events.size() - 1).offset();
+        return new ChangeEventBatchDTO(events.stream().map(ChangeEventDTO::from).toList(), nextOffset);
+    }
+}
@@ -0,0 +1,56 @@
+package com.workshop4.helloworldbackend.application.service;
+
+import com.workshop4.helloworldbackend.application.dto.TransferListResponseDTO;
+import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import com.workshop4.helloworldbackend.application.query.TransferQueryRepository;
+import com.workshop4.helloworldbackend.domain.repository.TransferRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Transfer Query Service - Read side of the transfer API
+ * Serves transfer history pages from row projections
+ */
+@Service
+@Transactional(readOnly = true)
+public class TransferQueryService {
+    
+    private final TransferQueryRepository transferQueryRepository;
+    private final TransferRepository transferRepository;
+    
+    public TransferQueryService(TransferQueryRepository transferQueryRepository,
+                                TransferRepository transferRepository) {
+        this.transferQueryRepository = transferQueryRepository;
+        this.transferRepository = transferRepository;
+    }
+    
+    /**
+     * Gets a page of transfers involving a user (as sender or receiver)
+     */
+    public TransferListResponseDTO getTransfersByUserId(Long userId, int page, int pageSize) {
+        // Validate pagination parameters
+        if (page < 1) {
+            throw new IllegalArgumentException("page must be >= 1");
+        }
+        if (pageSize < 1 || pageSize > 200) {
+            throw new IllegalArgumentException("pageSize must be between 1 and 200");
+        }
+        
+        List<TransferResponseDTO> transfers = transferQueryRepository.findByUserId(userId, page, pageSize);
+        long total = transferRepository.countByUserId(userId);
+        
+        return new TransferListResponseDTO(transfers, page, pageSize, total);
+    }
+    
+    /**
+     * Gets the transfer's current ETag from its idempotency key index alone, so
+     * a conditional GET can answer 304 without loading the transfer
+     */
+    public Optional<EntityRevision> getTransferRevision(String idemKey) {
+        return transferQueryRepository.findRevision(idemKey);
+    }
+}
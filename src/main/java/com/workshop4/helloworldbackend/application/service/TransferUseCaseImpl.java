@@ -1,34 +1,74 @@
 package com.workshop4.helloworldbackend.application.service;
 
 import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferOutcome;
 import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.domain.repository.IncomingTransferFeed;
+import com.workshop4.helloworldbackend.domain.repository.TransferRejectionLog;
 import com.workshop4.helloworldbackend.domain.repository.TransferRepository;
 import com.workshop4.helloworldbackend.domain.repository.UserRepository;
 import com.workshop4.helloworldbackend.domain.usecase.TransferUseCase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Transfer Use Case Implementation
- * Implements business logic for points transfer operations
+ * Implements business logic for points transfer operations.
+ *
+ * Once the transaction that completes a transfer has committed, the transfer
+ * is published to the receiver's subscribers on the incoming transfer feed.
+ *
+ * No step locks anything up front. Accounts are read outside the step's
+ * transaction, which then starts by writing the new balances only if the
+ * users are still at the versions read; a step that loses to a concurrent
+ * writer is rolled back and run again from a fresh read, up to
+ * app.transfer-retry.max-attempts times.
  */
 @Service
 public class TransferUseCaseImpl implements TransferUseCase {
     
     private final TransferRepository transferRepository;
     private final UserRepository userRepository;
+    private final TransferRejectionLog transferRejectionLog;
+    private final AccountStateStore accountStateStore;
+    private final IncomingTransferFeed incomingTransferFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMs;
     
-    public TransferUseCaseImpl(TransferRepository transferRepository, UserRepository userRepository) {
+    public TransferUseCaseImpl(TransferRepository transferRepository, UserRepository userRepository,
+                               TransferRejectionLog transferRejectionLog, AccountStateStore accountStateStore,
+                               IncomingTransferFeed incomingTransferFeed,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.transfer-retry.max-attempts:8}") int maxAttempts,
+                               @Value("${app.transfer-retry.backoff-ms:5}") long backoffMs) {
         this.transferRepository = transferRepository;
         this.userRepository = userRepository;
+        this.transferRejectionLog = transferRejectionLog;
+        this.accountStateStore = accountStateStore;
+        this.incomingTransferFeed = incomingTransferFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(1, backoffMs);
     }
     
     @Override
-    @Transactional
-    public Transfer createTransfer(Long fromUserId, Long toUserId, Integer amount, String note) {
+    public TransferOutcome createTransfer(Long fromUserId, Long toUserId, Integer amount, String note) {
         // Generate idempotency key
         String idemKey = UUID.randomUUID().toString();
         
@@ -38,57 +78,186 @@ public class TransferUseCaseImpl implements TransferUseCase {
         // Validate transfer business rules
         transfer.validate();
         
-        // Validate sender exists and is active
-        User sender = userRepository.findById(fromUserId)
-            .orElseThrow(() -> new IllegalArgumentException("Sender user not found: " + fromUserId));
+        // Decline transfers the in-memory account view already rules out,
+        // without opening a transaction
+        TransferOutcome precheck = precheck(transfer);
+        if (precheck != null) {
+            return precheck;
+        }
         
-        if (!sender.getIsActive()) {
-            transfer.fail("Sender user is not active");
-            transferRepository.save(transfer);
-            throw new IllegalStateException("Sender user is not active");
+        return executeWithRetry(() -> executeTransfer(transfer.copy()));
+    }
+    
+    /**
+     * Checks the transfer against the account state store in the same order as
+     * {@link #executeTransfer}, so both paths report the same reason. Returns
+     * null when the store cannot decide and the database must be consulted.
+     */
+    private TransferOutcome precheck(Transfer transfer) {
+        long senderState = accountStateStore.lookup(transfer.getFromUserId());
+        if (senderState == AccountStateStore.ABSENT) {
+            return null;
+        }
+        if (!AccountStateStore.isActive(senderState)) {
+            return reject(transfer, TransferOutcome.Reason.SENDER_INACTIVE, "Sender user is not active");
         }
         
-        // Validate receiver exists and is active
-        User receiver = userRepository.findById(toUserId)
-            .orElseThrow(() -> new IllegalArgumentException("Receiver user not found: " + toUserId));
+        long receiverState = accountStateStore.lookup(transfer.getToUserId());
+        if (receiverState == AccountStateStore.ABSENT) {
+            return null;
+        }
+        if (!AccountStateStore.isActive(receiverState)) {
+            return reject(transfer, TransferOutcome.Reason.RECEIVER_INACTIVE, "Receiver user is not active");
+        }
         
-        if (!receiver.getIsActive()) {
-            transfer.fail("Receiver user is not active");
-            transferRepository.save(transfer);
-            throw new IllegalStateException("Receiver user is not active");
+        long available = AccountStateStore.points(senderState);
+        if (available < transfer.getAmount()) {
+            return reject(transfer, TransferOutcome.Reason.INSUFFICIENT_POINTS,
+                "Insufficient points. Available: " + available + ", Required: " + transfer.getAmount());
         }
         
-        // Check if sender has enough points
-        if (sender.getPoints() < amount) {
-            transfer.fail("Insufficient points");
-            transferRepository.save(transfer);
-            throw new IllegalStateException("Insufficient points. Available: " + sender.getPoints() + ", Required: " + amount);
+        return null;
+    }
+    
+    private TransferOutcome executeTransfer(Transfer transfer) {
+        Long fromUserId = transfer.getFromUserId();
+        Long toUserId = transfer.getToUserId();
+        Integer amount = transfer.getAmount();
+        
+        Optional<User> senderLookup = userRepository.findById(fromUserId);
+        Optional<User> receiverLookup = userRepository.findById(toUserId);
+        TransferOutcome declined = checkParties(transfer, senderLookup, receiverLookup);
+        if (declined != null) {
+            return declined;
         }
+        User sender = senderLookup.get();
+        User receiver = receiverLookup.get();
         
         // Mark as processing
         transfer.markAsProcessing();
         
         // Execute the transfer atomically
-        try {
-            // Deduct points from sender
-            sender.deductPoints(amount);
-            userRepository.save(sender);
+        return transactionTemplate.execute(status -> {
+            try {
+                // Move the points, writing both balances in one batch
+                sender.deductPoints(amount);
+                receiver.addPoints(amount);
+                savePoints(sender, receiver);
+                accountStateStore.debitPoints(fromUserId, amount);
+                accountStateStore.creditPoints(toUserId, amount);
+                
+                // Mark transfer as completed
+                transfer.complete();
+                
+            } catch (ConcurrencyFailureException e) {
+                // Lost to a concurrent writer; the attempt is rolled back and repeated
+                throw e;
+            } catch (Exception e) {
+                // If anything fails, mark transfer as failed
+                transfer.fail("Transfer execution failed: " + e.getMessage());
+                throw new RuntimeException("Transfer execution failed", e);
+            }
             
-            // Add points to receiver
-            receiver.addPoints(amount);
-            userRepository.save(receiver);
-            
-            // Mark transfer as completed
-            transfer.complete();
-            
-        } catch (Exception e) {
-            // If anything fails, mark transfer as failed
-            transfer.fail("Transfer execution failed: " + e.getMessage());
-            throw new RuntimeException("Transfer execution failed", e);
+            // Save and return the transfer
+            Transfer completed = transferRepository.save(transfer);
+            publishAfterCommit(completed);
+            return new TransferOutcome.Completed(completed);
+        });
+    }
+    
+    /**
+     * Validates that sender and receiver exist and are active and that the
+     * sender has enough points. Returns null when the transfer may proceed.
+     */
+    private TransferOutcome checkParties(Transfer transfer, Optional<User> senderLookup,
+                                         Optional<User> receiverLookup) {
+        // Validate sender exists and is active
+        if (senderLookup.isEmpty()) {
+            return new TransferOutcome.Rejected(transfer, TransferOutcome.Reason.SENDER_NOT_FOUND,
+                "Sender user not found: " + transfer.getFromUserId());
+        }
+        User sender = senderLookup.get();
+        
+        if (!sender.getIsActive()) {
+            return reject(transfer, TransferOutcome.Reason.SENDER_INACTIVE, "Sender user is not active");
+        }
+        
+        // Validate receiver exists and is active
+        if (receiverLookup.isEmpty()) {
+            return new TransferOutcome.Rejected(transfer, TransferOutcome.Reason.RECEIVER_NOT_FOUND,
+                "Receiver user not found: " + transfer.getToUserId());
         }
         
-        // Save and return the transfer
-        return transferRepository.save(transfer);
+        if (!receiverLookup.get().getIsActive()) {
+            return reject(transfer, TransferOutcome.Reason.RECEIVER_INACTIVE, "Receiver user is not active");
+        }
+        
+        // Check if sender has enough points. The balance comes from the row just
+        // read, not the account state store: the store applies credits before they
+        // commit, so it may be ahead of the database and can only decline
+        if (sender.getPoints() < transfer.getAmount()) {
+            return reject(transfer, TransferOutcome.Reason.INSUFFICIENT_POINTS,
+                "Insufficient points. Available: " + sender.getPoints() + ", Required: " + transfer.getAmount());
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Runs one step, repeating it after a randomized, growing pause while it
+     * loses to concurrent writers. Steps must not change their inputs, since a
+     * repeat starts from them again.
+     */
+    private <T> T executeWithRetry(Supplier<T> step) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return step.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(1 + ThreadLocalRandom.current().nextLong(backoffMs * attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Writes the users' new balances, failing the attempt when either user
+     * changed since it was read
+     */
+    private void savePoints(User sender, User receiver) {
+        if (!userRepository.savePoints(List.of(sender, receiver))) {
+            throw new OptimisticLockingFailureException("User " + sender.getId() + " or " + receiver.getId()
+                + " changed while the transfer was in progress");
+        }
+    }
+    
+    /**
+     * Publishes the completed transfer once the surrounding transaction has
+     * committed, so subscribers never hear of a transfer that was rolled back
+     */
+    private void publishAfterCommit(Transfer transfer) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                incomingTransferFeed.publish(transfer);
+            }
+        });
+    }
+    
+    /**
+     * Marks the declined transfer FAILED, hands it to the rejection log for
+     * background persistence and returns the rejection
+     */
+    private TransferOutcome reject(Transfer transfer, TransferOutcome.Reason reason, String message) {
+        transfer.fail(message);
+        transferRejectionLog.record(transfer);
+        return new TransferOutcome.Rejected(transfer, reason, message);
     }
     
     @Override
@@ -112,4 +281,24 @@ public class TransferUseCaseImpl implements TransferUseCase {
         
         return new TransferListResult(transfers, page, pageSize, total);
     }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTransfersByUserId(Long userId, Consumer<Transfer> consumer) {
+        if (userId == null || userId < 1) {
+            throw new IllegalArgumentException("userId must be positive");
+        }
+        
+        transferRepository.streamByUserId(userId, consumer);
+    }
+    
+    @Override
+    public IncomingTransferFeed.Subscription subscribeToIncomingTransfers(Long userId,
+                                                                          IncomingTransferFeed.Subscriber subscriber) {
+        if (userId == null || userId < 1) {
+            throw new IllegalArgumentException("userId must be positive");
+        }
+        
+        return incomingTransferFeed.subscribe(userId, subscriber);
+    }
 }
@@ -0,0 +1,246 @@
+package com.workshop4.helloworldbackend.application.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvReadException;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.workshop4.helloworldbackend.application.dto.UserDTO;
+import com.workshop4.helloworldbackend.application.dto.UserImportResultDTO;
+import com.workshop4.helloworldbackend.application.mapper.UserMapper;
+import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.domain.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk User Import Service
+ * Streams NDJSON or CSV user records from the request body (CSV is parsed as
+ * RFC 4180 by Jackson's CSV module), validates each row,
+ * checks email/member ID uniqueness against in-memory sets and inserts the
+ * accepted rows in batched, chunked transactions
+ */
+@Service
+public class UserImportService {
+    
+    /**
+     * Supported input formats
+     */
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+    
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private final UserRepository userRepository;
+    private final AccountStateStore accountStateStore;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader userReader;
+    private final ObjectReader csvReader;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    
+    public UserImportService(UserRepository userRepository, AccountStateStore accountStateStore, UserMapper userMapper,
+                             ObjectMapper objectMapper, Validator validator,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.import.chunk-size:5000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.accountStateStore = accountStateStore;
+        this.userMapper = userMapper;
+        this.objectMapper = objectMapper;
+        this.userReader = objectMapper.readerFor(UserDTO.class);
+        this.csvReader = new CsvMapper()
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .readerFor(new TypeReference<Map<String, String>>() { })
+            .with(CsvSchema.emptySchema().withHeader());
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Imports every record of the input stream: one JSON object per line, or
+     * one CSV record (which may span lines inside quotes) after a header row
+     * 
+     * @throws IllegalArgumentException if a CSV input has no header row
+     */
+    public UserImportResultDTO importUsers(InputStream input, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(input, StandardCharsets.UTF_8), 64 * 1024);
+        
+        MappingIterator<Map<String, String>> csvRecords = null;
+        if (format == Format.CSV) {
+            try {
+                csvRecords = csvReader.readValues(reader);
+            } catch (CsvReadException e) {
+                throw new IllegalArgumentException("CSV input must start with a header row");
+            }
+        }
+        
+        UserImportResultDTO result = new UserImportResultDTO();
+        Set<String> emails = userRepository.findAllEmails();
+        Set<String> memberIds = userRepository.findAllMemberIds();
+        List<User> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkRows = new ArrayList<>(chunkSize);
+        
+        long row = 0;
+        while (true) {
+            UserDTO dto;
+            try {
+                if (csvRecords != null) {
+                    if (!csvRecords.hasNextValue()) {
+                        break;
+                    }
+                    row++;
+                    dto = toUserDTO(csvRecords.nextValue());
+                } else {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    row++;
+                    dto = userReader.readValue(line);
+                }
+            } catch (JsonProcessingException e) {
+                reject(result, row, "Malformed row: " + e.getOriginalMessage());
+                continue;
+            } catch (IllegalArgumentException e) {
+                reject(result, row, "Malformed row: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                continue;
+            }
+            
+            String violations = validate(dto);
+            if (violations != null) {
+                reject(result, row, violations);
+                continue;
+            }
+            
+            // Business rule: email and member ID must be unique, including within this import
+            if (!emails.add(dto.getEmail())) {
+                reject(result, row, "User already exists with email: " + dto.getEmail());
+                continue;
+            }
+            if (dto.getMemberId() != null && !memberIds.add(dto.getMemberId())) {
+                emails.remove(dto.getEmail());
+                reject(result, row, "User already exists with member ID: " + dto.getMemberId());
+                continue;
+            }
+            
+            User user = userMapper.toDomainModel(dto);
+            user.setId(null);
+            if (user.getIsActive() == null) {
+                user.setIsActive(true);
+            }
+            if (user.getPoints() == null) {
+                user.setPoints(0);
+            }
+            
+            chunk.add(user);
+            chunkRows.add(row);
+            if (chunk.size() >= chunkSize) {
+                flush(chunk, chunkRows, result);
+            }
+        }
+        flush(chunk, chunkRows, result);
+        
+        result.setTotalRows(row);
+        return result;
+    }
+    
+    /**
+     * Inserts one chunk in its own transaction. If the chunk hits a constraint
+     * (e.g. a concurrent create took an email), it is replayed row by row so
+     * only the offending rows are reported
+     */
+    private void flush(List<User> chunk, List<Long> chunkRows, UserImportResultDTO result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertAndTrack(chunk));
+            result.setImported(result.getImported() + chunk.size());
+        } catch (DataAccessException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                List<User> single = List.of(chunk.get(i));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insertAndTrack(single));
+                    result.setImported(result.getImported() + 1);
+                } catch (DataAccessException rowFailure) {
+                    reject(result, chunkRows.get(i), "Could not insert row: "
+                        + NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        
+        chunk.clear();
+        chunkRows.clear();
+    }
+    
+    private void insertAndTrack(List<User> users) {
+        userRepository.insertAll(users);
+        accountStateStore.trackNewUsers();
+    }
+    
+    private String validate(UserDTO dto) {
+        Set<ConstraintViolation<UserDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+    
+    private void reject(UserImportResultDTO result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new UserImportResultDTO.RowError(row, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+    
+    /**
+     * Maps a CSV record onto UserDTO by header name; empty cells are treated as absent
+     */
+    private UserDTO toUserDTO(Map<String, String> record) {
+        Map<String, String> fields = new HashMap<>(record.size() * 2);
+        record.forEach((column, value) -> {
+            if (!value.isEmpty()) {
+                fields.put(column.trim(), value);
+            }
+        });
+        return objectMapper.convertValue(fields, UserDTO.class);
+    }
+}
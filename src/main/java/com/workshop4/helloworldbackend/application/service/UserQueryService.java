@@ -0,0 +1,54 @@
+package com.workshop4.helloworldbackend.application.service;
+
+import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import com.workshop4.helloworldbackend.application.query.UserQueryRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User Query Service - Read side of the user API
+ * List endpoints are served from row projections instead of the
+ * entity -> domain -> DTO mapping chain used by the write side
+ */
+@Service
+@Transactional(readOnly = true)
+public class UserQueryService {
+    
+    private final UserQueryRepository userQueryRepository;
+    
+    public UserQueryService(UserQueryRepository userQueryRepository) {
+        this.userQueryRepository = userQueryRepository;
+    }
+    
+    public List<UserResponseDTO> getAllUsers() {
+        return userQueryRepository.findAll();
+    }
+    
+    public List<UserResponseDTO> getActiveUsers() {
+        return userQueryRepository.findActive();
+    }
+    
+    public List<UserResponseDTO> searchUsers(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return userQueryRepository.findAll();
+        }
+        return userQueryRepository.findByName(search);
+    }
+    
+    public List<UserResponseDTO> searchUsersByCriteria(String firstName, String lastName,
+                                                       String email, String city, Boolean isActive) {
+        return userQueryRepository.search(firstName, lastName, email, city, isActive);
+    }
+    
+    /**
+     * Gets the user's current ETag with a single-row, two-column query, so a
+     * conditional GET can answer 304 without loading the user
+     */
+    public Optional<EntityRevision> getUserRevision(Long id) {
+        return userQueryRepository.findRevision(id);
+    }
+}
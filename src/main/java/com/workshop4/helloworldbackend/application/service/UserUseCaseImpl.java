@@ -1,32 +1,76 @@
 package com.workshop4.helloworldbackend.application.service;
 
+import com.workshop4.helloworldbackend.domain.model.BulkUpdateProgress;
+import com.workshop4.helloworldbackend.domain.model.BulkUserChange;
+import com.workshop4.helloworldbackend.domain.model.PointsLedgerEntry;
 import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.model.UserSelection;
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.domain.repository.PointsLedger;
 import com.workshop4.helloworldbackend.domain.repository.UserRepository;
 import com.workshop4.helloworldbackend.domain.usecase.UserUseCase;
 import com.workshop4.helloworldbackend.exception.DuplicateResourceException;
+import com.workshop4.helloworldbackend.exception.PreconditionFailedException;
 import com.workshop4.helloworldbackend.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Use Case Implementation - Contains business logic
  * This is part of Application Layer
+ *
+ * Single-user writes check the user outside any transaction and then run in
+ * a transaction that starts with the write itself, as transfers do: SQLite
+ * lets a transaction wait for the write lock only while it has read nothing,
+ * so one that read first fails at once when another writer commits in
+ * between. The write repeats the checks that can change meanwhile (the
+ * user's version, the unique email).
  */
 @Service
 @Transactional
 public class UserUseCaseImpl implements UserUseCase {
     
     private final UserRepository userRepository;
+    private final AccountStateStore accountStateStore;
+    private final PointsLedger pointsLedger;
+    private final TransactionTemplate transactionTemplate;
+    private final int bulkChunkSize;
+    private final int bulkMaxIds;
     
     @Autowired
-    public UserUseCaseImpl(UserRepository userRepository) {
+    public UserUseCaseImpl(UserRepository userRepository, AccountStateStore accountStateStore,
+                           PointsLedger pointsLedger, PlatformTransactionManager transactionManager,
+                           @Value("${app.bulk.chunk-size:1000}") int bulkChunkSize,
+                           @Value("${app.bulk.max-ids:100000}") int bulkMaxIds) {
         this.userRepository = userRepository;
+        this.accountStateStore = accountStateStore;
+        this.pointsLedger = pointsLedger;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkMaxIds = bulkMaxIds;
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User createUser(User user) {
         // Business rule: Check if email already exists
         if (userRepository.existsByEmail(user.getEmail())) {
@@ -43,10 +87,18 @@ public class UserUseCaseImpl implements UserUseCase {
             user.setPoints(0);
         }
         
-        return userRepository.save(user);
+        return write(null, user.getEmail(), () -> {
+            User savedUser = userRepository.save(user);
+            accountStateStore.register(savedUser.getId(), savedUser.getIsActive(), savedUser.getPoints());
+            return savedUser;
+        });
     }
     
+    /**
+     * Read-only, so concurrent lookups of the same user can share one query
+     */
     @Override
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException(
@@ -89,8 +141,10 @@ public class UserUseCaseImpl implements UserUseCase {
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User updateUser(Long id, User updatedUser) {
         User existingUser = getUserById(id);
+        requireVersion(existingUser, updatedUser.getVersion());
         
         // Business rule: Check email uniqueness if email is being changed
         if (!existingUser.getEmail().equals(updatedUser.getEmail())) {
@@ -116,94 +170,90 @@ public class UserUseCaseImpl implements UserUseCase {
         existingUser.setBio(updatedUser.getBio());
         existingUser.setAvatarUrl(updatedUser.getAvatarUrl());
         existingUser.setMembershipLevel(updatedUser.getMembershipLevel());
+        int previousPoints = pointsOf(existingUser);
         existingUser.setPoints(updatedUser.getPoints());
         existingUser.setRegistrationDate(updatedUser.getRegistrationDate());
         
-        return userRepository.save(existingUser);
+        // Saved at the version just read
+        return write(id, updatedUser.getEmail(), () -> {
+            User savedUser = userRepository.save(existingUser);
+            trackPointsChange(id, previousPoints, pointsOf(savedUser));
+            return savedUser;
+        });
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User partialUpdateUser(Long id, User updatedUser) {
-        User existingUser = getUserById(id);
-        
-        // Update only non-null fields
-        if (updatedUser.getMemberId() != null) {
-            existingUser.setMemberId(updatedUser.getMemberId());
-        }
-        if (updatedUser.getFirstName() != null) {
-            existingUser.setFirstName(updatedUser.getFirstName());
-        }
-        if (updatedUser.getLastName() != null) {
-            existingUser.setLastName(updatedUser.getLastName());
-        }
-        if (updatedUser.getEmail() != null && !existingUser.getEmail().equals(updatedUser.getEmail())) {
-            if (userRepository.existsByEmail(updatedUser.getEmail())) {
-                throw new DuplicateResourceException(
-                    "User already exists with email: " + updatedUser.getEmail()
-                );
-            }
-            existingUser.setEmail(updatedUser.getEmail());
-        }
-        if (updatedUser.getPhone() != null) {
-            existingUser.setPhone(updatedUser.getPhone());
-        }
-        if (updatedUser.getBirthDate() != null) {
-            existingUser.setBirthDate(updatedUser.getBirthDate());
-        }
-        if (updatedUser.getGender() != null) {
-            existingUser.setGender(updatedUser.getGender());
-        }
-        if (updatedUser.getAddress() != null) {
-            existingUser.setAddress(updatedUser.getAddress());
-        }
-        if (updatedUser.getCity() != null) {
-            existingUser.setCity(updatedUser.getCity());
-        }
-        if (updatedUser.getCountry() != null) {
-            existingUser.setCountry(updatedUser.getCountry());
-        }
-        if (updatedUser.getPostalCode() != null) {
-            existingUser.setPostalCode(updatedUser.getPostalCode());
-        }
-        if (updatedUser.getBio() != null) {
-            existingUser.setBio(updatedUser.getBio());
-        }
-        if (updatedUser.getAvatarUrl() != null) {
-            existingUser.setAvatarUrl(updatedUser.getAvatarUrl());
-        }
-        if (updatedUser.getMembershipLevel() != null) {
-            existingUser.setMembershipLevel(updatedUser.getMembershipLevel());
+        // Business rule: Check email uniqueness if email is being changed
+        if (updatedUser.getEmail() != null) {
+            userRepository.findByEmail(updatedUser.getEmail())
+                .filter(owner -> !owner.getId().equals(id))
+                .ifPresent(owner -> {
+                    throw new DuplicateResourceException(
+                        "User already exists with email: " + updatedUser.getEmail()
+                    );
+                });
         }
+        
+        // A points change is tracked as a difference, so only then is the
+        // previous balance read, and the update pinned to the version read
+        Integer previousPoints = null;
         if (updatedUser.getPoints() != null) {
-            existingUser.setPoints(updatedUser.getPoints());
-        }
-        if (updatedUser.getRegistrationDate() != null) {
-            existingUser.setRegistrationDate(updatedUser.getRegistrationDate());
+            User existingUser = getUserById(id);
+            requireVersion(existingUser, updatedUser.getVersion());
+            previousPoints = pointsOf(existingUser);
+            updatedUser.setVersion(existingUser.getVersion());
         }
         
-        return userRepository.save(existingUser);
+        // Update only non-null fields, without loading the user, in a
+        // transaction that starts with that UPDATE
+        Integer pointsBefore = previousPoints;
+        Optional<User> savedUser = write(id, updatedUser.getEmail(), () -> {
+            Optional<User> saved = userRepository.saveNonNullFields(id, updatedUser);
+            if (pointsBefore != null) {
+                saved.ifPresent(user -> trackPointsChange(id, pointsBefore, pointsOf(user)));
+            }
+            return saved;
+        });
+        return savedUser.orElseThrow(() -> missingOrChanged(id, updatedUser.getVersion()));
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteUser(Long id) {
         if (!userRepository.findById(id).isPresent()) {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
-        userRepository.deleteById(id);
+        write(id, null, () -> {
+            userRepository.deleteById(id);
+            accountStateStore.evict(id);
+            return null;
+        });
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User activateUser(Long id) {
         User user = getUserById(id);
         user.activate();  // Business logic in domain model
-        return userRepository.save(user);
+        return write(id, null, () -> {
+            User savedUser = userRepository.save(user);
+            accountStateStore.activate(id);
+            return savedUser;
+        });
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User deactivateUser(Long id) {
         User user = getUserById(id);
         user.deactivate();  // Business logic in domain model
-        return userRepository.save(user);
+        return write(id, null, () -> {
+            User savedUser = userRepository.save(user);
+            accountStateStore.deactivate(id);
+            return savedUser;
+        });
     }
     
     @Override
@@ -214,4 +264,151 @@ public class UserUseCaseImpl implements UserUseCase {
         
         return new UserStats(totalUsers, activeUsers, inactiveUsers);
     }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void validateBulkSelection(UserSelection selection) {
+        if (selection.byIdList() && selection.ids().size() > bulkMaxIds) {
+            throw new IllegalArgumentException("At most " + bulkMaxIds + " ids can be selected; select by criteria instead");
+        }
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateProgress activateUsers(UserSelection selection, Consumer<BulkUpdateProgress> progress) {
+        return updateInChunks(selection, BulkUserChange.activate(), progress);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateProgress deactivateUsers(UserSelection selection, Consumer<BulkUpdateProgress> progress) {
+        return updateInChunks(selection, BulkUserChange.deactivate(), progress);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkUpdateProgress adjustPoints(UserSelection selection, int delta, String reason,
+                                           Consumer<BulkUpdateProgress> progress) {
+        return updateInChunks(selection, BulkUserChange.adjustPoints(delta, reason), progress);
+    }
+    
+    /**
+     * Runs a bulk change without a surrounding transaction: every chunk
+     * commits on its own, so a failure keeps the chunks already reported
+     */
+    private BulkUpdateProgress updateInChunks(UserSelection selection, BulkUserChange change,
+                                              Consumer<BulkUpdateProgress> progress) {
+        validateBulkSelection(selection);
+        String operationId = UUID.randomUUID().toString();
+        Long total = selection.byIdList() ? (long) new HashSet<>(selection.ids()).size() : null;
+        long[] counts = new long[2];
+        
+        userRepository.updateInChunks(selection, change, bulkChunkSize, (processed, updated) -> {
+            for (User user : updated) {
+                trackBulkChange(user.getId(), change);
+            }
+            if (change.adjustsPoints()) {
+                pointsLedger.record(ledgerEntries(updated, change, operationId));
+            }
+            
+            counts[0] += processed;
+            counts[1] += updated.size();
+            BulkUpdateProgress chunkDone = new BulkUpdateProgress(operationId, counts[0], counts[1], total, false);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    progress.accept(chunkDone);
+                }
+            });
+        });
+        
+        BulkUpdateProgress done = new BulkUpdateProgress(operationId, counts[0], counts[1], total, true);
+        progress.accept(done);
+        return done;
+    }
+    
+    /**
+     * Mirrors a bulk change in the account state store, with the same
+     * ordering guarantees as the single-user operations
+     */
+    private void trackBulkChange(Long id, BulkUserChange change) {
+        if (Boolean.TRUE.equals(change.active())) {
+            accountStateStore.activate(id);
+        } else if (Boolean.FALSE.equals(change.active())) {
+            accountStateStore.deactivate(id);
+        }
+        if (change.adjustsPoints()) {
+            trackPointsChange(id, 0, change.pointsDelta());
+        }
+    }
+    
+    private static List<PointsLedgerEntry> ledgerEntries(List<User> updated, BulkUserChange change,
+                                                         String operationId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PointsLedgerEntry> entries = new ArrayList<>(updated.size());
+        for (User user : updated) {
+            entries.add(new PointsLedgerEntry(user.getId(), change.pointsDelta(), pointsOf(user),
+                change.reason(), operationId, now));
+        }
+        return entries;
+    }
+    
+    /**
+     * Runs a write in a transaction of its own, which must start with the
+     * write. A UNIQUE violation on an email that another user took since the
+     * check is reported like the check would have.
+     */
+    private <T> T write(Long id, String email, Supplier<T> step) {
+        try {
+            return transactionTemplate.execute(status -> step.get());
+        } catch (DataIntegrityViolationException e) {
+            if (email != null && userRepository.findByEmail(email)
+                    .filter(owner -> !owner.getId().equals(id)).isPresent()) {
+                throw new DuplicateResourceException("User already exists with email: " + email);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Business rule: an update made against a known version only applies to
+     * that version. The save repeats the check, so a change committed after
+     * this read is caught as well.
+     */
+    private static void requireVersion(User existingUser, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(existingUser.getVersion())) {
+            throw new PreconditionFailedException(
+                "User " + existingUser.getId() + " has changed since version " + expectedVersion
+            );
+        }
+    }
+    
+    /**
+     * Why a versioned write matched no row: the user is gone, or it moved
+     * past the expected version
+     */
+    private RuntimeException missingOrChanged(Long id, Long expectedVersion) {
+        if (expectedVersion != null && userRepository.findById(id).isPresent()) {
+            return new OptimisticLockingFailureException(
+                "User " + id + " has changed since version " + expectedVersion
+            );
+        }
+        return new ResourceNotFoundException("User not found with id: " + id);
+    }
+    
+    /**
+     * Mirrors an admin points change in the account state store as a credit or
+     * a debit, so it keeps the store's ordering guarantees
+     */
+    private void trackPointsChange(Long id, int previousPoints, int newPoints) {
+        if (newPoints > previousPoints) {
+            accountStateStore.creditPoints(id, newPoints - previousPoints);
+        } else if (newPoints < previousPoints) {
+            accountStateStore.debitPoints(id, previousPoints - newPoints);
+        }
+    }
+    
+    private static int pointsOf(User user) {
+        return Objects.requireNonNullElse(user.getPoints(), 0);
+    }
 }
@@ -0,0 +1,17 @@
+package com.workshop4.helloworldbackend.domain.exception;
+
+/**
+ * Invalid transfer request (bad ids, amount or note)
+ * Stackless: it reports bad client input, so the stack trace would only cost CPU
+ */
+public class TransferValidationException extends IllegalArgumentException {
+    
+    public TransferValidationException(String message) {
+        super(message);
+    }
+    
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,15 @@
+package com.workshop4.helloworldbackend.domain.model;
+
+/**
+ * Domain Model: BulkUpdateProgress
+ * Committed progress of a bulk operation, reported after every chunk.
+ *
+ * @param operationId Identifies the operation, e.g. in the points ledger
+ * @param processed Selected users looked at so far: for an id list every id, missing users included;
+ *                  for criteria only the users that needed the change
+ * @param updated Users changed so far; the rest were missing or already in the target state
+ * @param total Number of selected ids, or null when selecting by criteria
+ * @param done Whether the operation has finished
+ */
+public record BulkUpdateProgress(String operationId, long processed, long updated, Long total, boolean done) {
+}
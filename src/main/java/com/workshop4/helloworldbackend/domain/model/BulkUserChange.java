@@ -0,0 +1,37 @@
+package com.workshop4.helloworldbackend.domain.model;
+
+/**
+ * Domain Model: BulkUserChange
+ * What a bulk operation does to each selected user: set the active flag or
+ * adjust the points balance. Users already in the target state are left
+ * alone, and a deduction never takes a balance below zero; such users are
+ * skipped.
+ *
+ * @param active Active flag to set, or null
+ * @param pointsDelta Points to add (negative to deduct), or null
+ * @param reason Why points are adjusted, recorded in the points ledger
+ */
+public record BulkUserChange(Boolean active, Integer pointsDelta, String reason) {
+
+    public static BulkUserChange activate() {
+        return new BulkUserChange(true, null, null);
+    }
+
+    public static BulkUserChange deactivate() {
+        return new BulkUserChange(false, null, null);
+    }
+
+    public static BulkUserChange adjustPoints(Integer delta, String reason) {
+        if (delta == null || delta == 0) {
+            throw new IllegalArgumentException("delta must be a non-zero number of points");
+        }
+        if (reason != null && reason.length() > 255) {
+            throw new IllegalArgumentException("reason cannot exceed 255 characters");
+        }
+        return new BulkUserChange(null, delta, reason);
+    }
+
+    public boolean adjustsPoints() {
+        return pointsDelta != null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.workshop4.helloworldbackend.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain Model: ChangeEvent
+ * A committed change to a user or transfer, as published on the change stream.
+ * Offsets increase by one per event, so a consumer resumes
+ * by asking for the events after the last offset it processed.
+ *
+ * @param offset Position of the event in the change stream
+ * @param type Event type, e.g. transfer.created or user.updated
+ * @param aggregateId User id or transfer idempotency key
+ * @param occurredAt When the change was committed
+ * @param payload JSON state of the user or transfer after the change
+ */
+public record ChangeEvent(long offset, String type, String aggregateId, LocalDateTime occurredAt, String payload) {
+}
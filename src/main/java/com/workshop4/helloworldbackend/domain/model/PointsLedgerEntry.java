@@ -0,0 +1,18 @@
+package com.workshop4.helloworldbackend.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain Model: PointsLedgerEntry
+ * A change to one member's points balance made by a points adjustment.
+ *
+ * @param userId Member whose balance changed
+ * @param delta Points added, negative when deducted
+ * @param balance Balance after the change
+ * @param reason Why the points were adjusted
+ * @param operationId The bulk operation that made the change
+ * @param createdAt When the change was made
+ */
+public record PointsLedgerEntry(Long userId, int delta, int balance, String reason, String operationId,
+                                LocalDateTime createdAt) {
+}
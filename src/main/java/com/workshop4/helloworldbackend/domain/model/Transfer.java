@@ -1,5 +1,7 @@
 package com.workshop4.helloworldbackend.domain.model;
 
+import com.workshop4.helloworldbackend.domain.exception.TransferValidationException;
+
 import java.time.LocalDateTime;
 
 /**
@@ -42,19 +44,19 @@ public class Transfer {
      */
     public void validate() {
         if (fromUserId == null || fromUserId <= 0) {
-            throw new IllegalArgumentException("fromUserId must be positive");
+            throw new TransferValidationException("fromUserId must be positive");
         }
         if (toUserId == null || toUserId <= 0) {
-            throw new IllegalArgumentException("toUserId must be positive");
+            throw new TransferValidationException("toUserId must be positive");
         }
         if (amount == null || amount <= 0) {
-            throw new IllegalArgumentException("amount must be positive");
+            throw new TransferValidationException("amount must be positive");
         }
         if (fromUserId.equals(toUserId)) {
-            throw new IllegalArgumentException("Cannot transfer to yourself");
+            throw new TransferValidationException("Cannot transfer to yourself");
         }
         if (note != null && note.length() > 512) {
-            throw new IllegalArgumentException("note cannot exceed 512 characters");
+            throw new TransferValidationException("note cannot exceed 512 characters");
         }
     }
 
@@ -116,10 +118,27 @@ public class Transfer {
      * Checks if transfer is in a final state
      */
     public boolean isFinal() {
-        return status == TransferStatus.COMPLETED || 
-               status == TransferStatus.FAILED || 
-               status == TransferStatus.CANCELLED ||
-               status == TransferStatus.REVERSED;
+        return status != null && status.isFinal();
+    }
+
+    /**
+     * Independent copy in the same state, for repeating an operation that
+     * changes the transfer's state
+     */
+    public Transfer copy() {
+        Transfer copy = new Transfer();
+        copy.idemKey = idemKey;
+        copy.transferId = transferId;
+        copy.fromUserId = fromUserId;
+        copy.toUserId = toUserId;
+        copy.amount = amount;
+        copy.status = status;
+        copy.note = note;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.completedAt = completedAt;
+        copy.failReason = failReason;
+        return copy;
     }
 
     /**
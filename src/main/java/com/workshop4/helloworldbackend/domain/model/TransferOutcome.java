@@ -0,0 +1,38 @@
+package com.workshop4.helloworldbackend.domain.model;
+
+/**
+ * Transfer Outcome
+ * Result of a transfer request. Expected business declines are returned as
+ * {@link Rejected} values rather than thrown, so the decline path costs no
+ * stack-trace capture and callers branch on a typed reason instead of a message
+ */
+public sealed interface TransferOutcome permits TransferOutcome.Completed, TransferOutcome.Rejected {
+
+    /**
+     * The transfer record (COMPLETED, or FAILED with a fail reason)
+     */
+    Transfer transfer();
+
+    /**
+     * Points were moved and the transfer is completed
+     */
+    record Completed(Transfer transfer) implements TransferOutcome {
+    }
+
+    /**
+     * The transfer was declined by a business rule
+     */
+    record Rejected(Transfer transfer, Reason reason, String message) implements TransferOutcome {
+    }
+
+    /**
+     * Business rules a transfer can be declined by
+     */
+    enum Reason {
+        SENDER_NOT_FOUND,
+        RECEIVER_NOT_FOUND,
+        SENDER_INACTIVE,
+        RECEIVER_INACTIVE,
+        INSUFFICIENT_POINTS
+    }
+}
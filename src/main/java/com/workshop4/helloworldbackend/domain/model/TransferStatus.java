@@ -2,13 +2,50 @@ package com.workshop4.helloworldbackend.domain.model;
 
 /**
  * Transfer Status Enum
- * Represents the lifecycle states of a points transfer
+ * Represents the lifecycle states of a points transfer. Each status has a
+ * fixed integer code, used wherever it is stored or tagged; unlike the
+ * ordinal it never changes when constants are added or reordered.
  */
 public enum TransferStatus {
-    PENDING,      // Transfer created but not yet processed
-    PROCESSING,   // Transfer is being processed
-    COMPLETED,    // Transfer successfully completed
-    FAILED,       // Transfer failed (e.g., insufficient points)
-    CANCELLED,    // Transfer cancelled before completion
-    REVERSED      // Transfer reversed after completion
+    PENDING(0),      // Transfer created but not yet processed
+    PROCESSING(1),   // Transfer is being processed
+    COMPLETED(2),    // Transfer successfully completed
+    FAILED(3),       // Transfer failed (e.g., insufficient points)
+    CANCELLED(4),    // Transfer cancelled before completion
+    REVERSED(5);     // Transfer reversed after completion
+
+    private static final TransferStatus[] BY_CODE = new TransferStatus[values().length];
+
+    static {
+        for (TransferStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final int code;
+
+    TransferStatus(int code) {
+        this.code = code;
+    }
+
+    /**
+     * The status's fixed code
+     */
+    public int code() {
+        return code;
+    }
+
+    public static TransferStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown transfer status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * Checks if the status is final, i.e. a transfer in it never changes again
+     */
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED || this == REVERSED;
+    }
 }
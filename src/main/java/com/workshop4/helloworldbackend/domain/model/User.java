@@ -29,6 +29,7 @@ public class User {
     private Boolean isActive;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Constructor
     public User() {
@@ -57,6 +58,36 @@ public class User {
         }
     }
 
+    /**
+     * Independent copy in the same state, for handing one loaded user to
+     * several callers that may each change it
+     */
+    public User copy() {
+        User copy = new User();
+        copy.id = id;
+        copy.memberId = memberId;
+        copy.firstName = firstName;
+        copy.lastName = lastName;
+        copy.email = email;
+        copy.phone = phone;
+        copy.birthDate = birthDate;
+        copy.gender = gender;
+        copy.address = address;
+        copy.city = city;
+        copy.country = country;
+        copy.postalCode = postalCode;
+        copy.bio = bio;
+        copy.avatarUrl = avatarUrl;
+        copy.membershipLevel = membershipLevel;
+        copy.points = points;
+        copy.registrationDate = registrationDate;
+        copy.isActive = isActive;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.version = version;
+        return copy;
+    }
+
     public void upgradeMembership(String newLevel) {
         this.membershipLevel = newLevel;
     }
@@ -229,4 +260,12 @@ public class User {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
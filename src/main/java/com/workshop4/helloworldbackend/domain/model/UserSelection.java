@@ -0,0 +1,41 @@
+package com.workshop4.helloworldbackend.domain.model;
+
+import java.util.List;
+
+/**
+ * Domain Model: UserSelection
+ * The users a bulk operation applies to: either an explicit list of ids or
+ * every user matching the search criteria, with the same matching rules as
+ * the user search (case-insensitive substrings; null criteria match all).
+ *
+ * @param ids Users to select, or null to select by criteria
+ * @param firstName Substring of the first name
+ * @param lastName Substring of the last name
+ * @param email Substring of the email address
+ * @param city Substring of the city
+ * @param isActive Active flag
+ */
+public record UserSelection(List<Long> ids, String firstName, String lastName, String email, String city,
+                            Boolean isActive) {
+
+    public static UserSelection byIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new IllegalArgumentException("ids must be positive");
+            }
+        }
+        return new UserSelection(List.copyOf(ids), null, null, null, null, null);
+    }
+
+    public static UserSelection byCriteria(String firstName, String lastName, String email, String city,
+                                           Boolean isActive) {
+        return new UserSelection(null, firstName, lastName, email, city, isActive);
+    }
+
+    public boolean byIdList() {
+        return ids != null;
+    }
+}
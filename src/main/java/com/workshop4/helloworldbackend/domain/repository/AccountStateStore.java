@@ -0,0 +1,78 @@
+package com.workshop4.helloworldbackend.domain.repository;
+
+/**
+ * Account State Store Interface
+ * Defines contract for a compact in-memory view of each user's active flag and
+ * points balance, used to decline transfers that are certain to fail before any
+ * database call. The view is optimistic: its balance is never below the
+ * committed one and a user it reports inactive is never active in the database,
+ * so it may only be used to reject, never to approve. A user that is not held
+ * is reported as {@link #ABSENT} and must be checked against the database.
+ */
+public interface AccountStateStore {
+    
+    /**
+     * Returned by {@link #lookup} for users the store does not hold
+     */
+    long ABSENT = -1L;
+    
+    long ACTIVE_BIT = 1L << 62;
+    long POINTS_MASK = ACTIVE_BIT - 1;
+    
+    /**
+     * Packs an active flag and a non-negative balance into one long
+     */
+    static long pack(boolean active, long points) {
+        return (active ? ACTIVE_BIT : 0L) | (Math.max(0L, points) & POINTS_MASK);
+    }
+    
+    static boolean isActive(long state) {
+        return (state & ACTIVE_BIT) != 0;
+    }
+    
+    static long points(long state) {
+        return state & POINTS_MASK;
+    }
+    
+    /**
+     * Returns the packed state of a user, or {@link #ABSENT}
+     */
+    long lookup(long userId);
+    
+    /**
+     * Starts tracking a user that is being created
+     */
+    void register(long userId, boolean active, long points);
+    
+    /**
+     * Starts tracking users inserted in bulk since the last tracked user. Call
+     * it inside the transaction that inserted them, so no transfer can touch
+     * them before they are tracked.
+     */
+    void trackNewUsers();
+    
+    /**
+     * Stops tracking a user; later lookups go to the database
+     */
+    void evict(long userId);
+    
+    /**
+     * Adds points immediately, taken back if the current transaction rolls back
+     */
+    void creditPoints(long userId, long amount);
+    
+    /**
+     * Removes points once the current transaction commits
+     */
+    void debitPoints(long userId, long amount);
+    
+    /**
+     * Marks a user active immediately
+     */
+    void activate(long userId);
+    
+    /**
+     * Marks a user inactive once the current transaction commits
+     */
+    void deactivate(long userId);
+}
@@ -0,0 +1,51 @@
+package com.workshop4.helloworldbackend.domain.repository;
+
+import com.workshop4.helloworldbackend.domain.model.ChangeEvent;
+
+import java.util.List;
+
+/**
+ * Change Event Feed Interface
+ * Read side of the change stream: published user and transfer changes in
+ * offset order. Events are retained for a limited time; reading after an
+ * offset that has been pruned continues with the oldest retained event.
+ */
+public interface ChangeEventFeed {
+    
+    /**
+     * Offset of the newest published event, 0 if none
+     */
+    long latestOffset();
+    
+    /**
+     * Returns up to limit published events with an offset above afterOffset
+     */
+    List<ChangeEvent> readAfter(long afterOffset, int limit);
+    
+    /**
+     * Delivers every event after afterOffset to the listener, in batches of at
+     * most batchSize, first the backlog and then new events as they are
+     * published. Batches arrive on a background thread, one at a time.
+     */
+    Subscription subscribe(long afterOffset, int batchSize, Listener listener);
+    
+    /**
+     * Receives batches of events in offset order
+     */
+    @FunctionalInterface
+    interface Listener {
+        
+        /**
+         * @return false to end the subscription
+         */
+        boolean onEvents(List<ChangeEvent> events);
+    }
+    
+    interface Subscription {
+        
+        /**
+         * Stops deliveries; a batch already being delivered still completes
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,60 @@
+package com.workshop4.helloworldbackend.domain.repository;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+
+import java.util.List;
+
+/**
+ * Incoming Transfer Feed Interface
+ * In-process notifications of completed transfers for their receivers. Only
+ * transfers completed after a subscriber joined reach it; there is no replay,
+ * so a subscriber that reconnects reads what it missed from the history.
+ */
+public interface IncomingTransferFeed {
+
+    /**
+     * Announces a committed, completed transfer to the receiver's subscribers
+     */
+    void publish(Transfer transfer);
+
+    /**
+     * Delivers transfers completed for the user from now on, until the
+     * subscription is cancelled, the subscriber declines or it falls behind
+     *
+     * @throws IllegalStateException when the node has no room for more subscribers
+     */
+    Subscription subscribe(Long userId, Subscriber subscriber);
+
+    /**
+     * Receives notifications on a background thread, one call at a time
+     */
+    interface Subscriber {
+
+        /**
+         * @return false to end the subscription
+         */
+        boolean onTransfers(List<Transfer> transfers);
+
+        /**
+         * Called periodically so idle connections can be kept open and dead ones detected
+         *
+         * @return false to end the subscription
+         */
+        boolean onIdle();
+
+        /**
+         * Called once instead of further deliveries when more transfers queued
+         * up than the subscriber consumed, or after a call that blocked for
+         * longer than the feed allows; the subscription has ended
+         */
+        void onDropped();
+    }
+
+    interface Subscription {
+
+        /**
+         * Stops deliveries; a call already in progress still completes
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,18 @@
+package com.workshop4.helloworldbackend.domain.repository;
+
+import com.workshop4.helloworldbackend.domain.model.PointsLedgerEntry;
+
+import java.util.List;
+
+/**
+ * Points Ledger Interface
+ * Append-only record of points adjustments. Entries are written inside the
+ * transaction that changed the balances, so both commit or roll back together.
+ */
+public interface PointsLedger {
+
+    /**
+     * Appends the entries
+     */
+    void record(List<PointsLedgerEntry> entries);
+}
@@ -0,0 +1,17 @@
+package com.workshop4.helloworldbackend.domain.repository;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+
+/**
+ * Transfer Rejection Log Interface
+ * Defines contract for recording declined (FAILED) transfer attempts off the
+ * request path
+ */
+public interface TransferRejectionLog {
+    
+    /**
+     * Records a FAILED transfer. Implementations may persist it asynchronously,
+     * so the transfer ID is not assigned when this returns
+     */
+    void record(Transfer transfer);
+}
@@ -1,8 +1,10 @@
 package com.workshop4.helloworldbackend.domain.repository;
 
 import com.workshop4.helloworldbackend.domain.model.Transfer;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Transfer Repository Interface
@@ -15,6 +17,11 @@ public interface TransferRepository {
      */
     Transfer save(Transfer transfer);
     
+    /**
+     * Inserts new transfers in bulk (batched multi-row inserts)
+     */
+    void insertAll(List<Transfer> transfers);
+    
     /**
      * Finds a transfer by its idempotency key
      */
@@ -36,6 +43,12 @@ public interface TransferRepository {
      */
     long countByUserId(Long userId);
     
+    /**
+     * Streams every transfer involving a specific user (as sender or receiver)
+     * to the consumer in transfer ID order, one row at a time
+     */
+    void streamByUserId(Long userId, Consumer<Transfer> consumer);
+    
     /**
      * Finds all transfers from a specific user
      */
@@ -1,9 +1,12 @@
 package com.workshop4.helloworldbackend.domain.repository;
 
+import com.workshop4.helloworldbackend.domain.model.BulkUserChange;
 import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.model.UserSelection;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Domain Repository Interface - Defines contract for data access
@@ -13,6 +16,23 @@ public interface UserRepository {
     
     User save(User user);
     
+    /**
+     * Writes the users' points if each stored user is still at that user's
+     * version, then advances the versions on the users as well. Returns false
+     * when another write changed any of them first; users written before it
+     * are only undone when the surrounding transaction rolls back, so callers
+     * must roll it back then.
+     */
+    boolean savePoints(List<User> users);
+    
+    /**
+     * Writes only the non-null fields of changes, with a new updatedAt and
+     * version, without reading the user first. When changes carries a version,
+     * nothing is written unless the stored user is still at it. Returns the
+     * user as written, or empty when no user matched.
+     */
+    Optional<User> saveNonNullFields(Long id, User changes);
+    
     Optional<User> findById(Long id);
     
     Optional<User> findByEmail(String email);
@@ -29,9 +49,33 @@ public interface UserRepository {
     
     boolean existsByEmail(String email);
     
+    Set<String> findAllEmails();
+    
+    Set<String> findAllMemberIds();
+    
+    void insertAll(List<User> users);
+    
+    /**
+     * Applies the change to the selected users in chunks of at most chunkSize
+     * users, each chunk in a transaction of its own that starts with
+     * a single UPDATE, so memory is bounded by one chunk. The listener
+     * runs inside each chunk's transaction.
+     */
+    void updateInChunks(UserSelection selection, BulkUserChange change, int chunkSize, ChunkListener listener);
+    
     void deleteById(Long id);
     
     long count();
     
     long countByIsActive(Boolean isActive);
+    
+    interface ChunkListener {
+        
+        /**
+         * @param processed selected users the chunk covered; when selecting by
+         *                  criteria, only those that needed the change
+         * @param updated   users the chunk changed, as written
+         */
+        void onChunk(int processed, List<User> updated);
+    }
 }
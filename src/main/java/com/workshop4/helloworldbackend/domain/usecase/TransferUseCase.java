@@ -1,7 +1,10 @@
 package com.workshop4.helloworldbackend.domain.usecase;
 
 import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferOutcome;
+import com.workshop4.helloworldbackend.domain.repository.IncomingTransferFeed;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Transfer Use Case Interface
@@ -17,9 +20,10 @@ public interface TransferUseCase {
      * @param toUserId The user ID receiving points
      * @param amount The amount of points to transfer
      * @param note Optional note for the transfer
-     * @return The created transfer with generated idempotency key
+     * @return Completed with the created transfer, or Rejected with the business rule
+     *         that declined it (the FAILED transfer is recorded either way)
      */
-    Transfer createTransfer(Long fromUserId, Long toUserId, Integer amount, String note);
+    TransferOutcome createTransfer(Long fromUserId, Long toUserId, Integer amount, String note);
     
     /**
      * Gets a transfer by its idempotency key
@@ -39,6 +43,23 @@ public interface TransferUseCase {
      */
     TransferListResult getTransfersByUserId(Long userId, int page, int pageSize);
     
+    /**
+     * Streams the complete transfer history of a user without paging
+     * 
+     * @param userId The user ID to filter by
+     * @param consumer Receives each transfer in transfer ID order
+     */
+    void exportTransfersByUserId(Long userId, Consumer<Transfer> consumer);
+    
+    /**
+     * Notifies the subscriber of every transfer completed for the user from now on
+     * 
+     * @param userId The receiving user ID
+     * @param subscriber Receives the completed transfers on a background thread
+     * @return Subscription to cancel when the client goes away
+     */
+    IncomingTransferFeed.Subscription subscribeToIncomingTransfers(Long userId, IncomingTransferFeed.Subscriber subscriber);
+    
     /**
      * Result object for paginated transfer list
      */
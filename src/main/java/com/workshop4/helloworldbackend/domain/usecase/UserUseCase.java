@@ -1,8 +1,11 @@
 package com.workshop4.helloworldbackend.domain.usecase;
 
+import com.workshop4.helloworldbackend.domain.model.BulkUpdateProgress;
 import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.model.UserSelection;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Use Case Interface for User CRUD operations
@@ -25,8 +28,16 @@ public interface UserUseCase {
     List<User> searchUsersByCriteria(String firstName, String lastName, 
                                       String email, String city, Boolean isActive);
     
+    /**
+     * Replaces the user's fields. When the given user carries a version, the
+     * update only applies to that version of the stored user.
+     */
     User updateUser(Long id, User user);
     
+    /**
+     * Updates the user's non-null fields, with the same version check as
+     * {@link #updateUser}
+     */
     User partialUpdateUser(Long id, User user);
     
     void deleteUser(Long id);
@@ -37,6 +48,33 @@ public interface UserUseCase {
     
     UserStats getUserStats();
     
+    /**
+     * Checks that a bulk operation may run on the selection, so that it can be
+     * rejected before any progress is reported
+     *
+     * @throws IllegalArgumentException when the selection lists too many ids
+     */
+    void validateBulkSelection(UserSelection selection);
+    
+    /**
+     * Activates the selected users chunk by chunk, reporting progress after
+     * each chunk has committed, and returns the final progress
+     */
+    BulkUpdateProgress activateUsers(UserSelection selection, Consumer<BulkUpdateProgress> progress);
+    
+    /**
+     * Deactivates the selected users, like {@link #activateUsers}
+     */
+    BulkUpdateProgress deactivateUsers(UserSelection selection, Consumer<BulkUpdateProgress> progress);
+    
+    /**
+     * Adds delta points to the selected users (deducts them when negative,
+     * skipping users without enough points) and writes a points ledger entry
+     * for each user changed, like {@link #activateUsers}
+     */
+    BulkUpdateProgress adjustPoints(UserSelection selection, int delta, String reason,
+                                    Consumer<BulkUpdateProgress> progress);
+    
     /**
      * Inner class for user statistics
      */
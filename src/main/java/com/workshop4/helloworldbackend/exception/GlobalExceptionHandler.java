@@ -1,14 +1,20 @@
 package com.workshop4.helloworldbackend.exception;
 
+import com.workshop4.helloworldbackend.application.dto.ApiErrorDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,36 +25,86 @@ public class GlobalExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
     @ExceptionHandler(ResourceNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleResourceNotFoundException(ResourceNotFoundException ex) {
+    public ResponseEntity<ApiErrorDTO> handleResourceNotFoundException(ResourceNotFoundException ex) {
         logger.error("Resource not found: {}", ex.getMessage());
         
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", HttpStatus.NOT_FOUND.value());
-        errorResponse.put("error", "Not Found");
-        errorResponse.put("message", ex.getMessage());
+        ApiErrorDTO errorResponse = ApiErrorDTO.of(
+                HttpStatus.NOT_FOUND.value(), "Not Found", ex.getMessage());
         
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(DuplicateResourceException.class)
-    public ResponseEntity<Map<String, Object>> handleDuplicateResourceException(DuplicateResourceException ex) {
+    public ResponseEntity<ApiErrorDTO> handleDuplicateResourceException(DuplicateResourceException ex) {
         logger.error("Duplicate resource: {}", ex.getMessage());
         
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", HttpStatus.CONFLICT.value());
-        errorResponse.put("error", "Conflict");
-        errorResponse.put("message", ex.getMessage());
+        ApiErrorDTO errorResponse = ApiErrorDTO.of(
+                HttpStatus.CONFLICT.value(), "Conflict", ex.getMessage());
         
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiErrorDTO> handlePreconditionFailedException(PreconditionFailedException ex) {
+        logger.error("Precondition failed: {}", ex.getMessage());
+        
+        ApiErrorDTO errorResponse = ApiErrorDTO.of(
+                HttpStatus.PRECONDITION_FAILED.value(), "Precondition Failed", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * A concurrent write changed the row first (stale version). Conditional
+     * requests lost their precondition; other requests may simply be repeated.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiErrorDTO> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex,
+                                                                               WebRequest request) {
+        logger.error("Concurrent modification: {}", ex.getMessage());
+        
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+        ApiErrorDTO errorResponse = ApiErrorDTO.of(
+                status.value(), status.getReasonPhrase(), "The resource was modified concurrently, please retry");
+        
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    /**
+     * Any other concurrency failure, typically SQLITE_BUSY: another writer
+     * held the write lock past the busy timeout. Nothing was written and an
+     * If-Match the client sent may still be current, so this is not a lost
+     * precondition; the same request can be repeated.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ApiErrorDTO> handleConcurrencyFailureException(ConcurrencyFailureException ex) {
+        logger.error("Database busy: {}", ex.getMessage());
+        
+        ApiErrorDTO errorResponse = ApiErrorDTO.of(
+                HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable",
+                "The database is busy with other writes, please retry");
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiErrorDTO> handleInvalidRequestException(InvalidRequestException ex) {
+        logger.error("Bad request: {}", ex.getMessage());
+        
+        ApiErrorDTO errorResponse = ApiErrorDTO.of(
+                HttpStatus.BAD_REQUEST.value(), "Bad Request", ex.getMessage());
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+    public ResponseEntity<ApiErrorDTO> handleValidationExceptions(MethodArgumentNotValidException ex) {
         logger.error("Validation error: {}", ex.getMessage());
         
-        Map<String, Object> errorResponse = new HashMap<>();
         Map<String, String> validationErrors = new HashMap<>();
         
         ex.getBindingResult().getAllErrors().forEach((error) -> {
@@ -57,24 +113,31 @@ public class GlobalExceptionHandler {
             validationErrors.put(fieldName, errorMessage);
         });
         
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
-        errorResponse.put("error", "Validation Failed");
-        errorResponse.put("message", "Input validation failed");
-        errorResponse.put("validationErrors", validationErrors);
+        ApiErrorDTO errorResponse = new ApiErrorDTO(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Validation Failed",
+                "Input validation failed",
+                validationErrors);
         
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * A streaming client (event stream, export) went away mid-response; there
+     * is nobody left to send an error body to
+     */
+    @ExceptionHandler(IOException.class)
+    public void handleClientDisconnect(IOException ex) {
+        logger.debug("Client disconnected: {}", ex.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
+    public ResponseEntity<ApiErrorDTO> handleGenericException(Exception ex) {
         logger.error("Unexpected error: {}", ex.getMessage(), ex);
         
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("timestamp", LocalDateTime.now());
-        errorResponse.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        errorResponse.put("error", "Internal Server Error");
-        errorResponse.put("message", "An unexpected error occurred");
+        ApiErrorDTO errorResponse = ApiErrorDTO.of(
+                HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal Server Error", "An unexpected error occurred");
         
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
@@ -0,0 +1,15 @@
+package com.workshop4.helloworldbackend.exception;
+
+/**
+ * A request parameter or body the endpoint rejected as invalid (400)
+ */
+public class InvalidRequestException extends RuntimeException {
+    
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+    
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,32 +1,56 @@
 package com.workshop4.helloworldbackend.infrastructure.config;
 
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
 import com.workshop4.helloworldbackend.infrastructure.persistence.entity.UserEntity;
 import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JpaUserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 
 /**
  * Data Loader - Infrastructure layer
- * Loads initial data using JPA entities
+ * Loads initial data using JPA entities, or a synthetic data set of
+ * app.seed.users users and app.seed.transfers transfers when configured.
+ * Disabled with app.data-loader.enabled=false.
  */
 @Component
+@ConditionalOnProperty(name = "app.data-loader.enabled", havingValue = "true", matchIfMissing = true)
 public class DataLoader implements CommandLineRunner {
 
     private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
 
     private final JpaUserRepository userRepository;
+    private final DataSeeder dataSeeder;
+    private final AccountStateStore accountStateStore;
+    private final int seedUsers;
+    private final long seedTransfers;
+    private final long seedRandom;
 
-    public DataLoader(JpaUserRepository userRepository) {
+    public DataLoader(JpaUserRepository userRepository, DataSeeder dataSeeder,
+                      AccountStateStore accountStateStore,
+                      @Value("${app.seed.users:0}") int seedUsers,
+                      @Value("${app.seed.transfers:0}") long seedTransfers,
+                      @Value("${app.seed.random-seed:42}") long seedRandom) {
         this.userRepository = userRepository;
+        this.dataSeeder = dataSeeder;
+        this.accountStateStore = accountStateStore;
+        this.seedUsers = seedUsers;
+        this.seedTransfers = seedTransfers;
+        this.seedRandom = seedRandom;
     }
 
     @Override
     public void run(String... args) throws Exception {
-        if (userRepository.count() == 0) {
+        if (userRepository.count() == 0 && seedUsers > 0) {
+            logger.info("Seeding synthetic data: {} users, {} transfers...", seedUsers, seedTransfers);
+            DataSeeder.SeedResult result = dataSeeder.seed(seedUsers, seedTransfers, seedRandom);
+            logger.info("Synthetic data seeded in {} ms", result.getElapsedMillis());
+        } else if (userRepository.count() == 0) {
             logger.info("Loading sample data...");
             loadSampleUsers();
             logger.info("Sample data loaded successfully!");
@@ -136,6 +160,7 @@ public class DataLoader implements CommandLineRunner {
         userRepository.save(user3);
         userRepository.save(user4);
         userRepository.save(user5);
+        accountStateStore.trackNewUsers();
 
         logger.info("Created {} sample users", 5);
     }
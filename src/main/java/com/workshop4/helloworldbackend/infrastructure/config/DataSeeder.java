@@ -0,0 +1,307 @@
+package com.workshop4.helloworldbackend.infrastructure.config;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.domain.repository.TransferRepository;
+import com.workshop4.helloworldbackend.domain.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Synthetic Data Seeder - Infrastructure layer
+ * Generates large volumes of realistic users and transfers for load tests and
+ * benchmarks. Rows are generated in parallel chunks and handed to a single
+ * writer, since SQLite allows one writer at a time, which inserts them with
+ * batched statements in one transaction per chunk.
+ */
+@Component
+public class DataSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    /**
+     * Zipf exponent for sender selection: a small set of members sends most transfers
+     */
+    private static final double SENDER_SKEW = 1.1;
+
+    private static final String[] THAI_FIRST_NAMES = {
+        "สมชาย", "สมหญิง", "วิชัย", "กานต์ธิดา", "ธนากร", "ประเสริฐ", "สุดา", "อนุชา",
+        "พิมพ์ชนก", "ณัฐพล", "ศิริพร", "กิตติพงษ์", "วรรณา", "ชัยวัฒน์", "อรอุมา", "ปิยะพงษ์"
+    };
+
+    private static final String[] THAI_LAST_NAMES = {
+        "ใจดี", "รักดี", "มั่นคง", "สวยงาม", "เจริญสุข", "ศรีสุข", "วงศ์ใหญ่", "ทองคำ",
+        "แสงทอง", "บุญมา", "สุขสวัสดิ์", "พึ่งบุญ", "ชัยมงคล", "รุ่งเรือง", "ประเสริฐศรี", "อินทร์แก้ว"
+    };
+
+    private static final String[] LATIN_FIRST_NAMES = {
+        "James", "Mary", "John", "Emma", "Liam", "Olivia", "Noah", "Sophia",
+        "Lucas", "Mia", "Ethan", "Chloe", "Daniel", "Grace", "Ryan", "Hannah"
+    };
+
+    private static final String[] LATIN_LAST_NAMES = {
+        "Smith", "Johnson", "Brown", "Taylor", "Anderson", "Thomas", "Jackson", "White",
+        "Harris", "Martin", "Thompson", "Garcia", "Clark", "Lewis", "Walker", "Young"
+    };
+
+    private static final String[] CITIES = {
+        "กรุงเทพมหานคร", "เชียงใหม่", "ขอนแก่น", "ภูเก็ต", "ชลบุรี", "นครราชสีมา", "สงขลา", "Bangkok"
+    };
+
+    private static final String[] MEMBERSHIP_LEVELS = {"Bronze", "Silver", "Gold", "Platinum"};
+    private static final double[] MEMBERSHIP_LEVEL_CDF = {0.50, 0.80, 0.95, 1.00};
+
+    private final UserRepository userRepository;
+    private final TransferRepository transferRepository;
+    private final AccountStateStore accountStateStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int threads;
+
+    public DataSeeder(UserRepository userRepository, TransferRepository transferRepository,
+                      AccountStateStore accountStateStore, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                      @Value("${app.seed.threads:0}") int threads) {
+        this.userRepository = userRepository;
+        this.transferRepository = transferRepository;
+        this.accountStateStore = accountStateStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Seeds the given number of users, then transfers between them.
+     * The same random seed always produces the same data set.
+     */
+    public SeedResult seed(int userCount, long transferCount, long randomSeed) {
+        long start = System.nanoTime();
+
+        long firstUserId = maxUserId() + 1;
+        long userChunks = (userCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        writeInParallel(userChunks,
+            chunk -> generateUsers(chunk, userCount, firstUserId, randomSeed),
+            users -> {
+                userRepository.insertAll(users);
+                accountStateStore.trackNewUsers();
+            });
+        logger.info("Seeded {} users", userCount);
+
+        long seededTransfers = 0;
+        if (userCount >= 2 && transferCount > 0) {
+            // The single writer assigns ids to the new users contiguously
+            long lastUserId = maxUserId();
+            long firstSeededId = lastUserId - userCount + 1;
+            double[] senderCdf = zipfCdf(userCount, SENDER_SKEW);
+            long transferChunks = (transferCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            writeInParallel(transferChunks,
+                chunk -> generateTransfers(chunk, transferCount, userCount, firstSeededId, senderCdf, randomSeed),
+                transferRepository::insertAll);
+            seededTransfers = transferCount;
+            logger.info("Seeded {} transfers", transferCount);
+        }
+
+        return new SeedResult(userCount, seededTransfers, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Generates chunks on a worker pool while the calling thread writes them one
+     * transaction at a time, in chunk order, so that the ids the database
+     * assigns do not depend on which worker finished first. At most two chunks
+     * per worker are kept in memory.
+     */
+    private <T> void writeInParallel(long chunkCount, LongFunction<List<T>> generator, Consumer<List<T>> writer) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<T>>> pending = new ArrayDeque<>();
+        int maxInFlight = threads * 2;
+        long submitted = 0;
+
+        try {
+            while (submitted < chunkCount || !pending.isEmpty()) {
+                while (submitted < chunkCount && pending.size() < maxInFlight) {
+                    long chunk = submitted++;
+                    pending.addLast(pool.submit(() -> generator.apply(chunk)));
+                }
+                List<T> rows = pending.removeFirst().get();
+                transactionTemplate.executeWithoutResult(status -> writer.accept(rows));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Seeding interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seed data generation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<User> generateUsers(long chunk, int userCount, long firstUserId, long randomSeed) {
+        SplittableRandom random = new SplittableRandom(chunkSeed(randomSeed, 1, chunk));
+        long from = chunk * CHUNK_SIZE;
+        long to = Math.min(from + CHUNK_SIZE, userCount);
+        List<User> users = new ArrayList<>((int) (to - from));
+        LocalDate today = LocalDate.now();
+
+        for (long i = from; i < to; i++) {
+            long seq = firstUserId + i;
+            boolean thai = random.nextInt(100) < 70;
+            User user = new User();
+            user.setMemberId("SD" + seq);
+            user.setFirstName(pick(random, thai ? THAI_FIRST_NAMES : LATIN_FIRST_NAMES));
+            user.setLastName(pick(random, thai ? THAI_LAST_NAMES : LATIN_LAST_NAMES));
+            user.setEmail("member" + seq + "@seed.example.com");
+            user.setPhone(String.format("08%d-%03d-%04d", random.nextInt(10), random.nextInt(1000), random.nextInt(10000)));
+            user.setBirthDate(today.minusDays(18 * 365 + random.nextInt(50 * 365)));
+            user.setGender(random.nextBoolean() ? "Male" : "Female");
+            user.setCity(pick(random, CITIES));
+            user.setCountry(thai ? "ประเทศไทย" : "Thailand");
+            user.setPostalCode(String.valueOf(10000 + random.nextInt(90000)));
+            user.setMembershipLevel(membershipLevel(random));
+            user.setPoints((int) Math.min(100_000, Math.exp(random.nextDouble() * 11)));
+            user.setRegistrationDate(today.minusDays(random.nextInt(5 * 365)));
+            user.setIsActive(random.nextInt(100) < 95);
+            users.add(user);
+        }
+        return users;
+    }
+
+    private List<Transfer> generateTransfers(long chunk, long transferCount, int userCount, long firstUserId,
+                                             double[] senderCdf, long randomSeed) {
+        SplittableRandom random = new SplittableRandom(chunkSeed(randomSeed, 2, chunk));
+        long from = chunk * CHUNK_SIZE;
+        long to = Math.min(from + CHUNK_SIZE, transferCount);
+        List<Transfer> transfers = new ArrayList<>((int) (to - from));
+        LocalDateTime now = LocalDateTime.now();
+
+        for (long i = from; i < to; i++) {
+            int sender = zipfSample(random, senderCdf);
+            int receiver = random.nextInt(userCount - 1);
+            if (receiver >= sender) {
+                receiver++;
+            }
+            int amount = (int) Math.max(1, Math.min(10_000, Math.exp(random.nextGaussian() + 3.5)));
+            LocalDateTime createdAt = now.minusSeconds(random.nextLong(365L * 24 * 3600));
+
+            Transfer transfer = new Transfer();
+            transfer.setIdemKey(new UUID(random.nextLong(), random.nextLong()).toString());
+            transfer.setFromUserId(firstUserId + sender);
+            transfer.setToUserId(firstUserId + receiver);
+            transfer.setAmount(amount);
+            transfer.setCreatedAt(createdAt);
+            transfer.setUpdatedAt(createdAt);
+            if (random.nextInt(100) < 94) {
+                transfer.setStatus(TransferStatus.COMPLETED);
+                transfer.setCompletedAt(createdAt);
+            } else {
+                transfer.setStatus(TransferStatus.FAILED);
+                transfer.setFailReason("Insufficient points");
+            }
+            transfers.add(transfer);
+        }
+        return transfers;
+    }
+
+    /**
+     * Derives an independent, reproducible seed per stream and chunk (MurmurHash3 finalizer)
+     */
+    private static long chunkSeed(long randomSeed, long stream, long chunk) {
+        long h = randomSeed * 31 * 31 + stream * 31 + chunk;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Cumulative distribution of a Zipf(s) law over n ranks
+     */
+    private static double[] zipfCdf(int n, double s) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, s);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int zipfSample(SplittableRandom random, double[] cdf) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    private static String membershipLevel(SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int i = 0; i < MEMBERSHIP_LEVEL_CDF.length; i++) {
+            if (u < MEMBERSHIP_LEVEL_CDF[i]) {
+                return MEMBERSHIP_LEVELS[i];
+            }
+        }
+        return MEMBERSHIP_LEVELS[MEMBERSHIP_LEVELS.length - 1];
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private long maxUserId() {
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        return max != null ? max : 0;
+    }
+
+    /**
+     * Summary of a seeding run
+     */
+    public static class SeedResult {
+        private final long users;
+        private final long transfers;
+        private final long elapsedMillis;
+
+        public SeedResult(long users, long transfers, long elapsedMillis) {
+            this.users = users;
+            this.transfers = transfers;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getUsers() {
+            return users;
+        }
+
+        public long getTransfers() {
+            return transfers;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.workshop4.helloworldbackend.infrastructure.config;
+
+import com.workshop4.helloworldbackend.infrastructure.persistence.migration.V3CompactTransferStatus;
+import com.workshop4.helloworldbackend.infrastructure.persistence.migration.V9CreateUserSearchIndex;
+import com.workshop4.helloworldbackend.infrastructure.persistence.statement.StatementCountingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Data Source Configuration - Infrastructure layer
+ * Builds the application's DataSource: the pool for spring.datasource.url,
+ * exactly as Spring Boot would create it. Unless
+ * app.statement-metrics.enabled=false it is wrapped so that the statements of
+ * each HTTP request can be counted (see StatementCountingDataSource).
+ *
+ * Also registers the Java migrations with Spring Boot's Flyway run, as
+ * instances rather than found by classpath scanning.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer javaMigrations() {
+        return configuration -> configuration.javaMigrations(
+            new V3CompactTransferStatus(), new V9CreateUserSearchIndex());
+    }
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 @Value("${app.statement-metrics.enabled:true}") boolean statementMetrics) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        return statementMetrics ? new StatementCountingDataSource(pool) : pool;
+    }
+}
@@ -0,0 +1,104 @@
+package com.workshop4.helloworldbackend.infrastructure.config;
+
+import com.workshop4.helloworldbackend.application.dto.ApiErrorDTO;
+import com.workshop4.helloworldbackend.application.dto.BulkUpdateProgressDTO;
+import com.workshop4.helloworldbackend.application.dto.BulkUserRequestDTO;
+import com.workshop4.helloworldbackend.application.dto.ChangeEventBatchDTO;
+import com.workshop4.helloworldbackend.application.dto.ChangeEventDTO;
+import com.workshop4.helloworldbackend.application.dto.TransferCreateRequestDTO;
+import com.workshop4.helloworldbackend.application.dto.TransferEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.TransferListResponseDTO;
+import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
+import com.workshop4.helloworldbackend.application.dto.UserDTO;
+import com.workshop4.helloworldbackend.application.dto.UserDeletedDTO;
+import com.workshop4.helloworldbackend.application.dto.UserEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.UserImportEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.UserImportResultDTO;
+import com.workshop4.helloworldbackend.application.dto.UserListEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+import com.workshop4.helloworldbackend.application.dto.UserStatsEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Native Image Hints - Infrastructure layer
+ * Reflection and resource hints that Spring AOT cannot infer on its own when
+ * the application is compiled with the native profile:
+ * <ul>
+ *   <li>DTOs, because several handlers return {@code ResponseEntity<?>} and
+ *       Jackson only sees the concrete type at runtime</li>
+ *   <li>the projection constructors Hibernate calls for JPQL {@code SELECT new}</li>
+ *   <li>the SQLite dialect, which Hibernate instantiates by name</li>
+ *   <li>the Linux builds of the SQLite JDBC native library, loaded from the
+ *       classpath by the driver</li>
+ *   <li>the JDK proxies StatementCountingDataSource puts around JDBC objects</li>
+ * </ul>
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] DTO_TYPES = {
+        ApiErrorDTO.class,
+        BulkUpdateProgressDTO.class,
+        BulkUserRequestDTO.class,
+        ChangeEventBatchDTO.class,
+        ChangeEventDTO.class,
+        TransferCreateRequestDTO.class,
+        TransferEnvelopeDTO.class,
+        TransferListResponseDTO.class,
+        TransferResponseDTO.class,
+        UserDTO.class,
+        UserDeletedDTO.class,
+        UserEnvelopeDTO.class,
+        UserImportEnvelopeDTO.class,
+        UserImportResultDTO.class,
+        UserListEnvelopeDTO.class,
+        UserResponseDTO.class,
+        UserStatsEnvelopeDTO.class
+    };
+
+    private static final Class<?>[] PROJECTION_TYPES = {
+        EntityRevision.class,
+        TransferResponseDTO.class,
+        UserResponseDTO.class
+    };
+
+    private static final String SQLITE_DIALECT = "org.hibernate.community.dialect.SQLiteDialect";
+
+    private static final String SQLITE_NATIVE_LIBRARIES = "org/sqlite/native/Linux*/*/libsqlitejdbc.so";
+
+    private static final Class<?>[] JDBC_PROXY_TYPES = {
+        Connection.class,
+        Statement.class,
+        PreparedStatement.class,
+        CallableStatement.class
+    };
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        bindingRegistrar.registerReflectionHints(hints.reflection(), DTO_TYPES);
+
+        for (Class<?> projection : PROJECTION_TYPES) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        hints.reflection().registerType(TypeReference.of(SQLITE_DIALECT),
+            MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.resources().registerPattern(SQLITE_NATIVE_LIBRARIES);
+
+        for (Class<?> jdbcType : JDBC_PROXY_TYPES) {
+            hints.proxies().registerJdkProxy(jdbcType);
+        }
+    }
+}
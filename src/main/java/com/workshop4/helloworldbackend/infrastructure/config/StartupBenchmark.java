@@ -0,0 +1,31 @@
+package com.workshop4.helloworldbackend.infrastructure.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Startup Benchmark - Infrastructure layer
+ * Shuts the application down as soon as it is ready to serve traffic when
+ * app.startup-benchmark=true, so the fast-start build can time a full start
+ * from the "Started ... in N seconds" log line. The flag is read at runtime
+ * rather than through a condition, which AOT processing would fix at build time.
+ */
+@Component
+public class StartupBenchmark implements ApplicationListener<ApplicationReadyEvent> {
+
+    private final boolean enabled;
+
+    public StartupBenchmark(@Value("${app.startup-benchmark:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (enabled) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Account Table Interface
+ * Primitive long-to-long map keyed by positive user IDs. Reads are lock-free
+ * and never observe a value older than the last completed write; writes are
+ * serialized by the implementation.
+ */
+public interface AccountTable {
+    
+    /**
+     * Returned by {@link #get} for keys that are not present
+     */
+    long MISSING = -1L;
+    
+    long get(long key);
+    
+    void put(long key, long value);
+    
+    void remove(long key);
+    
+    /**
+     * Replaces the value of a present key with the function's result; absent
+     * keys are left absent
+     */
+    void update(long key, LongUnaryOperator function);
+    
+    int size();
+    
+    /**
+     * Visits every present entry; entries written concurrently may be missed
+     */
+    void forEach(EntryVisitor visitor);
+    
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(long key, long value);
+    }
+}
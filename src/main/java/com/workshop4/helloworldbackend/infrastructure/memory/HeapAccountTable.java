@@ -0,0 +1,180 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Heap Account Table
+ * Open-addressing table with linear probing over two parallel long arrays, so
+ * an entry costs 16 bytes and no boxing. Writers take the table's monitor;
+ * readers probe without locking and retry if a resize raced with them.
+ */
+public class HeapAccountTable implements AccountTable {
+    
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = -1L;
+    private static final double MAX_LOAD = 0.6;
+    
+    private static final class Slots {
+        final AtomicLongArray keys;
+        final AtomicLongArray values;
+        final int mask;
+        
+        Slots(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+    }
+    
+    private volatile Slots slots;
+    private int size;
+    private int used;
+    
+    public HeapAccountTable(int expectedSize) {
+        this.slots = new Slots(capacityFor(expectedSize));
+    }
+    
+    @Override
+    public long get(long key) {
+        while (true) {
+            Slots current = slots;
+            long value = probe(current, key);
+            if (current == slots) {
+                return value;
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void put(long key, long value) {
+        checkKey(key);
+        int slot = find(slots, key);
+        if (slot >= 0) {
+            slots.values.set(slot, value);
+            return;
+        }
+        if (used + 1 > slots.keys.length() * MAX_LOAD) {
+            rehash();
+        }
+        insert(slots, key, value);
+        size++;
+    }
+    
+    @Override
+    public synchronized void remove(long key) {
+        int slot = find(slots, key);
+        if (slot >= 0) {
+            slots.keys.set(slot, TOMBSTONE);
+            size--;
+        }
+    }
+    
+    @Override
+    public synchronized void update(long key, LongUnaryOperator function) {
+        int slot = find(slots, key);
+        if (slot >= 0) {
+            slots.values.set(slot, function.applyAsLong(slots.values.get(slot)));
+        }
+    }
+    
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+    
+    @Override
+    public synchronized void forEach(EntryVisitor visitor) {
+        for (int slot = 0; slot < slots.keys.length(); slot++) {
+            long key = slots.keys.get(slot);
+            if (key != EMPTY && key != TOMBSTONE) {
+                visitor.visit(key, slots.values.get(slot));
+            }
+        }
+    }
+    
+    private static long probe(Slots slots, long key) {
+        int slot = indexFor(key, slots.mask);
+        while (true) {
+            long current = slots.keys.get(slot);
+            if (current == EMPTY) {
+                return MISSING;
+            }
+            if (current == key) {
+                long value = slots.values.get(slot);
+                // The slot may have been removed between the two reads
+                return slots.keys.get(slot) == key ? value : MISSING;
+            }
+            slot = (slot + 1) & slots.mask;
+        }
+    }
+    
+    private static int find(Slots slots, long key) {
+        int slot = indexFor(key, slots.mask);
+        while (true) {
+            long current = slots.keys.get(slot);
+            if (current == EMPTY) {
+                return -1;
+            }
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & slots.mask;
+        }
+    }
+    
+    private void insert(Slots target, long key, long value) {
+        int slot = indexFor(key, target.mask);
+        while (true) {
+            long current = target.keys.get(slot);
+            if (current == EMPTY || current == TOMBSTONE) {
+                if (current == EMPTY) {
+                    used++;
+                }
+                // Value first, so a reader that sees the key also sees its value
+                target.values.set(slot, value);
+                target.keys.set(slot, key);
+                return;
+            }
+            slot = (slot + 1) & target.mask;
+        }
+    }
+    
+    private void rehash() {
+        Slots old = slots;
+        Slots resized = new Slots(capacityFor(size + 1));
+        used = 0;
+        for (int slot = 0; slot < old.keys.length(); slot++) {
+            long key = old.keys.get(slot);
+            if (key != EMPTY && key != TOMBSTONE) {
+                insert(resized, key, old.values.get(slot));
+            }
+        }
+        slots = resized;
+    }
+    
+    private static int capacityFor(int entries) {
+        long wanted = (long) Math.ceil(Math.max(entries, 16) / (MAX_LOAD / 2));
+        if (wanted > 1 << 30) {
+            throw new IllegalStateException("Account table cannot hold " + entries + " entries");
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+    
+    private static int indexFor(long key, int mask) {
+        // MurmurHash3 finalizer: sequential IDs spread across the whole table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+    
+    private static void checkKey(long key) {
+        if (key == EMPTY || key == TOMBSTONE) {
+            throw new IllegalArgumentException("Invalid account key: " + key);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import com.workshop4.helloworldbackend.domain.repository.IncomingTransferFeed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Incoming Transfer Hub - Infrastructure layer
+ * In-process pub/sub behind GET /transfers/stream. Subscribers are kept in
+ * app.transfer-stream.stripes stripes chosen by user id, each with its own
+ * lock, so publishing for one user never waits on subscriptions of users in
+ * other stripes.
+ *
+ * Every subscriber has a queue of app.transfer-stream.queue-size transfers that
+ * a small pool of delivery threads drains. A subscriber whose queue is full is
+ * dropped rather than buffered further, so a slow client costs a bounded amount
+ * of memory and never holds up the transfer that published.
+ *
+ * A client that stops reading blocks its delivery thread in the socket write.
+ * A call that has not returned after app.transfer-stream.write-timeout-ms is
+ * written off: the subscriber is dropped and the pool gets an extra thread
+ * until the blocked write fails or completes, so other subscribers keep being
+ * served whatever the number of stalled clients. Idle threads exit.
+ */
+@Component
+@Lazy(false)
+public class IncomingTransferHub implements IncomingTransferFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncomingTransferHub.class);
+
+    /**
+     * Transfers handed to a subscriber per call
+     */
+    private static final int DELIVERY_BATCH_SIZE = 50;
+
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MAX_VALUE;
+
+    private final Stripe[] stripes;
+    private final int queueSize;
+    private final int maxSubscribers;
+    private final long writeTimeoutNanos;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Set<Delivery> calling = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor deliveryExecutor;
+
+    public IncomingTransferHub(@Value("${app.transfer-stream.stripes:64}") int stripes,
+                               @Value("${app.transfer-stream.queue-size:100}") int queueSize,
+                               @Value("${app.transfer-stream.max-subscribers:10000}") int maxSubscribers,
+                               @Value("${app.transfer-stream.delivery-threads:32}") int deliveryThreads,
+                               @Value("${app.transfer-stream.write-timeout-ms:5000}") long writeTimeoutMs) {
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.queueSize = queueSize;
+        this.maxSubscribers = maxSubscribers;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("transfer-stream-");
+        threadFactory.setDaemon(true);
+        this.deliveryExecutor = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), threadFactory);
+        this.deliveryExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void publish(Transfer transfer) {
+        if (transfer.getStatus() != TransferStatus.COMPLETED) {
+            return;
+        }
+
+        Long userId = transfer.getToUserId();
+        for (Delivery delivery : stripeOf(userId).subscribers(userId)) {
+            delivery.offer(transfer);
+        }
+    }
+
+    @Override
+    public Subscription subscribe(Long userId, Subscriber subscriber) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many transfer stream subscribers on this node");
+        }
+
+        Delivery delivery = new Delivery(userId, subscriber);
+        stripeOf(userId).add(delivery);
+        return delivery;
+    }
+
+    /**
+     * Lets every subscriber check its connection, which also removes clients
+     * that went away without closing it
+     */
+    @Scheduled(initialDelayString = "${app.transfer-stream.heartbeat-ms:15000}",
+               fixedDelayString = "${app.transfer-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Stripe stripe : stripes) {
+            for (Delivery delivery : stripe.all()) {
+                delivery.ping();
+            }
+        }
+    }
+
+    /**
+     * Drops the subscribers whose current call has been running for longer
+     * than the write timeout, so a stall is noticed within twice the timeout
+     */
+    @Scheduled(initialDelayString = "${app.transfer-stream.write-timeout-ms:5000}",
+               fixedDelayString = "${app.transfer-stream.write-timeout-ms:5000}")
+    public void expireStalledCalls() {
+        long now = System.nanoTime();
+        for (Delivery delivery : calling) {
+            delivery.expireIfStalled(now);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    private Stripe stripeOf(Long userId) {
+        return stripes[Long.hashCode(userId) & (stripes.length - 1)];
+    }
+
+    /**
+     * Grows (or shrinks back) the pool by one thread for a call that was
+     * written off while it still occupies its thread
+     */
+    private synchronized void resizeDeliveryPool(int delta) {
+        if (delta > 0) {
+            deliveryExecutor.setMaximumPoolSize(deliveryExecutor.getMaximumPoolSize() + delta);
+            deliveryExecutor.setCorePoolSize(deliveryExecutor.getCorePoolSize() + delta);
+        } else {
+            deliveryExecutor.setCorePoolSize(deliveryExecutor.getCorePoolSize() + delta);
+            deliveryExecutor.setMaximumPoolSize(deliveryExecutor.getMaximumPoolSize() + delta);
+        }
+    }
+
+    /**
+     * Subscribers of the users that share a stripe. Lists are replaced rather
+     * than modified, so publishers iterate them outside the lock.
+     */
+    private static final class Stripe {
+
+        private final Map<Long, List<Delivery>> byUser = new HashMap<>();
+
+        private synchronized List<Delivery> subscribers(Long userId) {
+            return byUser.getOrDefault(userId, List.of());
+        }
+
+        private synchronized void add(Delivery delivery) {
+            List<Delivery> current = byUser.getOrDefault(delivery.userId, List.of());
+            List<Delivery> updated = new ArrayList<>(current.size() + 1);
+            updated.addAll(current);
+            updated.add(delivery);
+            byUser.put(delivery.userId, List.copyOf(updated));
+        }
+
+        private synchronized void remove(Delivery delivery) {
+            List<Delivery> current = byUser.get(delivery.userId);
+            if (current == null) {
+                return;
+            }
+            List<Delivery> updated = new ArrayList<>(current);
+            updated.remove(delivery);
+            if (updated.isEmpty()) {
+                byUser.remove(delivery.userId);
+            } else {
+                byUser.put(delivery.userId, List.copyOf(updated));
+            }
+        }
+
+        private synchronized List<Delivery> all() {
+            List<Delivery> all = new ArrayList<>();
+            for (List<Delivery> deliveries : byUser.values()) {
+                all.addAll(deliveries);
+            }
+            return all;
+        }
+    }
+
+    /**
+     * One subscriber. At most one delivery task per subscriber is queued or
+     * running, so calls reach the subscriber one at a time and in order.
+     */
+    private final class Delivery implements Subscription, Runnable {
+
+        private final Long userId;
+        private final Subscriber subscriber;
+        private final BlockingQueue<Transfer> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        /**
+         * System.nanoTime() when the current call started, IDLE between calls,
+         * or STALLED once expireIfStalled wrote the call off
+         */
+        private final AtomicLong callStartedAt = new AtomicLong(IDLE);
+        private volatile boolean overflowed;
+        private volatile boolean pingDue;
+
+        private Delivery(Long userId, Subscriber subscriber) {
+            this.userId = userId;
+            this.subscriber = subscriber;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        private void offer(Transfer transfer) {
+            if (!queue.offer(transfer)) {
+                overflowed = true;
+            }
+            schedule();
+        }
+
+        private void ping() {
+            pingDue = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (!cancelled.get() && scheduled.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (overflowed) {
+                    cancel();
+                    queue.clear();
+                    subscriber.onDropped();
+                    logger.info("Dropped a transfer stream subscriber of user {} that fell {} transfers behind",
+                        userId, queueSize);
+                    return;
+                }
+
+                List<Transfer> batch = new ArrayList<>(DELIVERY_BATCH_SIZE);
+                while (!cancelled.get() && queue.drainTo(batch, DELIVERY_BATCH_SIZE) > 0) {
+                    if (!call(() -> subscriber.onTransfers(batch))) {
+                        cancel();
+                    }
+                    batch.clear();
+                }
+
+                if (pingDue && !cancelled.get()) {
+                    pingDue = false;
+                    if (!call(subscriber::onIdle)) {
+                        cancel();
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Transfer stream subscriber of user {} failed and was removed", userId, e);
+                cancel();
+            } finally {
+                scheduled.set(false);
+            }
+
+            // Offered or pinged after the checks above but before the flag was cleared
+            if (!queue.isEmpty() || overflowed || pingDue) {
+                schedule();
+            }
+        }
+
+        /**
+         * Runs one subscriber call. A call written off while it ran counts as
+         * declined, and the subscriber learns that it was dropped.
+         */
+        private boolean call(BooleanSupplier call) {
+            callStartedAt.set(System.nanoTime());
+            calling.add(this);
+            boolean stalled = false;
+            boolean result;
+            try {
+                result = call.getAsBoolean();
+            } finally {
+                calling.remove(this);
+                if (callStartedAt.getAndSet(IDLE) == STALLED) {
+                    stalled = true;
+                    resizeDeliveryPool(-1);
+                }
+            }
+            if (stalled) {
+                subscriber.onDropped();
+                return false;
+            }
+            return result;
+        }
+
+        private void expireIfStalled(long now) {
+            long started = callStartedAt.get();
+            if (started == IDLE || started == STALLED || now - started < writeTimeoutNanos) {
+                return;
+            }
+            if (callStartedAt.compareAndSet(started, STALLED)) {
+                cancel();
+                queue.clear();
+                resizeDeliveryPool(1);
+                logger.info("Dropped a transfer stream subscriber of user {} whose connection stalled for {} ms",
+                    userId, TimeUnit.NANOSECONDS.toMillis(now - started));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled.compareAndSet(false, true)) {
+                stripeOf(userId).remove(this);
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+}
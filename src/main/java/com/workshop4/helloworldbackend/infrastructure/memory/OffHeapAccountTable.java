@@ -0,0 +1,342 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Off-Heap Account Table
+ * Open-addressing table with linear probing laid out in a direct ByteBuffer as
+ * 16-byte (key, value) slots, so tens of millions of accounts add no objects
+ * for the collector to trace. Slots are accessed through a VarHandle: keys are
+ * claimed and values changed with compare-and-set, so concurrent writers only
+ * contend on the slot they touch. A StampedLock is held shared by every
+ * operation and exclusively by resizes; reads start optimistically and only
+ * fall back to the shared lock when a resize raced with them.
+ *
+ * A claimed slot's value is PENDING until its put publishes it, and REMOVED
+ * from the moment a remove takes it until its key becomes a tombstone. Both
+ * read as absent. Updates and removes wait out a PENDING value instead of
+ * skipping it, and a put that meets a REMOVED value waits for the tombstone
+ * and stores the key in a fresh slot, so neither loses a concurrent write.
+ * Values must not be PENDING or REMOVED.
+ */
+public class OffHeapAccountTable implements AccountTable {
+    
+    private static final VarHandle LONGS =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    
+    private static final int SLOT_BYTES = 16;
+    private static final int VALUE_OFFSET = 8;
+    // Largest power of two whose slots still fit in one ByteBuffer
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final long EMPTY = 0L;
+    private static final long TOMBSTONE = -1L;
+    private static final long PENDING = Long.MIN_VALUE;
+    private static final long REMOVED = Long.MIN_VALUE + 1;
+    private static final double MAX_LOAD = 0.6;
+    
+    private static final class Slots {
+        final ByteBuffer buffer;
+        final int capacity;
+        final int mask;
+        
+        Slots(int capacity) {
+            this.buffer = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            // Keys start zeroed (EMPTY); values start PENDING so a claimed slot
+            // reads as absent until its value is published
+            for (int slot = 0; slot < capacity; slot++) {
+                LONGS.setRelease(buffer, slot * SLOT_BYTES + VALUE_OFFSET, PENDING);
+            }
+        }
+        
+        long key(int slot) {
+            return (long) LONGS.getVolatile(buffer, slot * SLOT_BYTES);
+        }
+        
+        long value(int slot) {
+            return (long) LONGS.getVolatile(buffer, slot * SLOT_BYTES + VALUE_OFFSET);
+        }
+        
+        boolean claim(int slot, long expectedKey, long key) {
+            return LONGS.compareAndSet(buffer, slot * SLOT_BYTES, expectedKey, key);
+        }
+        
+        boolean casValue(int slot, long expected, long value) {
+            return LONGS.compareAndSet(buffer, slot * SLOT_BYTES + VALUE_OFFSET, expected, value);
+        }
+    }
+    
+    private final StampedLock resizeLock = new StampedLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger used = new AtomicInteger();
+    private volatile Slots slots;
+    
+    public OffHeapAccountTable(int expectedSize) {
+        this.slots = new Slots(capacityFor(expectedSize));
+    }
+    
+    @Override
+    public long get(long key) {
+        long stamp = resizeLock.tryOptimisticRead();
+        long value = probe(slots, key);
+        if (resizeLock.validate(stamp)) {
+            return value;
+        }
+        stamp = resizeLock.readLock();
+        try {
+            return probe(slots, key);
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+    
+    @Override
+    public void put(long key, long value) {
+        checkKey(key);
+        checkValue(value);
+        while (true) {
+            long stamp = resizeLock.readLock();
+            try {
+                if (tryPut(slots, key, value)) {
+                    return;
+                }
+            } finally {
+                resizeLock.unlockRead(stamp);
+            }
+            rehash();
+        }
+    }
+    
+    @Override
+    public void remove(long key) {
+        long stamp = resizeLock.readLock();
+        try {
+            Slots current = slots;
+            int slot = find(current, key);
+            if (slot < 0) {
+                return;
+            }
+            while (true) {
+                long value = current.value(slot);
+                if (value == REMOVED) {
+                    // A concurrent remove owns the slot
+                    return;
+                }
+                if (value == PENDING) {
+                    // The put that claimed the slot has not published yet
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (current.casValue(slot, value, REMOVED)) {
+                    current.claim(slot, key, TOMBSTONE);
+                    size.decrementAndGet();
+                    return;
+                }
+            }
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+    
+    @Override
+    public void update(long key, LongUnaryOperator function) {
+        long stamp = resizeLock.readLock();
+        try {
+            Slots current = slots;
+            int slot = find(current, key);
+            if (slot < 0) {
+                return;
+            }
+            while (true) {
+                long value = current.value(slot);
+                if (value == REMOVED) {
+                    return;
+                }
+                if (value == PENDING) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                long updated = function.applyAsLong(value);
+                checkValue(updated);
+                if (current.casValue(slot, value, updated)) {
+                    return;
+                }
+            }
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+    
+    @Override
+    public int size() {
+        return size.get();
+    }
+    
+    @Override
+    public void forEach(EntryVisitor visitor) {
+        long stamp = resizeLock.readLock();
+        try {
+            Slots current = slots;
+            for (int slot = 0; slot < current.capacity; slot++) {
+                long key = current.key(slot);
+                long value = current.value(slot);
+                if (key != EMPTY && key != TOMBSTONE && isPublished(value)) {
+                    visitor.visit(key, value);
+                }
+            }
+        } finally {
+            resizeLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Stores the value under the key, claiming an empty slot if needed.
+     * Returns false when the table must grow first.
+     */
+    private boolean tryPut(Slots current, long key, long value) {
+        int slot = indexFor(key, current.mask);
+        while (true) {
+            long existing = current.key(slot);
+            if (existing == key) {
+                if (replace(current, slot, key, value)) {
+                    return true;
+                }
+                // Removed under us: the slot is a tombstone now, probe on
+                slot = (slot + 1) & current.mask;
+                continue;
+            }
+            if (existing == EMPTY) {
+                if (used.get() + 1 > current.capacity * MAX_LOAD) {
+                    return false;
+                }
+                if (current.claim(slot, EMPTY, key)) {
+                    used.incrementAndGet();
+                    size.incrementAndGet();
+                    // A put of the same key may publish first; ours is the later one.
+                    // If a remove then took the slot, store the key further on
+                    if (current.casValue(slot, PENDING, value) || replace(current, slot, key, value)) {
+                        return true;
+                    }
+                    slot = (slot + 1) & current.mask;
+                }
+                // Lost the slot to another writer: look at it again
+                continue;
+            }
+            slot = (slot + 1) & current.mask;
+        }
+    }
+    
+    /**
+     * Overwrites the value of a slot holding the key. Returns false when a
+     * remove took the slot, once its key is a tombstone.
+     */
+    private static boolean replace(Slots current, int slot, long key, long value) {
+        while (true) {
+            long existing = current.value(slot);
+            if (existing == REMOVED) {
+                while (current.key(slot) == key) {
+                    Thread.onSpinWait();
+                }
+                return false;
+            }
+            if (current.casValue(slot, existing, value)) {
+                return true;
+            }
+        }
+    }
+    
+    private void rehash() {
+        long stamp = resizeLock.writeLock();
+        try {
+            Slots old = slots;
+            if (used.get() + 1 <= old.capacity * MAX_LOAD) {
+                return;
+            }
+            Slots resized = new Slots(capacityFor(size.get() + 1));
+            int live = 0;
+            for (int slot = 0; slot < old.capacity; slot++) {
+                long key = old.key(slot);
+                long value = old.value(slot);
+                if (key != EMPTY && key != TOMBSTONE && isPublished(value)) {
+                    int target = indexFor(key, resized.mask);
+                    while (resized.key(target) != EMPTY) {
+                        target = (target + 1) & resized.mask;
+                    }
+                    resized.claim(target, EMPTY, key);
+                    resized.casValue(target, PENDING, value);
+                    live++;
+                }
+            }
+            size.set(live);
+            used.set(live);
+            slots = resized;
+        } finally {
+            resizeLock.unlockWrite(stamp);
+        }
+    }
+    
+    private static long probe(Slots slots, long key) {
+        int slot = find(slots, key);
+        if (slot < 0) {
+            return MISSING;
+        }
+        long value = slots.value(slot);
+        return isPublished(value) ? value : MISSING;
+    }
+    
+    private static boolean isPublished(long value) {
+        return value != PENDING && value != REMOVED;
+    }
+    
+    private static int find(Slots slots, long key) {
+        int slot = indexFor(key, slots.mask);
+        while (true) {
+            long current = slots.key(slot);
+            if (current == EMPTY) {
+                return -1;
+            }
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & slots.mask;
+        }
+    }
+    
+    private static int capacityFor(int entries) {
+        long wanted = (long) Math.ceil(Math.max(entries, 16) / (MAX_LOAD / 2));
+        if (wanted > MAX_CAPACITY) {
+            throw new IllegalStateException("Account table cannot hold " + entries + " entries");
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+    
+    private static int indexFor(long key, int mask) {
+        // MurmurHash3 finalizer: sequential IDs spread across the whole table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+    
+    private static void checkKey(long key) {
+        if (key == EMPTY || key == TOMBSTONE) {
+            throw new IllegalArgumentException("Invalid account key: " + key);
+        }
+    }
+    
+    private static void checkValue(long value) {
+        if (!isPublished(value)) {
+            throw new IllegalArgumentException("Invalid account value: " + value);
+        }
+    }
+}
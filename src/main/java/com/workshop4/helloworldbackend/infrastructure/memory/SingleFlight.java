@@ -0,0 +1,106 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single Flight - Infrastructure layer
+ * Coalesces concurrent identical lookups: the first caller for a key runs the
+ * query, and callers arriving while it runs wait for its result instead of
+ * querying too. Nothing is kept once the query returns, so a caller gets
+ * data at most one query duration older than its own query would have read.
+ *
+ * Every caller gets its own copy of the result, since callers may change the
+ * domain objects they load. Callers inside a read-write transaction always
+ * query themselves, so they see their own uncommitted writes. Writers call
+ * {@link #forgetAfterCommit} so that readers arriving after a commit start a new query.
+ *
+ * Metrics: single_flight.loads (queries run) and single_flight.coalesced
+ * (callers served by another caller's query), tagged with the lookup name.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry, UnaryOperator<V> copier) {
+        this.copier = copier;
+        this.loads = Counter.builder("single_flight.loads")
+            .description("Lookups that ran their own query")
+            .tag("name", name)
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("single_flight.coalesced")
+            .description("Lookups served by a concurrent identical query")
+            .tag("name", name)
+            .register(meterRegistry);
+    }
+
+    public V load(K key, Supplier<V> query) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            loads.increment();
+            return query.get();
+        }
+
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            coalesced.increment();
+            return copier.apply(await(running));
+        }
+
+        loads.increment();
+        try {
+            V value = query.get();
+            flight.complete(value);
+            return copier.apply(value);
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Makes later lookups of the key run a new query instead of joining one
+     * that may have read the row before a write. Inside a transaction this
+     * happens again once it has completed, when the write became visible.
+     */
+    public void forgetAfterCommit(K key) {
+        inFlight.remove(key);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                inFlight.remove(key);
+            }
+        });
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
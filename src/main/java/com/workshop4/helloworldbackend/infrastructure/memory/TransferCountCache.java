@@ -0,0 +1,117 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.function.LongSupplier;
+
+/**
+ * Transfer Count Cache
+ * Remembers how many transfers involve each user, so paging through a user's
+ * history does not run COUNT(*) over the transfers table on every page. Counts
+ * are loaded on first use and dropped once a transaction that inserted a
+ * transfer for the user commits. A count computed while such a commit happened
+ * is not cached, so a stale count can never be stored.
+ */
+@Component
+@Lazy(false)
+public class TransferCountCache {
+    
+    /**
+     * Above this many users per insert, the whole cache is dropped instead
+     */
+    private static final int MAX_TARGETED_INVALIDATIONS = 1024;
+    
+    private final WarmStartSnapshot warmStartSnapshot;
+    private volatile AccountTable counts = new HeapAccountTable(0);
+    private long generation;
+    
+    public TransferCountCache(WarmStartSnapshot warmStartSnapshot) {
+        this.warmStartSnapshot = warmStartSnapshot;
+    }
+    
+    @PostConstruct
+    void warmUp() {
+        warmStartSnapshot.restore(snapshotSection());
+    }
+    
+    /**
+     * Returns the cached count, or loads and caches it
+     */
+    public long count(long userId, LongSupplier loader) {
+        long cached = counts.get(userId);
+        if (cached != AccountTable.MISSING) {
+            return cached;
+        }
+        
+        long loadedAt;
+        synchronized (this) {
+            loadedAt = generation;
+        }
+        long count = loader.getAsLong();
+        synchronized (this) {
+            if (generation == loadedAt) {
+                counts.put(userId, count);
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Drops the counts of these users once the current transaction commits,
+     * or at once when there is none
+     */
+    public void invalidateAfterCommit(Collection<Long> userIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(userIds);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    invalidate(userIds);
+                }
+            }
+        });
+    }
+    
+    private synchronized void invalidate(Collection<Long> userIds) {
+        generation++;
+        if (userIds.size() > MAX_TARGETED_INVALIDATIONS) {
+            counts = new HeapAccountTable(0);
+            return;
+        }
+        for (Long userId : userIds) {
+            counts.remove(userId);
+        }
+    }
+    
+    private WarmStartSnapshot.Section snapshotSection() {
+        return new WarmStartSnapshot.Section() {
+            @Override
+            public int tag() {
+                return 2;
+            }
+            
+            @Override
+            public String name() {
+                return "transfer count";
+            }
+            
+            @Override
+            public void forEach(AccountTable.EntryVisitor visitor) {
+                counts.forEach(visitor);
+            }
+            
+            @Override
+            public void restore(long key, long value) {
+                counts.put(key, value);
+            }
+        };
+    }
+}
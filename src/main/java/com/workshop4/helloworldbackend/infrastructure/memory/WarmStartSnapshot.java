@@ -0,0 +1,236 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Warm Start Snapshot - Infrastructure layer
+ * Saves the in-memory caches to one binary file on shutdown and restores them
+ * on the next start, so a fresh deploy does not send its first traffic to
+ * SQLite. The file is memory-mapped on startup and only used if the users and
+ * transfers tables are exactly as they were when it was written (same user
+ * count, latest users.updated_at and highest transfer_id);
+ * otherwise every cache starts cold as before.
+ *
+ * A snapshot is used at most once: it is deleted as soon as the application
+ * is ready, and a new one is only written when a started application shuts
+ * down cleanly. A crash therefore leaves no file behind that could describe
+ * caches older than the database.
+ *
+ * File layout: magic, version, the three watermarks, the section count, then
+ * per section its tag, its entry count and that many (key, value) long pairs.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class WarmStartSnapshot {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WarmStartSnapshot.class);
+    
+    private static final int MAGIC = 0x5741524d; // "WARM"
+    private static final int VERSION = 1;
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    
+    /**
+     * A cache that takes part in the snapshot
+     */
+    public interface Section {
+        
+        /**
+         * Identifies the section in the file; must be unique and stable
+         */
+        int tag();
+        
+        String name();
+        
+        void forEach(AccountTable.EntryVisitor visitor);
+        
+        void restore(long key, long value);
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Path file;
+    private final List<Section> sections = new ArrayList<>();
+    private Map<Integer, ByteBuffer> mappedSections;
+    private boolean ready;
+    
+    public WarmStartSnapshot(JdbcTemplate jdbcTemplate,
+                             @Value("${app.warm-start.snapshot-file:}") String file) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.file = file.isBlank() ? null : Path.of(file);
+    }
+    
+    /**
+     * Registers a section to be saved on shutdown and fills it from the
+     * snapshot. Returns false, leaving the section untouched, when there is no
+     * usable snapshot for it.
+     */
+    public synchronized boolean restore(Section section) {
+        sections.add(section);
+        if (file == null) {
+            return false;
+        }
+        if (mappedSections == null) {
+            mappedSections = map();
+        }
+        
+        ByteBuffer entries = mappedSections.get(section.tag());
+        if (entries == null) {
+            return false;
+        }
+        long started = System.currentTimeMillis();
+        LongBuffer longs = entries.duplicate().asLongBuffer();
+        while (longs.hasRemaining()) {
+            section.restore(longs.get(), longs.get());
+        }
+        logger.info("Restored {} {} entries from {} in {} ms", entries.remaining() / ENTRY_BYTES,
+            section.name(), file, System.currentTimeMillis() - started);
+        return true;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    synchronized void releaseMapping() {
+        // Every cache has been filled by now; let the mapping be unmapped
+        mappedSections = Map.of();
+        ready = true;
+        if (file == null) {
+            return;
+        }
+        try {
+            // From here on the caches move ahead of the file
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete warm start snapshot {}: {}", file, e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    synchronized void save() {
+        if (file == null) {
+            return;
+        }
+        if (!ready) {
+            // The caches of an application that never finished starting may be incomplete
+            logger.info("Not saving warm start snapshot: the application did not finish starting");
+            return;
+        }
+        
+        Watermark watermark = watermark();
+        Path partial = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION)
+                .putLong(watermark.userCount()).putLong(watermark.usersUpdatedAt()).putLong(watermark.maxTransferId())
+                .putInt(sections.size());
+            
+            for (Section section : sections) {
+                // The entry count is patched in once the entries are written
+                buffer.putInt(section.tag());
+                long countPosition = channel.position() + buffer.position();
+                buffer.putInt(0);
+                int[] entries = {0};
+                section.forEach((key, value) -> {
+                    if (buffer.remaining() < ENTRY_BYTES) {
+                        writeFully(channel, buffer);
+                    }
+                    buffer.putLong(key).putLong(value);
+                    entries[0]++;
+                });
+                writeFully(channel, buffer);
+                channel.write(ByteBuffer.allocate(4).putInt(0, entries[0]), countPosition);
+                logger.info("Saved {} {} entries", entries[0], section.name());
+            }
+            
+            channel.force(false);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Saved warm start snapshot to {}", file);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Could not save warm start snapshot to {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * Maps the snapshot and splits it into sections, or returns no sections
+     * when the file is missing, malformed or stale
+     */
+    private Map<Integer, ByteBuffer> map() {
+        if (!Files.isRegularFile(file)) {
+            return Map.of();
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                logger.warn("Ignoring {}: not a warm start snapshot", file);
+                return Map.of();
+            }
+            Watermark saved = new Watermark(mapped.getLong(), mapped.getLong(), mapped.getLong());
+            if (!saved.equals(watermark())) {
+                logger.info("Ignoring {}: the database changed since it was saved", file);
+                return Map.of();
+            }
+            
+            Map<Integer, ByteBuffer> result = new HashMap<>();
+            int sectionCount = mapped.getInt();
+            for (int i = 0; i < sectionCount; i++) {
+                int tag = mapped.getInt();
+                int bytes = Math.multiplyExact(mapped.getInt(), ENTRY_BYTES);
+                ByteBuffer entries = mapped.slice(mapped.position(), bytes);
+                mapped.position(mapped.position() + bytes);
+                result.put(tag, entries);
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring {}: {}", file, e.toString());
+            return Map.of();
+        }
+    }
+    
+    private Watermark watermark() {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM users), (SELECT COALESCE(MAX(updated_at), 0) FROM users), " +
+                    "(SELECT COALESCE(MAX(transfer_id), 0) FROM transfers)",
+                (rs, rowNum) -> new Watermark(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+    
+    /**
+     * Database high-water marks a snapshot is only valid against
+     */
+    private record Watermark(long userCount, long usersUpdatedAt, long maxTransferId) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.workshop4.helloworldbackend.infrastructure.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop4.helloworldbackend.application.dto.ChangeEventDTO;
+import com.workshop4.helloworldbackend.domain.model.ChangeEvent;
+import com.workshop4.helloworldbackend.domain.repository.ChangeEventFeed;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Change Event File Sink - Infrastructure layer
+ * Appends the change stream to app.outbox.file-sink as NDJSON, one event per
+ * line, flushed after every batch. On startup it reads the offset of the last
+ * complete line and resumes after it, so the file holds every event once as
+ * long as it is not truncated behind the application's back. Disabled when
+ * the property is empty.
+ */
+@Component
+@Lazy(false)
+public class ChangeEventFileSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventFileSink.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+    private final ChangeEventFeed.Subscription subscription;
+
+    public ChangeEventFileSink(ChangeEventFeed changeEventFeed, ObjectMapper objectMapper,
+                               @Value("${app.outbox.file-sink:}") String file) throws IOException {
+        this.objectMapper = objectMapper;
+        if (file.isBlank()) {
+            this.writer = null;
+            this.subscription = null;
+            return;
+        }
+
+        Path path = Path.of(file);
+        long lastOffset = lastOffset(path);
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.subscription = changeEventFeed.subscribe(lastOffset, BATCH_SIZE, this::append);
+        logger.info("Appending change events after offset {} to {}", lastOffset, path);
+    }
+
+    private synchronized boolean append(List<ChangeEvent> events) {
+        try {
+            for (ChangeEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(ChangeEventDTO.from(event)));
+                writer.newLine();
+            }
+            writer.flush();
+            return true;
+        } catch (IOException e) {
+            logger.error("Change event file sink stopped at offset {}: {}", events.get(0).offset(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Offset of the last complete line, 0 for a missing or empty file. A
+     * partially written last line (crash mid-write) is cut off.
+     */
+    private long lastOffset(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            long end = file.length();
+            while (end > 0) {
+                file.seek(end - 1);
+                if (file.read() == '\n') {
+                    break;
+                }
+                end--;
+            }
+            if (end < file.length()) {
+                file.setLength(end);
+            }
+
+            long start = end - 1;
+            while (start > 0) {
+                file.seek(start - 1);
+                if (file.read() == '\n') {
+                    break;
+                }
+                start--;
+            }
+            if (start < 0 || end - start <= 1) {
+                return 0;
+            }
+
+            byte[] line = new byte[(int) (end - 1 - start)];
+            file.seek(start);
+            file.readFully(line);
+            JsonNode lastEvent = objectMapper.readTree(line);
+            return lastEvent.path("offset").asLong();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        subscription.cancel();
+        writer.close();
+    }
+}
@@ -0,0 +1,318 @@
+package com.workshop4.helloworldbackend.infrastructure.outbox;
+
+import com.workshop4.helloworldbackend.domain.model.ChangeEvent;
+import com.workshop4.helloworldbackend.domain.repository.ChangeEventFeed;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Outbox Relay - Infrastructure layer
+ * Publishes committed outbox rows as the change stream. Every
+ * app.outbox.relay-interval-ms it takes up to app.outbox.batch-size
+ * unpublished rows, numbers them with the next stream offsets in one
+ * transaction, keeps them in an in-memory ring of the newest
+ * app.outbox.buffer-size events and wakes the subscribers, which are served
+ * from the ring and fall back to the outbox table for older offsets.
+ *
+ * Offsets are only handed out here, so exactly one application instance may
+ * relay a database. Published rows are pruned after app.outbox.retention-hours.
+ */
+@Component
+@Lazy(false)
+public class OutboxRelay implements ChangeEventFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String UNPUBLISHED_SQL =
+        "SELECT event_id, event_type, aggregate_id, payload, created_at FROM outbox_events " +
+        "WHERE stream_offset IS NULL ORDER BY event_id LIMIT ?";
+
+    private static final String PUBLISH_SQL =
+        "UPDATE outbox_events SET stream_offset = ? WHERE event_id = ? AND stream_offset IS NULL";
+
+    private static final String READ_AFTER_SQL =
+        "SELECT stream_offset, event_type, aggregate_id, payload, created_at FROM outbox_events " +
+        "WHERE stream_offset > ? AND stream_offset <= ? ORDER BY stream_offset LIMIT ?";
+
+    private static final String LATEST_OFFSET_SQL = "SELECT max(stream_offset) FROM outbox_events";
+
+    /**
+     * Keeps the newest published row, which carries the offset counter across restarts
+     */
+    private static final String PRUNE_SQL =
+        "DELETE FROM outbox_events WHERE event_id IN (SELECT event_id FROM outbox_events " +
+        "WHERE stream_offset < (SELECT max(stream_offset) FROM outbox_events) AND created_at < ? " +
+        "ORDER BY stream_offset LIMIT ?)";
+
+    private static final int PRUNE_BATCH_SIZE = 1000;
+
+    private static final RowMapper<ChangeEvent> PUBLISHED_ROW = (rs, rowNum) -> new ChangeEvent(
+        rs.getLong("stream_offset"),
+        rs.getString("event_type"),
+        rs.getString("aggregate_id"),
+        EpochMillisConverter.fromEpochMillis(rs.getLong("created_at")),
+        rs.getString("payload"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int retentionHours;
+    private final AtomicReferenceArray<ChangeEvent> recent;
+    private final List<Delivery> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService deliveryExecutor;
+
+    /**
+     * Written by the relay thread only
+     */
+    private long nextOffset;
+    private volatile long latestOffset;
+
+    /**
+     * Lowest offset that can still be in the ring
+     */
+    private volatile long oldestRecentOffset;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.outbox.enabled:true}") boolean enabled,
+                       @Value("${app.outbox.batch-size:500}") int batchSize,
+                       @Value("${app.outbox.buffer-size:10000}") int bufferSize,
+                       @Value("${app.outbox.retention-hours:168}") int retentionHours,
+                       @Value("${app.outbox.delivery-threads:2}") int deliveryThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+        this.recent = new AtomicReferenceArray<>(bufferSize);
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("change-events-");
+        threadFactory.setDaemon(true);
+        this.deliveryExecutor = Executors.newFixedThreadPool(deliveryThreads, threadFactory);
+
+        Long stored = jdbcTemplate.queryForObject(LATEST_OFFSET_SQL, Long.class);
+        long latest = stored != null ? stored : 0;
+        this.latestOffset = latest;
+        this.nextOffset = latest + 1;
+        this.oldestRecentOffset = latest + 1;
+    }
+
+    @Scheduled(initialDelayString = "${app.outbox.relay-interval-ms:200}",
+               fixedDelayString = "${app.outbox.relay-interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (DataAccessException e) {
+            // Typically a busy database; the rows stay unpublished until the next run
+            logger.warn("Outbox relay stopped: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<ChangeEvent> pending = jdbcTemplate.query(UNPUBLISHED_SQL, (rs, rowNum) -> new ChangeEvent(
+            rs.getLong("event_id"),
+            rs.getString("event_type"),
+            rs.getString("aggregate_id"),
+            EpochMillisConverter.fromEpochMillis(rs.getLong("created_at")),
+            rs.getString("payload")), batchSize);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> assignments = new ArrayList<>(pending.size());
+        List<ChangeEvent> published = new ArrayList<>(pending.size());
+        long offset = nextOffset;
+        for (ChangeEvent row : pending) {
+            assignments.add(new Object[] {offset, row.offset()});
+            published.add(new ChangeEvent(offset, row.type(), row.aggregateId(), row.occurredAt(), row.payload()));
+            offset++;
+        }
+
+        // Rows are read outside the transaction so it starts as a writer
+        int[] updated = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(PUBLISH_SQL, assignments));
+        for (int count : updated) {
+            if (count == 0) {
+                logger.warn("Outbox rows were published by another relay; offsets may have gaps");
+                break;
+            }
+        }
+
+        publish(published);
+        return pending.size();
+    }
+
+    private void publish(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            recent.set(index(event.offset()), event);
+        }
+        long last = events.get(events.size() - 1).offset();
+        nextOffset = last + 1;
+        oldestRecentOffset = Math.max(oldestRecentOffset, last - recent.length() + 1);
+        latestOffset = last;
+
+        for (Delivery delivery : subscriptions) {
+            delivery.schedule();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.outbox.prune-interval-ms:600000}",
+               fixedDelayString = "${app.outbox.prune-interval-ms:600000}")
+    public void prune() {
+        long cutoff = EpochMillisConverter.toEpochMillis(LocalDateTime.now().minusHours(retentionHours));
+        long pruned = 0;
+        try {
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status ->
+                    jdbcTemplate.update(PRUNE_SQL, cutoff, PRUNE_BATCH_SIZE));
+                pruned += deleted;
+            } while (deleted == PRUNE_BATCH_SIZE);
+        } catch (DataAccessException e) {
+            logger.warn("Outbox pruning stopped after {} events: {}", pruned, e.getMessage());
+        }
+
+        if (pruned > 0) {
+            logger.info("Pruned {} published outbox events older than {} hours", pruned, retentionHours);
+        }
+    }
+
+    @Override
+    public long latestOffset() {
+        return latestOffset;
+    }
+
+    @Override
+    public List<ChangeEvent> readAfter(long afterOffset, int limit) {
+        long latest = latestOffset;
+        if (afterOffset >= latest || limit < 1) {
+            return List.of();
+        }
+
+        long from = afterOffset + 1;
+        if (from >= oldestRecentOffset) {
+            long to = Math.min(latest, afterOffset + limit);
+            List<ChangeEvent> events = new ArrayList<>((int) (to - afterOffset));
+            for (long offset = from; offset <= to; offset++) {
+                ChangeEvent event = recent.get(index(offset));
+                if (event == null || event.offset() != offset) {
+                    // Overwritten meanwhile, or a gap in the offsets
+                    return readStored(afterOffset, latest, limit);
+                }
+                events.add(event);
+            }
+            return events;
+        }
+        return readStored(afterOffset, latest, limit);
+    }
+
+    private List<ChangeEvent> readStored(long afterOffset, long latest, int limit) {
+        return jdbcTemplate.query(READ_AFTER_SQL, PUBLISHED_ROW, afterOffset, latest, limit);
+    }
+
+    @Override
+    public Subscription subscribe(long afterOffset, int batchSize, Listener listener) {
+        Delivery delivery = new Delivery(afterOffset, batchSize, listener);
+        subscriptions.add(delivery);
+        delivery.schedule();
+        return delivery;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdownNow();
+    }
+
+    private int index(long offset) {
+        return (int) (offset % recent.length());
+    }
+
+    /**
+     * One subscriber. At most one delivery task per subscriber is queued or
+     * running, so batches reach the listener in order.
+     */
+    private final class Delivery implements Subscription, Runnable {
+
+        private final int batchSize;
+        private final Listener listener;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long offset;
+        private volatile boolean cancelled;
+
+        private Delivery(long offset, int batchSize, Listener listener) {
+            this.offset = offset;
+            this.batchSize = batchSize;
+            this.listener = listener;
+        }
+
+        private void schedule() {
+            if (!cancelled && scheduled.compareAndSet(false, true)) {
+                deliveryExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!cancelled) {
+                    List<ChangeEvent> events = readAfter(offset, batchSize);
+                    if (events.isEmpty()) {
+                        break;
+                    }
+                    offset = events.get(events.size() - 1).offset();
+                    if (!listener.onEvents(events)) {
+                        cancel();
+                    }
+                }
+            } catch (DataAccessException e) {
+                // Retried when the next batch is published
+                logger.warn("Change event delivery paused at offset {}: {}", offset, e.getMessage());
+                scheduled.set(false);
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Change event subscriber failed at offset {} and was removed", offset, e);
+                cancel();
+            }
+
+            scheduled.set(false);
+            // Events published after the last read but before the flag was cleared
+            if (offset < latestOffset) {
+                schedule();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.workshop4.helloworldbackend.infrastructure.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbox Writer - Infrastructure layer
+ * Appends change events to the outbox_events table. Repository adapters call
+ * it inside the transaction that makes the change, so an event exists exactly
+ * when its change was committed. Payloads carry the same fields as the REST responses.
+ *
+ * Within a transaction the events are collected and inserted as one batch
+ * just before it commits, so a transaction that changes several rows pays one
+ * statement for its events rather than one per change.
+ */
+@Component
+public class OutboxWriter {
+
+    public static final String TRANSFER_CREATED = "transfer.created";
+    public static final String TRANSFER_UPDATED = "transfer.updated";
+    public static final String USER_CREATED = "user.created";
+    public static final String USER_UPDATED = "user.updated";
+    public static final String USER_DELETED = "user.deleted";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO outbox_events (event_type, aggregate_id, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                        @Value("${app.outbox.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void transferCreated(Transfer transfer) {
+        append(Collections.singletonList(transferEvent(TRANSFER_CREATED, transfer)));
+    }
+
+    public void transfersCreated(List<Transfer> transfers) {
+        List<Object[]> rows = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            rows.add(transferEvent(TRANSFER_CREATED, transfer));
+        }
+        append(rows);
+    }
+
+    public void transferUpdated(Transfer transfer) {
+        append(Collections.singletonList(transferEvent(TRANSFER_UPDATED, transfer)));
+    }
+
+    public void userSaved(User user, boolean created) {
+        append(Collections.singletonList(userEvent(created ? USER_CREATED : USER_UPDATED, user)));
+    }
+
+    public void usersCreated(List<User> users) {
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            rows.add(userEvent(USER_CREATED, user));
+        }
+        append(rows);
+    }
+
+    public void usersUpdated(List<User> users) {
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            rows.add(userEvent(USER_UPDATED, user));
+        }
+        append(rows);
+    }
+
+    public void userDeleted(Long userId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", userId);
+        append(Collections.singletonList(row(USER_DELETED, String.valueOf(userId), payload)));
+    }
+
+    private void append(List<Object[]> rows) {
+        if (!enabled || rows.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(rows);
+            return;
+        }
+        pendingEvents().rows.addAll(rows);
+    }
+
+    /**
+     * The current transaction's collected events. Looked up among its own
+     * synchronizations, which a nested transaction suspends, so events always
+     * commit with the transaction that appended them.
+     */
+    private PendingEvents pendingEvents() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingEvents pending && pending.writer() == this) {
+                return pending;
+            }
+        }
+        PendingEvents pending = new PendingEvents();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void insert(List<Object[]> rows) {
+        if (rows.size() == 1) {
+            jdbcTemplate.update(INSERT_SQL, rows.get(0));
+        } else {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+    }
+
+    private Object[] transferEvent(String type, Transfer transfer) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("idemKey", transfer.getIdemKey());
+        payload.put("transferId", transfer.getTransferId());
+        payload.put("fromUserId", transfer.getFromUserId());
+        payload.put("toUserId", transfer.getToUserId());
+        payload.put("amount", transfer.getAmount());
+        payload.put("status", transfer.getStatus() != null ? transfer.getStatus().name().toLowerCase() : null);
+        payload.put("note", transfer.getNote());
+        payload.put("createdAt", transfer.getCreatedAt());
+        payload.put("updatedAt", transfer.getUpdatedAt());
+        payload.put("completedAt", transfer.getCompletedAt());
+        payload.put("failReason", transfer.getFailReason());
+        return row(type, transfer.getIdemKey(), payload);
+    }
+
+    private Object[] userEvent(String type, User user) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", user.getId());
+        payload.put("memberId", user.getMemberId());
+        payload.put("firstName", user.getFirstName());
+        payload.put("lastName", user.getLastName());
+        payload.put("email", user.getEmail());
+        payload.put("phone", user.getPhone());
+        payload.put("birthDate", user.getBirthDate());
+        payload.put("gender", user.getGender());
+        payload.put("address", user.getAddress());
+        payload.put("city", user.getCity());
+        payload.put("country", user.getCountry());
+        payload.put("postalCode", user.getPostalCode());
+        payload.put("bio", user.getBio());
+        payload.put("avatarUrl", user.getAvatarUrl());
+        payload.put("membershipLevel", user.getMembershipLevel());
+        payload.put("points", user.getPoints());
+        payload.put("registrationDate", user.getRegistrationDate());
+        payload.put("isActive", user.getIsActive());
+        payload.put("createdAt", user.getCreatedAt());
+        payload.put("updatedAt", user.getUpdatedAt());
+        return row(type, String.valueOf(user.getId()), payload);
+    }
+
+    /**
+     * The events of the current transaction, written before it commits; a
+     * failing insert fails the commit, so the change is rolled back with them
+     */
+    private final class PendingEvents implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        OutboxWriter writer() {
+            return OutboxWriter.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!rows.isEmpty()) {
+                insert(rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private Object[] row(String type, String aggregateId, Map<String, Object> payload) {
+        try {
+            return new Object[] {
+                type,
+                aggregateId,
+                objectMapper.writeValueAsString(payload),
+                EpochMillisConverter.toEpochMillis(LocalDateTime.now())
+            };
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + type + " event for " + aggregateId, e);
+        }
+    }
+}
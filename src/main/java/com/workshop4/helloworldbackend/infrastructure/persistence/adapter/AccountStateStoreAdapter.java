@@ -0,0 +1,177 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.infrastructure.memory.AccountTable;
+import com.workshop4.helloworldbackend.infrastructure.memory.HeapAccountTable;
+import com.workshop4.helloworldbackend.infrastructure.memory.OffHeapAccountTable;
+import com.workshop4.helloworldbackend.infrastructure.memory.WarmStartSnapshot;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Account State Store Adapter - Infrastructure layer
+ * Keeps the active flag and balance of every user in a primitive in-memory
+ * table, loaded from the users table before the application takes traffic.
+ * Changes that can only make a transfer succeed (credits, activations) are
+ * applied at once, and changes that can make one fail (debits, deactivations)
+ * only after they commit, so the table never turns away a transfer the
+ * database would accept.
+ *
+ * The table lives on the heap or, with {@code app.accounts.store=offheap}, in
+ * native memory. It is part of the warm start snapshot, which replaces the
+ * users scan on startup when the database has not changed since shutdown.
+ */
+@Component
+@Lazy(false)
+@DependsOn("entityManagerFactory")
+public class AccountStateStoreAdapter implements AccountStateStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AccountStateStoreAdapter.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountTable table;
+    private final WarmStartSnapshot warmStartSnapshot;
+    private final AtomicLong highestTrackedId = new AtomicLong();
+    
+    public AccountStateStoreAdapter(JdbcTemplate jdbcTemplate, WarmStartSnapshot warmStartSnapshot,
+                                    @Value("${app.accounts.store:heap}") String store) {
+        this.jdbcTemplate = jdbcTemplate;
+        Long userCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        int expectedSize = userCount != null ? userCount.intValue() : 0;
+        this.table = switch (store) {
+            case "heap" -> new HeapAccountTable(expectedSize);
+            case "offheap" -> new OffHeapAccountTable(expectedSize);
+            default -> throw new IllegalArgumentException(
+                "app.accounts.store must be 'heap' or 'offheap', got '" + store + "'");
+        };
+        this.warmStartSnapshot = warmStartSnapshot;
+    }
+    
+    @PostConstruct
+    void load() {
+        if (warmStartSnapshot.restore(snapshotSection())) {
+            return;
+        }
+        
+        long started = System.currentTimeMillis();
+        trackNewUsers();
+        logger.info("Loaded {} accounts into the account state store in {} ms",
+            table.size(), System.currentTimeMillis() - started);
+    }
+    
+    @Override
+    public long lookup(long userId) {
+        long state = table.get(userId);
+        return state == AccountTable.MISSING ? ABSENT : state;
+    }
+    
+    @Override
+    public void register(long userId, boolean active, long points) {
+        table.put(userId, AccountStateStore.pack(active, points));
+        highestTrackedId.accumulateAndGet(userId, Math::max);
+    }
+    
+    @Override
+    public void trackNewUsers() {
+        jdbcTemplate.query("SELECT id, is_active, points FROM users WHERE id > ?", rs -> {
+            register(rs.getLong(1), rs.getBoolean(2), rs.getLong(3));
+        }, highestTrackedId.get());
+    }
+    
+    @Override
+    public void evict(long userId) {
+        table.remove(userId);
+    }
+    
+    @Override
+    public void creditPoints(long userId, long amount) {
+        addPoints(userId, amount);
+        afterCompletion(status -> {
+            if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                addPoints(userId, -amount);
+            }
+        });
+    }
+    
+    @Override
+    public void debitPoints(long userId, long amount) {
+        afterCompletion(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                addPoints(userId, -amount);
+            }
+        });
+    }
+    
+    @Override
+    public void activate(long userId) {
+        table.update(userId, state -> state | ACTIVE_BIT);
+    }
+    
+    @Override
+    public void deactivate(long userId) {
+        afterCompletion(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                table.update(userId, state -> state & ~ACTIVE_BIT);
+            }
+        });
+    }
+    
+    private WarmStartSnapshot.Section snapshotSection() {
+        return new WarmStartSnapshot.Section() {
+            @Override
+            public int tag() {
+                return 1;
+            }
+            
+            @Override
+            public String name() {
+                return "account state";
+            }
+            
+            @Override
+            public void forEach(AccountTable.EntryVisitor visitor) {
+                table.forEach(visitor);
+            }
+            
+            @Override
+            public void restore(long key, long value) {
+                table.put(key, value);
+                highestTrackedId.accumulateAndGet(key, Math::max);
+            }
+        };
+    }
+    
+    private void addPoints(long userId, long delta) {
+        table.update(userId, state -> AccountStateStore.pack(
+            AccountStateStore.isActive(state), AccountStateStore.points(state) + delta));
+    }
+    
+    /**
+     * Runs the callback with the outcome of the current transaction once it
+     * finishes, or at once as committed when there is none. An unknown outcome
+     * is neither committed nor rolled back, so it leaves the table optimistic.
+     */
+    private static void afterCompletion(IntConsumer callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.accept(TransactionSynchronization.STATUS_COMMITTED);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.accept(status);
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Multi-Row Insert - Infrastructure layer
+ * Inserts many rows of one table with as few statements as possible: full
+ * groups of ROWS_PER_INSERT rows go out as one JDBC batch of multi-row
+ * INSERTs, the remaining rows as a batch of single-row INSERTs.
+ */
+final class MultiRowInsert<T> {
+
+    /**
+     * Rows per multi-row INSERT, kept well below SQLite's bound-parameter limit
+     */
+    private static final int ROWS_PER_INSERT = 100;
+
+    /**
+     * Binds one row's columns, in column order, after the given parameter offset
+     */
+    @FunctionalInterface
+    interface RowBinder<T> {
+        void bind(PreparedStatement ps, int offset, T row) throws SQLException;
+    }
+
+    private final int columnCount;
+    private final RowBinder<T> binder;
+    private final String singleRowSql;
+    private final String multiRowSql;
+
+    MultiRowInsert(String table, String columns, RowBinder<T> binder) {
+        this.columnCount = columns.split(",").length;
+        this.binder = binder;
+        this.singleRowSql = insertSql(table, columns, 1);
+        this.multiRowSql = insertSql(table, columns, ROWS_PER_INSERT);
+    }
+
+    void insert(JdbcTemplate jdbcTemplate, List<T> rows) {
+        int fullGroups = rows.size() / ROWS_PER_INSERT;
+        if (fullGroups > 0) {
+            jdbcTemplate.batchUpdate(multiRowSql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int group) throws SQLException {
+                    int offset = group * ROWS_PER_INSERT;
+                    for (int row = 0; row < ROWS_PER_INSERT; row++) {
+                        binder.bind(ps, row * columnCount, rows.get(offset + row));
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return fullGroups;
+                }
+            });
+        }
+
+        List<T> tail = rows.subList(fullGroups * ROWS_PER_INSERT, rows.size());
+        if (!tail.isEmpty()) {
+            jdbcTemplate.batchUpdate(singleRowSql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    binder.bind(ps, 0, tail.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return tail.size();
+                }
+            });
+        }
+    }
+
+    private String insertSql(String table, String columns, int rows) {
+        String placeholders = "(" + "?,".repeat(columnCount - 1) + "?)";
+        StringBuilder sql = new StringBuilder("INSERT INTO " + table + " (" + columns + ") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(placeholders);
+        }
+        return sql.toString();
+    }
+}
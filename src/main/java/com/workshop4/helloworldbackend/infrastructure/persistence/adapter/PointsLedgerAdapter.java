@@ -0,0 +1,49 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.domain.model.PointsLedgerEntry;
+import com.workshop4.helloworldbackend.domain.repository.PointsLedger;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Points Ledger Adapter - Infrastructure layer
+ * Appends ledger entries to the points_ledger table as one JDBC batch,
+ * inside the caller's transaction.
+ */
+@Component
+public class PointsLedgerAdapter implements PointsLedger {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO points_ledger (user_id, delta, balance, reason, operation_id, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PointsLedgerAdapter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void record(List<PointsLedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (PointsLedgerEntry entry : entries) {
+            rows.add(new Object[] {
+                entry.userId(),
+                entry.delta(),
+                entry.balance(),
+                entry.reason(),
+                entry.operationId(),
+                EpochMillisConverter.toEpochMillis(entry.createdAt())
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
@@ -0,0 +1,72 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JdbcTransferArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transfer Archiver - Infrastructure layer
+ * Periodically moves COMPLETED and FAILED transfers older than
+ * app.transfer-archive.max-age-days from the hot transfers table to
+ * transfers_archive. Each batch commits on its own, so the SQLite write lock is
+ * only held for one batch at a time and requests interleave with a large
+ * backlog. Per-user totals do not change, so the transfer count cache stays valid.
+ */
+@Component
+@Lazy(false)
+public class TransferArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferArchiver.class);
+
+    private final JdbcTransferArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxAgeDays;
+    private final int batchSize;
+
+    public TransferArchiver(JdbcTransferArchiveRepository archiveRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.transfer-archive.enabled:true}") boolean enabled,
+                            @Value("${app.transfer-archive.max-age-days:90}") int maxAgeDays,
+                            @Value("${app.transfer-archive.batch-size:1000}") int batchSize) {
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxAgeDays = maxAgeDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.transfer-archive.interval-ms:600000}",
+               fixedDelayString = "${app.transfer-archive.interval-ms:600000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        long archived = 0;
+        try {
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveRepository.archiveBefore(cutoff, batchSize));
+                archived += moved;
+            } while (moved == batchSize);
+        } catch (DataAccessException e) {
+            // Typically a busy database; whatever is left moves on the next run
+            logger.warn("Transfer archiving stopped after {} transfers: {}", archived, e.getMessage());
+        }
+
+        if (archived > 0) {
+            logger.info("Archived {} transfers created before {}", archived, cutoff);
+        }
+    }
+}
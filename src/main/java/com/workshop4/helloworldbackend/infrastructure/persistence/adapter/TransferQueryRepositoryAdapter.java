@@ -0,0 +1,69 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
+import com.workshop4.helloworldbackend.application.mapper.TransferMapper;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import com.workshop4.helloworldbackend.application.query.TransferQueryRepository;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferStatusConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.mapper.TransferRowMapper;
+import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JdbcTransferArchiveRepository;
+import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JpaTransferRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Transfer Query Repository Adapter
+ * Implements the read-side transfer queries with JPQL constructor projections,
+ * continuing into the transfer archive when a page reaches past the hot table
+ */
+@Component
+public class TransferQueryRepositoryAdapter implements TransferQueryRepository {
+    
+    /**
+     * Both lookups are served by the unique idem_key indexes; the hot row wins
+     */
+    private static final String REVISION_SQL =
+        "SELECT updated_at, status FROM transfers WHERE idem_key = ? " +
+        "UNION ALL SELECT updated_at, status FROM transfers_archive WHERE idem_key = ? LIMIT 1";
+    
+    private final JpaTransferRepository jpaRepository;
+    private final JdbcTransferArchiveRepository archiveRepository;
+    private final TransferRowMapper rowMapper;
+    private final TransferMapper transferMapper;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public TransferQueryRepositoryAdapter(JpaTransferRepository jpaRepository,
+                                          JdbcTransferArchiveRepository archiveRepository,
+                                          TransferRowMapper rowMapper, TransferMapper transferMapper,
+                                          JdbcTemplate jdbcTemplate) {
+        this.jpaRepository = jpaRepository;
+        this.archiveRepository = archiveRepository;
+        this.rowMapper = rowMapper;
+        this.transferMapper = transferMapper;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public List<TransferResponseDTO> findByUserId(Long userId, int page, int pageSize) {
+        // Page is 1-based in our API, but Spring Data uses 0-based
+        Pageable pageable = PageRequest.of(page - 1, pageSize);
+        List<TransferResponseDTO> hotRows = jpaRepository.findResponsesByUserId(userId, pageable);
+        return archiveRepository.completePage(userId, hotRows, pageable.getOffset(), pageSize,
+            TransferResponseDTO::getCreatedAt,
+            (rs, rowNum) -> transferMapper.toResponseDTO(rowMapper.mapRow(rs, rowNum)));
+    }
+    
+    @Override
+    public Optional<EntityRevision> findRevision(String idemKey) {
+        return jdbcTemplate.query(REVISION_SQL, (rs, rowNum) -> new EntityRevision(
+                EpochMillisConverter.fromEpochMillis(rs.getLong("updated_at")),
+                TransferStatusConverter.fromCode(rs.getInt("status"))), idemKey, idemKey)
+            .stream().findFirst();
+    }
+}
@@ -0,0 +1,229 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.repository.TransferRejectionLog;
+import com.workshop4.helloworldbackend.domain.repository.TransferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer Rejection Log Adapter - Infrastructure layer
+ * Buffers FAILED transfers in a bounded in-memory queue and writes them to the
+ * transfers table in batches from a single background thread, so a declined
+ * request performs no synchronous I/O. When the queue is full the row is written
+ * synchronously instead of dropped, and the queue is drained on shutdown, after
+ * the web server has stopped taking requests and before the warm start
+ * snapshot records the transfers high-water mark.
+ *
+ * A batch that fails on a transient error such as SQLITE_BUSY is written again
+ * after a growing, randomized pause until it succeeds; meanwhile new rows wait
+ * in the queue, or are written by their callers once it is full. A batch that
+ * fails otherwise is written row by row, so only a row that can never be stored
+ * is lost. Only on shutdown do retries stop, after SHUTDOWN_WRITE_TIMEOUT_MILLIS.
+ */
+@Component
+public class TransferRejectionLogAdapter implements TransferRejectionLog, SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransferRejectionLogAdapter.class);
+    
+    private static final long INITIAL_BACKOFF_MILLIS = 20;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+    private static final long SHUTDOWN_WRITE_TIMEOUT_MILLIS = 10_000;
+    
+    /**
+     * Deadline of the running writer's retries
+     */
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    
+    private final TransferRepository transferRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Transfer> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    
+    /**
+     * The batch the writer is working on; taken over by stop() once the
+     * writer has ended
+     */
+    private final List<Transfer> inFlight;
+    
+    private volatile boolean running;
+    private Thread writer;
+    
+    public TransferRejectionLogAdapter(TransferRepository transferRepository,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${app.transfer-rejections.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${app.transfer-rejections.batch-size:500}") int batchSize,
+                                       @Value("${app.transfer-rejections.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.transferRepository = transferRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.inFlight = new ArrayList<>(batchSize);
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "transfer-rejection-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    @Override
+    public void stop() {
+        running = false;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        
+        // Whatever the writer did not get to is flushed by the closing thread
+        List<Transfer> remaining = new ArrayList<>();
+        if (writer.isAlive()) {
+            logger.error("Rejected transfer writer did not stop; its current batch is not flushed");
+        } else {
+            remaining.addAll(inFlight);
+            inFlight.clear();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_WRITE_TIMEOUT_MILLIS);
+        try {
+            while (!remaining.isEmpty() || queue.drainTo(remaining, batchSize) > 0) {
+                write(remaining, deadline);
+                remaining.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.drainTo(remaining);
+            logDropped(remaining, "shutdown was interrupted");
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    @Override
+    public int getPhase() {
+        // Stop only after the web server (DEFAULT_PHASE - 2048) has stopped
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+    
+    @Override
+    public void record(Transfer transfer) {
+        if (!queue.offer(transfer)) {
+            // Overloaded: fall back to writing the row in the caller's transaction
+            // rather than dropping it. Blocking for room instead would pin the
+            // caller's connection and read lock, which the writer itself needs
+            transferRepository.insertAll(List.of(transfer));
+        }
+    }
+    
+    private void drainLoop() {
+        while (running) {
+            try {
+                Transfer first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                inFlight.add(first);
+                queue.drainTo(inFlight, batchSize - 1);
+                write(inFlight, NO_DEADLINE);
+                inFlight.clear();
+            } catch (InterruptedException e) {
+                // Shutdown: stop() writes the batch in flight and whatever is still queued
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Writes the batch, repeating it while it fails on transient errors until
+     * the deadline. Returns once every row is written or known unwritable.
+     */
+    private void write(List<Transfer> batch, long deadline) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> transferRepository.insertAll(batch));
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    writeSeparately(batch, deadline, e);
+                    return;
+                }
+                if (deadline != NO_DEADLINE && System.nanoTime() - deadline > 0) {
+                    logDropped(batch, e.getMessage());
+                    return;
+                }
+                long backoff = Math.min(MAX_BACKOFF_MILLIS, INITIAL_BACKOFF_MILLIS << Math.min(attempt - 1, 10));
+                logger.warn("Writing {} rejected transfers failed (attempt {}), retrying in up to {} ms: {}",
+                    batch.size(), attempt, backoff, e.getMessage());
+                Thread.sleep(1 + ThreadLocalRandom.current().nextLong(backoff));
+            }
+        }
+    }
+    
+    /**
+     * One bad row fails the whole batch; alone, the others still go in
+     */
+    private void writeSeparately(List<Transfer> batch, long deadline, RuntimeException failure)
+            throws InterruptedException {
+        if (batch.size() == 1) {
+            logger.error("Rejected transfer cannot be stored", failure);
+            logDropped(batch, failure.getMessage());
+            return;
+        }
+        logger.warn("Writing {} rejected transfers failed, writing them one by one: {}",
+            batch.size(), failure.getMessage());
+        for (Transfer transfer : batch) {
+            write(List.of(transfer), deadline);
+        }
+    }
+    
+    /**
+     * Lock contention, however it surfaces: translated by JdbcTemplate, or as
+     * the SQLite result code (SQLITE_BUSY, SQLITE_LOCKED) of a failed commit
+     */
+    private static boolean isTransient(RuntimeException e) {
+        if (e instanceof TransientDataAccessException) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && (sqlException.getErrorCode() == 5 || sqlException.getErrorCode() == 6)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static void logDropped(List<Transfer> transfers, String reason) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        List<String> idemKeys = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            idemKeys.add(transfer.getIdemKey());
+        }
+        logger.error("Dropped {} rejected transfers ({}): {}", transfers.size(), reason, idemKeys);
+    }
+}
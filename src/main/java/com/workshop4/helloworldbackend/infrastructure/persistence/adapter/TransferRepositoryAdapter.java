@@ -2,81 +2,265 @@ package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
 
 import com.workshop4.helloworldbackend.domain.model.Transfer;
 import com.workshop4.helloworldbackend.domain.repository.TransferRepository;
-import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferEntity;
+import com.workshop4.helloworldbackend.infrastructure.memory.SingleFlight;
+import com.workshop4.helloworldbackend.infrastructure.memory.TransferCountCache;
+import com.workshop4.helloworldbackend.infrastructure.outbox.OutboxWriter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferStatusConverter;
 import com.workshop4.helloworldbackend.infrastructure.persistence.mapper.TransferEntityMapper;
+import com.workshop4.helloworldbackend.infrastructure.persistence.mapper.TransferRowMapper;
+import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JdbcTransferArchiveRepository;
 import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JpaTransferRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Transfer Repository Adapter
- * Implements domain TransferRepository using JPA
+ * Implements domain TransferRepository using JPA. Lookups and history pages
+ * read the hot transfers table first and fall through to the archive only
+ * when the row is not there or the page reaches past the newest archived row.
+ * Every write of a transfer appends its change event in the same transaction.
  */
 @Component
 public class TransferRepositoryAdapter implements TransferRepository {
     
+    /**
+     * Rows pulled from the cursor per round trip when streaming
+     */
+    private static final int STREAM_FETCH_SIZE = 500;
+    
+    private static final String STREAM_BY_USER_SQL =
+        "SELECT " + TransferRowMapper.COLUMNS + " FROM transfers_archive " +
+        "WHERE from_user_id = ? OR to_user_id = ? " +
+        "UNION ALL " +
+        "SELECT " + TransferRowMapper.COLUMNS + " FROM transfers " +
+        "WHERE from_user_id = ? OR to_user_id = ? ORDER BY transfer_id";
+    
+    private static final String INSERT_COLUMNS =
+        "idem_key, from_user_id, to_user_id, amount, status, note, " +
+        "created_at, updated_at, completed_at, fail_reason";
+    
+    private static final MultiRowInsert<Transfer> INSERT =
+        new MultiRowInsert<>("transfers", INSERT_COLUMNS, TransferRepositoryAdapter::bindTransfer);
+    
+    private static final String INSERT_RETURNING_ID_SQL =
+        "INSERT INTO transfers (" + INSERT_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING transfer_id";
+    
     private final JpaTransferRepository jpaRepository;
     private final TransferEntityMapper mapper;
+    private final TransferRowMapper rowMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferCountCache transferCountCache;
+    private final JdbcTransferArchiveRepository archiveRepository;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final SingleFlight<String, Optional<Transfer>> lookupsByIdemKey;
     
-    public TransferRepositoryAdapter(JpaTransferRepository jpaRepository, TransferEntityMapper mapper) {
+    public TransferRepositoryAdapter(JpaTransferRepository jpaRepository, TransferEntityMapper mapper,
+                                     TransferRowMapper rowMapper, JdbcTemplate jdbcTemplate,
+                                     TransferCountCache transferCountCache,
+                                     JdbcTransferArchiveRepository archiveRepository,
+                                     OutboxWriter outboxWriter,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
         this.jpaRepository = jpaRepository;
         this.mapper = mapper;
+        this.rowMapper = rowMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transferCountCache = transferCountCache;
+        this.archiveRepository = archiveRepository;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lookupsByIdemKey = new SingleFlight<>("transfers.by_idem_key", meterRegistry,
+            transfer -> transfer.map(Transfer::copy));
     }
     
     @Override
     public Transfer save(Transfer transfer) {
-        TransferEntity entity = mapper.toEntity(transfer);
-        TransferEntity saved = jpaRepository.save(entity);
-        return mapper.toDomainModel(saved);
+        boolean created = transfer.getTransferId() == null;
+        Transfer saved = transactionTemplate.execute(status -> {
+            Transfer row = created
+                ? insert(transfer)
+                : mapper.toDomainModel(jpaRepository.save(mapper.toEntity(transfer)));
+            lookupsByIdemKey.forgetAfterCommit(row.getIdemKey());
+            if (created) {
+                outboxWriter.transferCreated(row);
+            } else {
+                outboxWriter.transferUpdated(row);
+            }
+            return row;
+        });
+        if (created) {
+            transferCountCache.invalidateAfterCommit(List.of(transfer.getFromUserId(), transfer.getToUserId()));
+        }
+        return saved;
+    }
+    
+    /**
+     * One INSERT that returns the new id, instead of an insert followed by a
+     * query for the id
+     */
+    private Transfer insert(Transfer transfer) {
+        Transfer row = transfer.copy();
+        LocalDateTime now = LocalDateTime.now();
+        row.setCreatedAt(now);
+        row.setUpdatedAt(now);
+        row.setTransferId(jdbcTemplate.query(INSERT_RETURNING_ID_SQL, ps -> bindTransfer(ps, 0, row),
+            rs -> rs.next() ? rs.getLong(1) : null));
+        return row;
+    }
+    
+    @Override
+    public void insertAll(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            insertRows(transfers);
+            if (outboxWriter.isEnabled()) {
+                assignInsertedIds(transfers);
+                outboxWriter.transfersCreated(transfers);
+            }
+        });
+    }
+    
+    /**
+     * Sets the ids SQLite gave the rows just inserted. The transaction holds
+     * the database's write lock since its first insert, so they are the newest rows.
+     */
+    private void assignInsertedIds(List<Transfer> transfers) {
+        Map<String, Long> ids = new HashMap<>(transfers.size() * 2);
+        jdbcTemplate.query("SELECT transfer_id, idem_key FROM transfers ORDER BY transfer_id DESC LIMIT ?",
+            rs -> {
+                ids.put(rs.getString(2), rs.getLong(1));
+            }, transfers.size());
+        for (Transfer transfer : transfers) {
+            transfer.setTransferId(ids.get(transfer.getIdemKey()));
+        }
+    }
+    
+    private void insertRows(List<Transfer> transfers) {
+        Set<Long> affectedUsers = new HashSet<>();
+        for (Transfer transfer : transfers) {
+            affectedUsers.add(transfer.getFromUserId());
+            affectedUsers.add(transfer.getToUserId());
+        }
+        transferCountCache.invalidateAfterCommit(affectedUsers);
+        
+        INSERT.insert(jdbcTemplate, transfers);
     }
     
     @Override
     public Optional<Transfer> findByIdemKey(String idemKey) {
-        return jpaRepository.findByIdemKey(idemKey)
-            .map(mapper::toDomainModel);
+        return lookupsByIdemKey.load(idemKey, () -> jpaRepository.findByIdemKey(idemKey)
+            .map(mapper::toDomainModel)
+            .or(() -> archiveRepository.findByIdemKey(idemKey)));
     }
     
     @Override
     public Optional<Transfer> findByTransferId(Long transferId) {
         return jpaRepository.findById(transferId)
-            .map(mapper::toDomainModel);
+            .map(mapper::toDomainModel)
+            .or(() -> archiveRepository.findById(transferId));
     }
     
     @Override
     public List<Transfer> findByUserId(Long userId, int page, int pageSize) {
         // Page is 1-based in our API, but Spring Data uses 0-based
         Pageable pageable = PageRequest.of(page - 1, pageSize);
-        return jpaRepository.findByUserId(userId, pageable).stream()
+        List<Transfer> hotRows = jpaRepository.findByUserId(userId, pageable).stream()
             .map(mapper::toDomainModel)
             .collect(Collectors.toList());
+        return archiveRepository.completePage(userId, hotRows, pageable.getOffset(), pageSize,
+            Transfer::getCreatedAt, rowMapper);
     }
     
     @Override
     public long countByUserId(Long userId) {
-        return jpaRepository.countByUserId(userId);
+        return transferCountCache.count(userId,
+            () -> jpaRepository.countByUserId(userId) + archiveRepository.countByUserId(userId));
+    }
+    
+    @Override
+    public void streamByUserId(Long userId, Consumer<Transfer> consumer) {
+        // Forward-only cursor: rows are mapped and handed off one at a time, never collected
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                STREAM_BY_USER_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            for (int i = 1; i <= 4; i++) {
+                ps.setLong(i, userId);
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow())));
     }
     
     @Override
     public List<Transfer> findByFromUserId(Long fromUserId) {
-        return jpaRepository.findByFromUserIdOrderByCreatedAtDesc(fromUserId).stream()
+        List<Transfer> transfers = jpaRepository.findByFromUserIdOrderByCreatedAtDesc(fromUserId).stream()
             .map(mapper::toDomainModel)
-            .collect(Collectors.toList());
+            .collect(Collectors.toCollection(ArrayList::new));
+        transfers.addAll(archiveRepository.findByFromUserId(fromUserId));
+        return transfers;
     }
     
     @Override
     public List<Transfer> findByToUserId(Long toUserId) {
-        return jpaRepository.findByToUserIdOrderByCreatedAtDesc(toUserId).stream()
+        List<Transfer> transfers = jpaRepository.findByToUserIdOrderByCreatedAtDesc(toUserId).stream()
             .map(mapper::toDomainModel)
-            .collect(Collectors.toList());
+            .collect(Collectors.toCollection(ArrayList::new));
+        transfers.addAll(archiveRepository.findByToUserId(toUserId));
+        return transfers;
     }
     
     @Override
     public boolean existsByIdemKey(String idemKey) {
-        return jpaRepository.existsByIdemKey(idemKey);
+        return jpaRepository.existsByIdemKey(idemKey) || archiveRepository.existsByIdemKey(idemKey);
+    }
+    
+    /**
+     * Binds one transfer starting after the given parameter offset, encoding status
+     * and timestamps with the entity's converters so both write paths store identical values
+     */
+    private static void bindTransfer(PreparedStatement ps, int offset, Transfer transfer) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        ps.setString(offset + 1, transfer.getIdemKey());
+        ps.setLong(offset + 2, transfer.getFromUserId());
+        ps.setLong(offset + 3, transfer.getToUserId());
+        ps.setInt(offset + 4, transfer.getAmount());
+        ps.setInt(offset + 5, TransferStatusConverter.toCode(transfer.getStatus()));
+        ps.setString(offset + 6, transfer.getNote());
+        ps.setLong(offset + 7, EpochMillisConverter.toEpochMillis(
+            transfer.getCreatedAt() != null ? transfer.getCreatedAt() : now));
+        ps.setLong(offset + 8, EpochMillisConverter.toEpochMillis(
+            transfer.getUpdatedAt() != null ? transfer.getUpdatedAt() : now));
+        if (transfer.getCompletedAt() != null) {
+            ps.setLong(offset + 9, EpochMillisConverter.toEpochMillis(transfer.getCompletedAt()));
+        } else {
+            ps.setNull(offset + 9, Types.BIGINT);
+        }
+        ps.setString(offset + 10, transfer.getFailReason());
     }
 }
@@ -0,0 +1,50 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import com.workshop4.helloworldbackend.application.query.UserQueryRepository;
+import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JpaUserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Query Repository Adapter - Implements the read-side user queries
+ * with JPQL constructor projections
+ */
+@Component
+public class UserQueryRepositoryAdapter implements UserQueryRepository {
+    
+    private final JpaUserRepository jpaRepository;
+    
+    public UserQueryRepositoryAdapter(JpaUserRepository jpaRepository) {
+        this.jpaRepository = jpaRepository;
+    }
+    
+    @Override
+    public List<UserResponseDTO> findAll() {
+        return jpaRepository.findAllResponses();
+    }
+    
+    @Override
+    public List<UserResponseDTO> findActive() {
+        return jpaRepository.findActiveResponses();
+    }
+    
+    @Override
+    public List<UserResponseDTO> findByName(String name) {
+        return jpaRepository.findResponsesByName(name);
+    }
+    
+    @Override
+    public List<UserResponseDTO> search(String firstName, String lastName, String email,
+                                        String city, Boolean isActive) {
+        return jpaRepository.searchResponses(firstName, lastName, email, city, isActive);
+    }
+    
+    @Override
+    public Optional<EntityRevision> findRevision(Long id) {
+        return jpaRepository.findRevisionById(id);
+    }
+}
@@ -1,48 +1,211 @@
 package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
 
+import com.workshop4.helloworldbackend.domain.model.BulkUserChange;
 import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.model.UserSelection;
 import com.workshop4.helloworldbackend.domain.repository.UserRepository;
+import com.workshop4.helloworldbackend.infrastructure.memory.SingleFlight;
+import com.workshop4.helloworldbackend.infrastructure.outbox.OutboxWriter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
 import com.workshop4.helloworldbackend.infrastructure.persistence.entity.UserEntity;
 import com.workshop4.helloworldbackend.infrastructure.persistence.mapper.UserEntityMapper;
 import com.workshop4.helloworldbackend.infrastructure.persistence.repository.JpaUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
  * Repository Adapter - Implements domain repository using JPA
- * This is the bridge between domain layer and infrastructure layer
+ * This is the bridge between domain layer and infrastructure layer.
+ * Every write appends the user's change event in the same transaction. Saves are checked against the user's version, so a
+ * user read before a concurrent change cannot overwrite it.
  */
 @Component
 public class UserRepositoryAdapter implements UserRepository {
     
+    private static final String INSERT_COLUMNS =
+            "member_id, first_name, last_name, email, phone, birth_date, gender, address, city, " +
+            "country, postal_code, bio, avatar_url, membership_level, points, registration_date, " +
+            "is_active, created_at, updated_at";
+    
+    private static final String USER_COLUMNS = "id, " + INSERT_COLUMNS + ", version";
+    
+    private static final String UPDATE_SQL =
+            "UPDATE users SET (" + INSERT_COLUMNS + ") = (" + "?, ".repeat(18) + "?), version = version + 1 " +
+            "WHERE id = ? AND version = ? RETURNING " + USER_COLUMNS;
+    
+    private static final String UPDATE_POINTS_SQL =
+            "UPDATE users SET points = ?, updated_at = ?, version = version + 1 WHERE id = ? AND version = ?";
+    
+    private static final MultiRowInsert<User> INSERT =
+            new MultiRowInsert<>("users", INSERT_COLUMNS, UserRepositoryAdapter::bindUser);
+    
     private final JpaUserRepository jpaRepository;
     private final UserEntityMapper mapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final SingleFlight<Long, Optional<User>> lookupsById;
     
-    public UserRepositoryAdapter(JpaUserRepository jpaRepository, UserEntityMapper mapper) {
+    public UserRepositoryAdapter(JpaUserRepository jpaRepository, UserEntityMapper mapper,
+                                 JdbcTemplate jdbcTemplate,
+                                 OutboxWriter outboxWriter, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
         this.jpaRepository = jpaRepository;
         this.mapper = mapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lookupsById = new SingleFlight<>("users.by_id", meterRegistry, user -> user.map(User::copy));
     }
     
+    /**
+     * A new user is inserted through JPA. An existing one is written with one
+     * UPDATE of all columns at the user's version, which returns the row it
+     * wrote; unlike a JPA merge it reads nothing first, so a transaction that
+     * starts with it waits for the write lock.
+     */
     @Override
     public User save(User user) {
+        if (user.getId() != null) {
+            return update(user);
+        }
         UserEntity entity = mapper.toEntity(user);
-        UserEntity savedEntity = jpaRepository.save(entity);
-        return mapper.toDomainModel(savedEntity);
+        return transactionTemplate.execute(status -> {
+            // Flushed so the returned user carries the id the INSERT assigned
+            User saved = mapper.toDomainModel(jpaRepository.saveAndFlush(entity));
+            lookupsById.forgetAfterCommit(saved.getId());
+            outboxWriter.userSaved(saved, true);
+            return saved;
+        });
+    }
+    
+    private User update(User user) {
+        User row = user.copy();
+        row.setUpdatedAt(LocalDateTime.now());
+        return transactionTemplate.execute(status -> {
+            lookupsById.forgetAfterCommit(user.getId());
+            List<User> saved = jdbcTemplate.query(UPDATE_SQL, ps -> {
+                bindUser(ps, 0, row);
+                ps.setLong(20, row.getId());
+                ps.setLong(21, row.getVersion() != null ? row.getVersion() : 0L);
+            }, (rs, rowNum) -> mapUser(rs));
+            if (saved.isEmpty()) {
+                throw new OptimisticLockingFailureException(
+                    "User " + user.getId() + " has changed since version " + user.getVersion());
+            }
+            outboxWriter.userSaved(saved.get(0), false);
+            return saved.get(0);
+        });
+    }
+    
+    /**
+     * One batch of conditional UPDATEs, so a transaction that starts with it
+     * waits for the write lock instead of failing on a read it made earlier
+     */
+    @Override
+    public boolean savePoints(List<User> users) {
+        LocalDateTime now = LocalDateTime.now();
+        long updatedAt = EpochMillisConverter.toEpochMillis(now);
+        List<Object[]> rows = new ArrayList<>(users.size());
+        for (User user : users) {
+            rows.add(new Object[] {user.getPoints(), updatedAt, user.getId(), user.getVersion()});
+        }
+        return transactionTemplate.execute(status -> {
+            users.forEach(user -> lookupsById.forgetAfterCommit(user.getId()));
+            int[] updated = jdbcTemplate.batchUpdate(UPDATE_POINTS_SQL, rows);
+            for (int count : updated) {
+                if (count == 0) {
+                    return false;
+                }
+            }
+            for (User user : users) {
+                user.setVersion(user.getVersion() + 1);
+                user.setUpdatedAt(now);
+            }
+            outboxWriter.usersUpdated(users);
+            return true;
+        });
+    }
+    
+    /**
+     * One UPDATE naming only the supplied columns, which returns the row it
+     * wrote, so the unchanged columns are neither read nor rewritten
+     */
+    @Override
+    public Optional<User> saveNonNullFields(Long id, User changes) {
+        List<String> assignments = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        assign(assignments, values, "member_id", changes.getMemberId());
+        assign(assignments, values, "first_name", changes.getFirstName());
+        assign(assignments, values, "last_name", changes.getLastName());
+        assign(assignments, values, "email", changes.getEmail());
+        assign(assignments, values, "phone", changes.getPhone());
+        assign(assignments, values, "birth_date", toSqlDate(changes.getBirthDate()));
+        assign(assignments, values, "gender", changes.getGender());
+        assign(assignments, values, "address", changes.getAddress());
+        assign(assignments, values, "city", changes.getCity());
+        assign(assignments, values, "country", changes.getCountry());
+        assign(assignments, values, "postal_code", changes.getPostalCode());
+        assign(assignments, values, "bio", changes.getBio());
+        assign(assignments, values, "avatar_url", changes.getAvatarUrl());
+        assign(assignments, values, "membership_level", changes.getMembershipLevel());
+        assign(assignments, values, "points", changes.getPoints());
+        assign(assignments, values, "registration_date", toSqlDate(changes.getRegistrationDate()));
+        
+        if (assignments.isEmpty()) {
+            // Nothing to write; like a merge without dirty fields
+            return findById(id).filter(user -> changes.getVersion() == null
+                    || changes.getVersion().equals(user.getVersion()));
+        }
+        
+        assignments.add("updated_at = ?");
+        values.add(EpochMillisConverter.toEpochMillis(LocalDateTime.now()));
+        assignments.add("version = version + 1");
+        values.add(id);
+        String sql = "UPDATE users SET " + String.join(", ", assignments) + " WHERE id = ?";
+        if (changes.getVersion() != null) {
+            sql += " AND version = ?";
+            values.add(changes.getVersion());
+        }
+        String update = sql + " RETURNING " + USER_COLUMNS;
+        
+        return transactionTemplate.execute(status -> {
+            lookupsById.forgetAfterCommit(id);
+            List<User> saved = jdbcTemplate.query(update, (rs, rowNum) -> mapUser(rs), values.toArray());
+            saved.forEach(user -> outboxWriter.userSaved(user, false));
+            return saved.stream().findFirst();
+        });
     }
     
     @Override
     public Optional<User> findById(Long id) {
-        return jpaRepository.findById(id)
-                .map(mapper::toDomainModel);
+        return lookupsById.load(id, () -> jpaRepository.findById(id).map(mapper::toDomainModel));
     }
     
     @Override
     public Optional<User> findByEmail(String email) {
-        return jpaRepository.findByEmail(email)
-                .map(mapper::toDomainModel);
+        return jpaRepository.findByEmail(email).map(mapper::toDomainModel);
     }
     
     @Override
@@ -62,8 +225,7 @@ public class UserRepositoryAdapter implements UserRepository {
     @Override
     public List<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
             String firstName, String lastName) {
-        return jpaRepository
-                .findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(firstName, lastName)
+        return jpaRepository.findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(firstName, lastName)
                 .stream()
                 .map(mapper::toDomainModel)
                 .collect(Collectors.toList());
@@ -72,8 +234,7 @@ public class UserRepositoryAdapter implements UserRepository {
     @Override
     public List<User> searchUsers(String firstName, String lastName, String email, 
                                   String city, Boolean isActive) {
-        return jpaRepository.searchUsers(firstName, lastName, email, city, isActive)
-                .stream()
+        return jpaRepository.searchUsers(firstName, lastName, email, city, isActive).stream()
                 .map(mapper::toDomainModel)
                 .collect(Collectors.toList());
     }
@@ -83,9 +244,179 @@ public class UserRepositoryAdapter implements UserRepository {
         return jpaRepository.existsByEmail(email);
     }
     
+    @Override
+    public Set<String> findAllEmails() {
+        Set<String> emails = new HashSet<>();
+        jdbcTemplate.query("SELECT email FROM users", rs -> {
+            emails.add(rs.getString(1));
+        });
+        return emails;
+    }
+    
+    @Override
+    public Set<String> findAllMemberIds() {
+        Set<String> memberIds = new HashSet<>();
+        jdbcTemplate.query("SELECT member_id FROM users WHERE member_id IS NOT NULL", rs -> {
+            memberIds.add(rs.getString(1));
+        });
+        return memberIds;
+    }
+    
+    @Override
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            INSERT.insert(jdbcTemplate, users);
+            if (outboxWriter.isEnabled()) {
+                assignInsertedIds(users);
+                outboxWriter.usersCreated(users);
+            }
+        });
+    }
+    
+    /**
+     * Sets the ids SQLite gave the rows just inserted. The transaction holds
+     * the write lock since its first insert, so they are the newest rows.
+     */
+    private void assignInsertedIds(List<User> users) {
+        Map<String, Long> ids = new HashMap<>(users.size() * 2);
+        jdbcTemplate.query("SELECT id, email FROM users ORDER BY id DESC LIMIT ?", rs -> {
+            ids.put(rs.getString(2), rs.getLong(1));
+        }, users.size());
+        for (User user : users) {
+            user.setId(ids.get(user.getEmail()));
+        }
+    }
+    
+    /**
+     * An id list is split into sorted chunks. Criteria are resolved chunk by
+     * chunk with a keyset scan, outside the
+     * chunk's transaction, and applied again by the UPDATE in case a user
+     * changed in between.
+     */
+    @Override
+    public void updateInChunks(UserSelection selection, BulkUserChange change, int chunkSize,
+                               ChunkListener listener) {
+        List<Object> conditionValues = new ArrayList<>();
+        String condition = changeCondition(change, conditionValues);
+        
+        if (selection.byIdList()) {
+            List<Long> sorted = new ArrayList<>(new TreeSet<>(selection.ids()));
+            for (int from = 0; from < sorted.size(); from += chunkSize) {
+                List<Object> values = new ArrayList<>(sorted.subList(from, Math.min(from + chunkSize, sorted.size())));
+                int processed = values.size();
+                String chunk = "id IN (" + "?,".repeat(processed - 1) + "?)" + condition;
+                values.addAll(conditionValues);
+                updateChunk(chunk, values, processed, change, listener);
+            }
+            return;
+        }
+        
+        // Keyset over the matching users that still need the change, selected
+        // by the UPDATE itself so every chunk transaction starts with its write
+        List<Object> criteriaValues = new ArrayList<>();
+        String nextChunk = "id IN (SELECT id FROM users WHERE id > ?"
+                + criteriaSql(selection, criteriaValues) + condition + " ORDER BY id LIMIT ?)";
+        criteriaValues.addAll(conditionValues);
+        long after = 0;
+        while (true) {
+            List<Object> values = new ArrayList<>();
+            values.add(after);
+            values.addAll(criteriaValues);
+            values.add(chunkSize);
+            List<User> updated = updateChunk(nextChunk, values, -1, change, listener);
+            if (updated.isEmpty()) {
+                break;
+            }
+            for (User user : updated) {
+                after = Math.max(after, user.getId());
+            }
+        }
+    }
+    
+    /**
+     * Skips users already in the target state or without the points a
+     * deduction needs
+     */
+    private static String changeCondition(BulkUserChange change, List<Object> values) {
+        StringBuilder condition = new StringBuilder();
+        if (change.active() != null) {
+            condition.append(" AND is_active <> ?");
+            values.add(change.active());
+        }
+        if (change.adjustsPoints() && change.pointsDelta() < 0) {
+            condition.append(" AND COALESCE(points, 0) >= ?");
+            values.add(-change.pointsDelta());
+        }
+        return condition.toString();
+    }
+    
+    /**
+     * Updates the users matching idCondition in a transaction of its own; processed is the number of users looked at, or -1 when only the
+     * updated ones count. The listener is not called for an empty keyset chunk.
+     */
+    private List<User> updateChunk(String idCondition, List<Object> idValues, int processed,
+                                   BulkUserChange change, ChunkListener listener) {
+        List<String> assignments = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        assign(assignments, values, "is_active", change.active());
+        if (change.adjustsPoints()) {
+            assignments.add("points = COALESCE(points, 0) + ?");
+            values.add(change.pointsDelta());
+        }
+        assign(assignments, values, "updated_at", EpochMillisConverter.toEpochMillis(LocalDateTime.now()));
+        assignments.add("version = version + 1");
+        values.addAll(idValues);
+        String update = "UPDATE users SET " + String.join(", ", assignments)
+                + " WHERE " + idCondition + " RETURNING " + USER_COLUMNS;
+        
+        return transactionTemplate.execute(status -> {
+            List<User> updated = jdbcTemplate.query(update, (rs, rowNum) -> mapUser(rs), values.toArray());
+            if (processed < 0 && updated.isEmpty()) {
+                return updated;
+            }
+            updated.forEach(user -> lookupsById.forgetAfterCommit(user.getId()));
+            outboxWriter.usersUpdated(updated);
+            listener.onChunk(processed < 0 ? updated.size() : processed, updated);
+            return updated;
+        });
+    }
+    
+    /**
+     * The search criteria as SQL conditions, matching the user search
+     */
+    private static String criteriaSql(UserSelection selection, List<Object> values) {
+        StringBuilder sql = new StringBuilder();
+        like(sql, values, "first_name", selection.firstName());
+        like(sql, values, "last_name", selection.lastName());
+        like(sql, values, "email", selection.email());
+        like(sql, values, "city", selection.city());
+        if (selection.isActive() != null) {
+            sql.append(" AND is_active = ?");
+            values.add(selection.isActive());
+        }
+        return sql.toString();
+    }
+    
+    private static void like(StringBuilder sql, List<Object> values, String column, String value) {
+        if (value != null) {
+            sql.append(" AND LOWER(").append(column).append(") LIKE LOWER(?)");
+            values.add("%" + value + "%");
+        }
+    }
+    
     @Override
     public void deleteById(Long id) {
-        jpaRepository.deleteById(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            lookupsById.forgetAfterCommit(id);
+            // A plain DELETE: the JPA one reads the row first
+            if (jdbcTemplate.update("DELETE FROM users WHERE id = ?", id) > 0) {
+                outboxWriter.userDeleted(id);
+            }
+        });
     }
     
     @Override
@@ -97,4 +428,89 @@ public class UserRepositoryAdapter implements UserRepository {
     public long countByIsActive(Boolean isActive) {
         return jpaRepository.countByIsActive(isActive);
     }
+    
+    /**
+     * Binds one user starting after the given parameter offset, using the same
+     * JDBC date/time types Hibernate uses so both write paths store identical values
+     */
+    private static void bindUser(PreparedStatement ps, int offset, User user) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        ps.setString(offset + 1, user.getMemberId());
+        ps.setString(offset + 2, user.getFirstName());
+        ps.setString(offset + 3, user.getLastName());
+        ps.setString(offset + 4, user.getEmail());
+        ps.setString(offset + 5, user.getPhone());
+        setDate(ps, offset + 6, user.getBirthDate());
+        ps.setString(offset + 7, user.getGender());
+        ps.setString(offset + 8, user.getAddress());
+        ps.setString(offset + 9, user.getCity());
+        ps.setString(offset + 10, user.getCountry());
+        ps.setString(offset + 11, user.getPostalCode());
+        ps.setString(offset + 12, user.getBio());
+        ps.setString(offset + 13, user.getAvatarUrl());
+        ps.setString(offset + 14, user.getMembershipLevel());
+        ps.setInt(offset + 15, user.getPoints() != null ? user.getPoints() : 0);
+        setDate(ps, offset + 16, user.getRegistrationDate());
+        ps.setBoolean(offset + 17, user.getIsActive() == null || user.getIsActive());
+        ps.setLong(offset + 18, EpochMillisConverter.toEpochMillis(user.getCreatedAt() != null ? user.getCreatedAt() : now));
+        ps.setLong(offset + 19, EpochMillisConverter.toEpochMillis(user.getUpdatedAt() != null ? user.getUpdatedAt() : now));
+    }
+    
+    /**
+     * Reads a row of USER_COLUMNS back with the types bindUser writes
+     */
+    private static User mapUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setMemberId(rs.getString("member_id"));
+        user.setFirstName(rs.getString("first_name"));
+        user.setLastName(rs.getString("last_name"));
+        user.setEmail(rs.getString("email"));
+        user.setPhone(rs.getString("phone"));
+        user.setBirthDate(toLocalDate(rs.getDate("birth_date")));
+        user.setGender(rs.getString("gender"));
+        user.setAddress(rs.getString("address"));
+        user.setCity(rs.getString("city"));
+        user.setCountry(rs.getString("country"));
+        user.setPostalCode(rs.getString("postal_code"));
+        user.setBio(rs.getString("bio"));
+        user.setAvatarUrl(rs.getString("avatar_url"));
+        user.setMembershipLevel(rs.getString("membership_level"));
+        int points = rs.getInt("points");
+        user.setPoints(rs.wasNull() ? null : points);
+        user.setRegistrationDate(toLocalDate(rs.getDate("registration_date")));
+        user.setIsActive(rs.getBoolean("is_active"));
+        user.setCreatedAt(getDateTime(rs, "created_at"));
+        user.setUpdatedAt(getDateTime(rs, "updated_at"));
+        user.setVersion(rs.getLong("version"));
+        return user;
+    }
+    
+    private static void assign(List<String> assignments, List<Object> values, String column, Object value) {
+        if (value != null) {
+            assignments.add(column + " = ?");
+            values.add(value);
+        }
+    }
+    
+    private static Date toSqlDate(LocalDate value) {
+        return value != null ? Date.valueOf(value) : null;
+    }
+    
+    private static LocalDate toLocalDate(Date value) {
+        return value != null ? value.toLocalDate() : null;
+    }
+    
+    private static LocalDateTime getDateTime(ResultSet rs, String column) throws SQLException {
+        long epochMillis = rs.getLong(column);
+        return rs.wasNull() ? null : EpochMillisConverter.fromEpochMillis(epochMillis);
+    }
+    
+    private static void setDate(PreparedStatement ps, int index, LocalDate value) throws SQLException {
+        if (value != null) {
+            ps.setDate(index, Date.valueOf(value));
+        } else {
+            ps.setNull(index, Types.DATE);
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Epoch Millis Converter
+ * Stores LocalDateTime as integer milliseconds since the epoch, reading the
+ * local date-time in the JVM's default time zone. That is how the SQLite
+ * driver stores a java.sql.Timestamp, which is what Hibernate binds for
+ * UserEntity's timestamps and what wrote every row created before this
+ * converter, so all of them decode to the same local time. JDBC code paths
+ * use the same static helpers so every writer stores identical values.
+ */
+@Converter
+public class EpochMillisConverter implements AttributeConverter<LocalDateTime, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(LocalDateTime dateTime) {
+        return dateTime != null ? toEpochMillis(dateTime) : null;
+    }
+
+    @Override
+    public LocalDateTime convertToEntityAttribute(Long epochMillis) {
+        return epochMillis != null ? fromEpochMillis(epochMillis) : null;
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
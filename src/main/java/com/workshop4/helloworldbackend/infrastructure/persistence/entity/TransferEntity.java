@@ -1,8 +1,7 @@
 package com.workshop4.helloworldbackend.infrastructure.persistence.entity;
 
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
 import jakarta.persistence.*;
-import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -30,20 +29,22 @@ public class TransferEntity {
     @Column(nullable = false)
     private Integer amount;
     
-    @Column(nullable = false, length = 20)
-    private String status;
+    @Convert(converter = TransferStatusConverter.class)
+    @Column(nullable = false)
+    private TransferStatus status;
     
     @Column(length = 512)
     private String note;
     
-    @CreationTimestamp
+    @Convert(converter = EpochMillisConverter.class)
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
-    @UpdateTimestamp
+    @Convert(converter = EpochMillisConverter.class)
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    @Convert(converter = EpochMillisConverter.class)
     @Column
     private LocalDateTime completedAt;
     
@@ -54,6 +55,22 @@ public class TransferEntity {
     public TransferEntity() {
     }
     
+    /**
+     * Stamps creation and update times in millisecond precision; Hibernate's
+     * generated timestamps would be truncated to seconds on a converted column
+     */
+    @PrePersist
+    void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+    
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
     // Getters and Setters
     public Long getTransferId() {
         return transferId;
@@ -95,11 +112,11 @@ public class TransferEntity {
         this.amount = amount;
     }
     
-    public String getStatus() {
+    public TransferStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
+    public void setStatus(TransferStatus status) {
         this.status = status;
     }
     
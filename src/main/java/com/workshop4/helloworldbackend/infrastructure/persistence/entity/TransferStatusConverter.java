@@ -0,0 +1,33 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.entity;
+
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Transfer Status Converter
+ * Stores TransferStatus as its one-byte integer code (TransferStatus#code)
+ * instead of its name, so reordering or adding constants never changes the
+ * meaning of stored rows.
+ */
+@Converter
+public class TransferStatusConverter implements AttributeConverter<TransferStatus, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(TransferStatus status) {
+        return status != null ? toCode(status) : null;
+    }
+
+    @Override
+    public TransferStatus convertToEntityAttribute(Integer code) {
+        return code != null ? fromCode(code) : null;
+    }
+
+    public static int toCode(TransferStatus status) {
+        return status.code();
+    }
+
+    public static TransferStatus fromCode(int code) {
+        return TransferStatus.fromCode(code);
+    }
+}
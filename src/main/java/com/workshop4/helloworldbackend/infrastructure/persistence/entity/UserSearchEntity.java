@@ -0,0 +1,41 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * JPA Entity - Infrastructure layer
+ * Read-only view of users_search, the trigram index over user names that
+ * triggers on users keep up to date (see V9CreateUserSearchIndex). The id is
+ * the indexed user's id.
+ */
+@Entity
+@Immutable
+@Table(name = "users_search")
+public class UserSearchEntity {
+    
+    @Id
+    @Column(name = "rowid")
+    private Long id;
+    
+    @Column(name = "first_name")
+    private String firstName;
+    
+    @Column(name = "last_name")
+    private String lastName;
+    
+    protected UserSearchEntity() {
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+}
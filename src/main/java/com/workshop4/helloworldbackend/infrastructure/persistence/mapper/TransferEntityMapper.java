@@ -1,7 +1,6 @@
 package com.workshop4.helloworldbackend.infrastructure.persistence.mapper;
 
 import com.workshop4.helloworldbackend.domain.model.Transfer;
-import com.workshop4.helloworldbackend.domain.model.TransferStatus;
 import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferEntity;
 import org.springframework.stereotype.Component;
 
@@ -26,7 +25,7 @@ public class TransferEntityMapper {
         entity.setFromUserId(transfer.getFromUserId());
         entity.setToUserId(transfer.getToUserId());
         entity.setAmount(transfer.getAmount());
-        entity.setStatus(transfer.getStatus() != null ? transfer.getStatus().name() : null);
+        entity.setStatus(transfer.getStatus());
         entity.setNote(transfer.getNote());
         entity.setCreatedAt(transfer.getCreatedAt());
         entity.setUpdatedAt(transfer.getUpdatedAt());
@@ -50,7 +49,7 @@ public class TransferEntityMapper {
         transfer.setFromUserId(entity.getFromUserId());
         transfer.setToUserId(entity.getToUserId());
         transfer.setAmount(entity.getAmount());
-        transfer.setStatus(entity.getStatus() != null ? TransferStatus.valueOf(entity.getStatus()) : null);
+        transfer.setStatus(entity.getStatus());
         transfer.setNote(entity.getNote());
         transfer.setCreatedAt(entity.getCreatedAt());
         transfer.setUpdatedAt(entity.getUpdatedAt());
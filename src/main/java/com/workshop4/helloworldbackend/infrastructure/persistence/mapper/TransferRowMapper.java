@@ -0,0 +1,50 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.mapper;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferStatusConverter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Transfer Row Mapper
+ * Maps a raw JDBC row of the transfers table straight to Domain Transfer,
+ * used by the streaming read paths that bypass the persistence context
+ */
+@Component
+public class TransferRowMapper implements RowMapper<Transfer> {
+
+    /**
+     * Column list matching the order expected by {@link #mapRow}
+     */
+    public static final String COLUMNS =
+        "transfer_id, idem_key, from_user_id, to_user_id, amount, status, note, " +
+        "created_at, updated_at, completed_at, fail_reason";
+
+    @Override
+    public Transfer mapRow(ResultSet rs, int rowNum) throws SQLException {
+        Transfer transfer = new Transfer();
+        transfer.setTransferId(rs.getLong("transfer_id"));
+        transfer.setIdemKey(rs.getString("idem_key"));
+        transfer.setFromUserId(rs.getLong("from_user_id"));
+        transfer.setToUserId(rs.getLong("to_user_id"));
+        transfer.setAmount(rs.getInt("amount"));
+        transfer.setStatus(TransferStatusConverter.fromCode(rs.getInt("status")));
+        transfer.setNote(rs.getString("note"));
+        transfer.setCreatedAt(toLocalDateTime(rs, "created_at"));
+        transfer.setUpdatedAt(toLocalDateTime(rs, "updated_at"));
+        transfer.setCompletedAt(toLocalDateTime(rs, "completed_at"));
+        transfer.setFailReason(rs.getString("fail_reason"));
+
+        return transfer;
+    }
+
+    private static LocalDateTime toLocalDateTime(ResultSet rs, String column) throws SQLException {
+        long epochMillis = rs.getLong(column);
+        return rs.wasNull() ? null : EpochMillisConverter.fromEpochMillis(epochMillis);
+    }
+}
@@ -40,6 +40,7 @@ public class UserEntityMapper {
         entity.setIsActive(user.getIsActive());
         entity.setCreatedAt(user.getCreatedAt());
         entity.setUpdatedAt(user.getUpdatedAt());
+        entity.setVersion(user.getVersion());
         
         return entity;
     }
@@ -73,6 +74,7 @@ public class UserEntityMapper {
         user.setIsActive(entity.getIsActive());
         user.setCreatedAt(entity.getCreatedAt());
         user.setUpdatedAt(entity.getUpdatedAt());
+        user.setVersion(entity.getVersion());
         
         return user;
     }
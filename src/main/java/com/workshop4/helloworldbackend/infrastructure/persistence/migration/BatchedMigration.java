@@ -0,0 +1,123 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.migration;
+
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Batched Migration - Infrastructure layer
+ * Base for Flyway migrations that touch every row of a large table. Instead of
+ * one transaction holding the write lock for a whole table scan, the rows are
+ * walked in key order and changed a batch at a time, each batch committed on
+ * its own, so other writers get the lock between batches. Every step must be
+ * safe to repeat: a migration that stopped part way runs again from the start.
+ */
+public abstract class BatchedMigration implements JavaMigration {
+    
+    static final int DEFAULT_BATCH_SIZE = 10_000;
+    
+    private final MigrationVersion version;
+    private final String description;
+    private final int batchSize;
+    
+    protected BatchedMigration(String version, String description, int batchSize) {
+        this.version = MigrationVersion.fromVersion(version);
+        this.description = description;
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    public MigrationVersion getVersion() {
+        return version;
+    }
+    
+    @Override
+    public String getDescription() {
+        return description;
+    }
+    
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+    
+    @Override
+    public boolean canExecuteInTransaction() {
+        // Each batch commits on its own
+        return false;
+    }
+    
+    @Override
+    public final void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            migrate(connection);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Runs with auto-commit on; {@link #forEachBatch} opens its own transactions
+     */
+    protected abstract void migrate(Connection connection) throws SQLException;
+    
+    protected static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+    
+    /**
+     * Runs the statement once per batch of rows of the table, with the batch's
+     * lowest exclusive and highest inclusive key bound to its two parameters.
+     * The bounds are read outside the batch's transaction, which starts with
+     * the statement's write. Rows added behind the walk are picked up as long
+     * as their key is higher than the last batch's.
+     */
+    protected final void forEachBatch(Connection connection, String table, String key, String sql)
+            throws SQLException {
+        String upperBound = "SELECT MAX(" + key + ") FROM (SELECT " + key + " FROM " + table +
+            " WHERE " + key + " > ? ORDER BY " + key + " LIMIT ?)";
+        long after = Long.MIN_VALUE;
+        try (PreparedStatement bound = connection.prepareStatement(upperBound);
+             PreparedStatement batch = connection.prepareStatement(sql)) {
+            while (true) {
+                bound.setLong(1, after);
+                bound.setInt(2, batchSize);
+                long upTo;
+                try (ResultSet rs = bound.executeQuery()) {
+                    if (!rs.next()) {
+                        return;
+                    }
+                    upTo = rs.getLong(1);
+                    if (rs.wasNull()) {
+                        return;
+                    }
+                }
+                
+                connection.setAutoCommit(false);
+                try {
+                    batch.setLong(1, after);
+                    batch.setLong(2, upTo);
+                    batch.executeUpdate();
+                    connection.commit();
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+                after = upTo;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * V3 Compact Transfer Status - Infrastructure layer
+ * Stores transfers.status as TransferStatusConverter's one-byte code instead of
+ * its name (0 PENDING, 1 PROCESSING, 2 COMPLETED, 3 FAILED, 4 CANCELLED,
+ * 5 REVERSED). Databases created by V1 already have an INTEGER column and
+ * nothing to convert; databases baselined from ddl-auto=update keep their
+ * TEXT column, which compares equal to the code.
+ *
+ * The rows are rewritten in place a batch at a time rather than by rebuilding
+ * the table, so writers only wait for one batch. An unknown status name maps
+ * to NULL and the NOT NULL constraint aborts that batch.
+ */
+public class V3CompactTransferStatus extends BatchedMigration {
+    
+    private static final String COMPACT_BATCH = """
+        UPDATE transfers SET status = CASE status
+                WHEN 'PENDING' THEN 0
+                WHEN 'PROCESSING' THEN 1
+                WHEN 'COMPLETED' THEN 2
+                WHEN 'FAILED' THEN 3
+                WHEN 'CANCELLED' THEN 4
+                WHEN 'REVERSED' THEN 5
+            END
+        WHERE transfer_id > ? AND transfer_id <= ? AND status NOT IN (0, 1, 2, 3, 4, 5)
+        """;
+    
+    public V3CompactTransferStatus() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+    
+    V3CompactTransferStatus(int batchSize) {
+        super("3", "compact transfer status", batchSize);
+    }
+    
+    @Override
+    protected void migrate(Connection connection) throws SQLException {
+        forEachBatch(connection, "transfers", "transfer_id", COMPACT_BATCH);
+    }
+}
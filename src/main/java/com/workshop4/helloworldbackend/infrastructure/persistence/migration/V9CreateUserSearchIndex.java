@@ -0,0 +1,59 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.migration;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * V9 Create User Search Index - Infrastructure layer
+ * Adds users_search, an FTS5 trigram index over users' first and last names
+ * keyed by the user id. A trigram index answers LIKE '%text%' for text of at
+ * least three characters, case-insensitively, without scanning users.
+ *
+ * Triggers keep the index in step with users from the moment they exist; the
+ * users already there are then indexed a batch at a time, skipping any a
+ * trigger has indexed in the meantime.
+ */
+public class V9CreateUserSearchIndex extends BatchedMigration {
+    
+    private static final String[] SCHEMA = {
+        "CREATE VIRTUAL TABLE IF NOT EXISTS users_search USING fts5(first_name, last_name, tokenize = 'trigram')",
+        """
+        CREATE TRIGGER IF NOT EXISTS users_search_insert AFTER INSERT ON users BEGIN
+            INSERT INTO users_search (rowid, first_name, last_name) VALUES (new.id, new.first_name, new.last_name);
+        END
+        """,
+        """
+        CREATE TRIGGER IF NOT EXISTS users_search_update AFTER UPDATE OF first_name, last_name ON users BEGIN
+            DELETE FROM users_search WHERE rowid = old.id;
+            INSERT INTO users_search (rowid, first_name, last_name) VALUES (new.id, new.first_name, new.last_name);
+        END
+        """,
+        """
+        CREATE TRIGGER IF NOT EXISTS users_search_delete AFTER DELETE ON users BEGIN
+            DELETE FROM users_search WHERE rowid = old.id;
+        END
+        """
+    };
+    
+    private static final String BACKFILL_BATCH = """
+        INSERT INTO users_search (rowid, first_name, last_name)
+        SELECT id, first_name, last_name FROM users u
+        WHERE id > ? AND id <= ? AND NOT EXISTS (SELECT 1 FROM users_search s WHERE s.rowid = u.id)
+        """;
+    
+    public V9CreateUserSearchIndex() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+    
+    V9CreateUserSearchIndex(int batchSize) {
+        super("9", "create user search index", batchSize);
+    }
+    
+    @Override
+    protected void migrate(Connection connection) throws SQLException {
+        for (String statement : SCHEMA) {
+            execute(connection, statement);
+        }
+        forEachBatch(connection, "users", "id", BACKFILL_BATCH);
+    }
+}
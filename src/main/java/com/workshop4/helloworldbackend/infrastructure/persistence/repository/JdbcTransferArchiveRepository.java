@@ -0,0 +1,162 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.repository;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferStatusConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.mapper.TransferRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Transfer Archive Repository
+ * JDBC access to transfers_archive, the cold table that holds finished
+ * transfers moved out of the hot transfers table by the archiver. Archived
+ * rows are usually older than the hot ones, but not always: transfers that
+ * are never archived (pending, cancelled, reversed) stay hot however old they
+ * get, so history pages merge both tables by creation time.
+ */
+@Repository
+public class JdbcTransferArchiveRepository {
+
+    private static final String ARCHIVABLE_STATUSES =
+        TransferStatusConverter.toCode(TransferStatus.COMPLETED) + ", " +
+        TransferStatusConverter.toCode(TransferStatus.FAILED);
+
+    private static final String SELECT_ARCHIVED = "SELECT " + TransferRowMapper.COLUMNS + " FROM transfers_archive ";
+
+    /**
+     * Both tables' rows for a user, newest first. Either side is answered from
+     * its per-user indexes.
+     */
+    private static final String MERGED_PAGE_BY_USER_SQL =
+        "SELECT " + TransferRowMapper.COLUMNS + " FROM (" +
+        "SELECT " + TransferRowMapper.COLUMNS + " FROM transfers WHERE from_user_id = ? OR to_user_id = ? " +
+        "UNION ALL " +
+        "SELECT " + TransferRowMapper.COLUMNS + " FROM transfers_archive WHERE from_user_id = ? OR to_user_id = ?" +
+        ") ORDER BY created_at DESC LIMIT ? OFFSET ?";
+
+    /**
+     * Two index range seeks, one per side of the user's history
+     */
+    private static final String ARCHIVED_SINCE_SQL =
+        "SELECT EXISTS (SELECT 1 FROM transfers_archive WHERE from_user_id = ? AND created_at >= ?) " +
+        "OR EXISTS (SELECT 1 FROM transfers_archive WHERE to_user_id = ? AND created_at >= ?)";
+
+    private static final String ARCHIVABLE_BEFORE = "status IN (" + ARCHIVABLE_STATUSES + ") AND created_at < ?";
+
+    /**
+     * Copies the oldest archivable rows, picked through the partial index
+     * idx_transfers_archivable. The row holding the highest transfer_id always
+     * stays hot: SQLite assigns new ids from the table's current maximum, so
+     * archiving it would let a new transfer reuse an archived id.
+     */
+    private static final String COPY_ARCHIVABLE_SQL =
+        "INSERT INTO transfers_archive (" + TransferRowMapper.COLUMNS + ") " +
+        "SELECT " + TransferRowMapper.COLUMNS + " FROM transfers WHERE transfer_id IN (" +
+        "SELECT transfer_id FROM transfers WHERE " + ARCHIVABLE_BEFORE + " " +
+        "AND transfer_id < (SELECT MAX(transfer_id) FROM transfers) " +
+        "ORDER BY created_at LIMIT ?)";
+
+    /**
+     * Removes the hot copies of what the archive now holds. Walks the same
+     * partial index and checks each row against the archive's primary key.
+     */
+    private static final String DELETE_ARCHIVED_SQL =
+        "DELETE FROM transfers WHERE " + ARCHIVABLE_BEFORE + " " +
+        "AND transfer_id IN (SELECT transfer_id FROM transfers_archive)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransferRowMapper rowMapper;
+
+    public JdbcTransferArchiveRepository(JdbcTemplate jdbcTemplate, TransferRowMapper rowMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowMapper = rowMapper;
+    }
+
+    public Optional<Transfer> findByIdemKey(String idemKey) {
+        return jdbcTemplate.query(SELECT_ARCHIVED + "WHERE idem_key = ?", rowMapper, idemKey)
+            .stream().findFirst();
+    }
+
+    public Optional<Transfer> findById(Long transferId) {
+        return jdbcTemplate.query(SELECT_ARCHIVED + "WHERE transfer_id = ?", rowMapper, transferId)
+            .stream().findFirst();
+    }
+
+    public boolean existsByIdemKey(String idemKey) {
+        Boolean exists = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM transfers_archive WHERE idem_key = ?)", Boolean.class, idemKey);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    public long countByUserId(Long userId) {
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM transfers_archive WHERE from_user_id = ? OR to_user_id = ?",
+            Long.class, userId, userId);
+        return count != null ? count : 0;
+    }
+
+    public List<Transfer> findByFromUserId(Long fromUserId) {
+        return jdbcTemplate.query(SELECT_ARCHIVED + "WHERE from_user_id = ? ORDER BY created_at DESC",
+            rowMapper, fromUserId);
+    }
+
+    public List<Transfer> findByToUserId(Long toUserId) {
+        return jdbcTemplate.query(SELECT_ARCHIVED + "WHERE to_user_id = ? ORDER BY created_at DESC",
+            rowMapper, toUserId);
+    }
+
+    /**
+     * Turns a newest-first page of a user's hot transfers into the same page of
+     * their whole history. A full hot page stands when nothing archived is as
+     * new as its last row, since then no archived row sorts before or into it.
+     * Otherwise, and whenever the hot page came back short, the page is read
+     * again from both tables merged by creation time.
+     *
+     * @param hotRows    rows the hot table returned for the page
+     * @param offset     offset of the page within the user's whole history
+     * @param limit      page size
+     * @param createdAt  creation time of one of the caller's rows
+     * @param mapper     maps rows of either table to the caller's row type
+     */
+    public <T> List<T> completePage(Long userId, List<T> hotRows, long offset, int limit,
+                                    Function<T, LocalDateTime> createdAt, RowMapper<T> mapper) {
+        if (hotRows.size() >= limit && !hasArchivedSince(userId, createdAt.apply(hotRows.get(hotRows.size() - 1)))) {
+            return hotRows;
+        }
+        return jdbcTemplate.query(MERGED_PAGE_BY_USER_SQL, mapper,
+            userId, userId, userId, userId, limit, offset);
+    }
+
+    private boolean hasArchivedSince(Long userId, LocalDateTime since) {
+        long sinceMillis = EpochMillisConverter.toEpochMillis(since);
+        Boolean archived = jdbcTemplate.queryForObject(ARCHIVED_SINCE_SQL, Boolean.class,
+            userId, sinceMillis, userId, sinceMillis);
+        return Boolean.TRUE.equals(archived);
+    }
+
+    /**
+     * Moves up to {@code limit} COMPLETED or FAILED transfers created before the
+     * cutoff from the hot table to the archive, oldest first. Must run inside a
+     * transaction so the copy and the delete commit together. Both steps are
+     * writes, so the transaction takes the write lock with its first statement
+     * and waits for it like any other writer rather than failing on a lock it
+     * could no longer get after reading.
+     *
+     * @return number of transfers moved
+     */
+    public int archiveBefore(LocalDateTime cutoff, int limit) {
+        long cutoffMillis = EpochMillisConverter.toEpochMillis(cutoff);
+        if (jdbcTemplate.update(COPY_ARCHIVABLE_SQL, cutoffMillis, limit) == 0) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_ARCHIVED_SQL, cutoffMillis);
+    }
+}
@@ -1,5 +1,6 @@
 package com.workshop4.helloworldbackend.infrastructure.persistence.repository;
 
+import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
 import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferEntity;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -28,6 +29,15 @@ public interface JpaTransferRepository extends JpaRepository<TransferEntity, Lon
     @Query("SELECT t FROM TransferEntity t WHERE t.fromUserId = :userId OR t.toUserId = :userId ORDER BY t.createdAt DESC")
     List<TransferEntity> findByUserId(@Param("userId") Long userId, Pageable pageable);
     
+    /**
+     * Page of transfers involving a specific user, projected straight into response DTOs
+     */
+    @Query("SELECT new com.workshop4.helloworldbackend.application.dto.TransferResponseDTO(" +
+           "t.idemKey, t.transferId, t.fromUserId, t.toUserId, t.amount, t.status, t.note, " +
+           "t.createdAt, t.updatedAt, t.completedAt, t.failReason) " +
+           "FROM TransferEntity t WHERE t.fromUserId = :userId OR t.toUserId = :userId ORDER BY t.createdAt DESC")
+    List<TransferResponseDTO> findResponsesByUserId(@Param("userId") Long userId, Pageable pageable);
+    
     /**
      * Count transfers involving a specific user
      */
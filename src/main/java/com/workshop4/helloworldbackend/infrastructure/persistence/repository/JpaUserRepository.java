@@ -1,5 +1,7 @@
 package com.workshop4.helloworldbackend.infrastructure.persistence.repository;
 
+import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
 import com.workshop4.helloworldbackend.infrastructure.persistence.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -16,6 +18,14 @@ import java.util.Optional;
 @Repository
 public interface JpaUserRepository extends JpaRepository<UserEntity, Long> {
     
+    /**
+     * Constructor projection straight into the response DTO (no managed entities)
+     */
+    String RESPONSE_PROJECTION = "SELECT new com.workshop4.helloworldbackend.application.dto.UserResponseDTO(" +
+            "u.id, u.memberId, u.firstName, u.lastName, u.email, u.phone, u.birthDate, u.gender, " +
+            "u.address, u.city, u.country, u.postalCode, u.bio, u.avatarUrl, u.membershipLevel, " +
+            "u.points, u.registrationDate, u.isActive, u.createdAt, u.updatedAt) FROM UserEntity u";
+    
     Optional<UserEntity> findByEmail(String email);
     
     boolean existsByEmail(String email);
@@ -40,4 +50,42 @@ public interface JpaUserRepository extends JpaRepository<UserEntity, Long> {
     );
     
     long countByIsActive(Boolean isActive);
+    
+    @Query(RESPONSE_PROJECTION)
+    List<UserResponseDTO> findAllResponses();
+    
+    /**
+     * Only the column the user's ETag is derived from
+     */
+    @Query("SELECT new com.workshop4.helloworldbackend.application.query.EntityRevision(u.version) " +
+           "FROM UserEntity u WHERE u.id = :id")
+    Optional<EntityRevision> findRevisionById(@Param("id") Long id);
+    
+    @Query(RESPONSE_PROJECTION + " WHERE u.isActive = true")
+    List<UserResponseDTO> findActiveResponses();
+    
+    /**
+     * Case-insensitive substring match on either name, answered from the
+     * users_search trigram index. One subquery per column lets SQLite use the
+     * index for both sides of the OR.
+     */
+    @Query(RESPONSE_PROJECTION + " WHERE " +
+           "u.id IN (SELECT s.id FROM UserSearchEntity s WHERE s.firstName LIKE CONCAT('%', :name, '%')) OR " +
+           "u.id IN (SELECT s.id FROM UserSearchEntity s WHERE s.lastName LIKE CONCAT('%', :name, '%')) " +
+           "ORDER BY u.id")
+    List<UserResponseDTO> findResponsesByName(@Param("name") String name);
+    
+    @Query(RESPONSE_PROJECTION + " WHERE " +
+           "(:firstName IS NULL OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :firstName, '%'))) AND " +
+           "(:lastName IS NULL OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :lastName, '%'))) AND " +
+           "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%'))) AND " +
+           "(:city IS NULL OR LOWER(u.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+           "(:isActive IS NULL OR u.isActive = :isActive)")
+    List<UserResponseDTO> searchResponses(
+            @Param("firstName") String firstName,
+            @Param("lastName") String lastName,
+            @Param("email") String email,
+            @Param("city") String city,
+            @Param("isActive") Boolean isActive
+    );
 }
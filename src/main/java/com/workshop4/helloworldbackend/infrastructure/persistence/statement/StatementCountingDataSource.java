@@ -0,0 +1,95 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.statement;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Statement Counting Data Source - Infrastructure layer
+ * Wraps the application's DataSource so that the statements a recording
+ * thread executes (see {@link StatementRecorder}) are counted and timed.
+ * Every execute call counts once, including executeBatch, which is one round
+ * trip. Connections taken while the thread is not recording are handed out
+ * unwrapped, so background work pays nothing.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final String BATCH = "<batch>";
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        if (!StatementRecorder.isRecording()) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> proxy(Statement.class, result, countingExecutions(null));
+                case "prepareStatement" -> proxy(PreparedStatement.class, result, countingExecutions((String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class, result, countingExecutions((String) args[0]));
+                default -> result;
+            };
+        });
+    }
+
+    /**
+     * Times the execute methods of a statement; a plain Statement takes its
+     * SQL with each call
+     */
+    private static Handler countingExecutions(String preparedSql) {
+        return (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : BATCH;
+                StatementRecorder.record(sql, System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
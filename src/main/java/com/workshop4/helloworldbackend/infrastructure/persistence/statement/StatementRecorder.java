@@ -0,0 +1,40 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.statement;
+
+/**
+ * Statement Recorder - Infrastructure layer
+ * Marks the current thread as recording the statements it executes through
+ * {@link StatementCountingDataSource}, e.g. for the duration of an HTTP
+ * request. Statements of other threads (background jobs, async responses)
+ * are not recorded.
+ */
+public final class StatementRecorder {
+
+    private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<>();
+
+    private StatementRecorder() {
+    }
+
+    /**
+     * Starts recording on this thread; must be followed by {@link #stop()}
+     */
+    public static StatementStatistics start() {
+        StatementStatistics statistics = new StatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static boolean isRecording() {
+        return CURRENT.get() != null;
+    }
+
+    static void record(String sql, long elapsedNanos) {
+        StatementStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.record(sql, elapsedNanos);
+        }
+    }
+}
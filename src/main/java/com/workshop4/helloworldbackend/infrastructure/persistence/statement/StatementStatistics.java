@@ -0,0 +1,44 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.statement;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statement Statistics - Infrastructure layer
+ * The statements one request executed: how many, how long the driver took to
+ * execute them, and how often each distinct SQL string ran, which is what
+ * gives an N+1 pattern away. Used by a single thread.
+ */
+public final class StatementStatistics {
+
+    private int count;
+    private long nanos;
+    private final Map<String, Integer> executions = new HashMap<>();
+
+    void record(String sql, long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+        executions.merge(sql, 1, Integer::sum);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    /**
+     * SQL strings executed at least threshold times, most frequent first
+     */
+    public Map<String, Integer> repeatedAtLeast(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.entrySet().stream()
+            .filter(entry -> entry.getValue() >= threshold)
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+}
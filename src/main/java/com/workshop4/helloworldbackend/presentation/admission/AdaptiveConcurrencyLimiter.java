@@ -0,0 +1,101 @@
+package com.workshop4.helloworldbackend.presentation.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Adaptive Concurrency Limiter
+ * Caps the requests in flight at a limit that follows their latency, in the
+ * manner of a gradient limiter: a short-term average of the latency is
+ * compared with a long-term one, the limit shrinks by that ratio while
+ * latency rises above tolerance times the long-term average, and it grows by
+ * about its square root while latency stays there. Only a limit that
+ * requests use at least half of grows, so a quiet period does not leave it
+ * inflated.
+ *
+ * All state is in atomics updated by compare-and-set; the limit is stored as
+ * the bits of a double so it can move in fractions between samples.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_SMOOTHING = 2.0 / (10 + 1);
+    private static final double LONG_SMOOTHING = 2.0 / (600 + 1);
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limit;
+    private final AtomicLong shortLatency = new AtomicLong(Double.doubleToLongBits(0));
+    private final AtomicLong longLatency = new AtomicLong(Double.doubleToLongBits(0));
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= min <= max and a tolerance of at least 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = new AtomicLong(Double.doubleToLongBits(Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    /**
+     * Takes a slot; every successful call must be followed by one {@link #release}
+     *
+     * @return the requests in flight including this one, or 0 when the limit is reached
+     */
+    int tryAcquire() {
+        int currentLimit = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Frees a slot and feeds the request's latency into the limit
+     *
+     * @param inFlightAtStart what {@link #tryAcquire} returned for the request
+     */
+    void release(long latencyNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+
+        double sample = latencyNanos;
+        double shortTerm = update(shortLatency, average -> average == 0 ? sample
+                : average + SHORT_SMOOTHING * (sample - average));
+        double longTerm = update(longLatency, average -> average == 0 ? sample
+                : average + LONG_SMOOTHING * (sample - average));
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longTerm / shortTerm));
+        boolean reached = inFlightAtStart * 2 >= limit();
+        update(limit, current -> {
+            double target = current * gradient + Math.sqrt(current);
+            if (target > current && !reached) {
+                return current;
+            }
+            double smoothed = current * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING;
+            return Math.max(minLimit, Math.min(maxLimit, smoothed));
+        });
+    }
+
+    int limit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private static double update(AtomicLong bits, DoubleUnaryOperator function) {
+        return Double.longBitsToDouble(bits.updateAndGet(
+            current -> Double.doubleToLongBits(function.applyAsDouble(Double.longBitsToDouble(current)))));
+    }
+}
@@ -0,0 +1,96 @@
+package com.workshop4.helloworldbackend.presentation.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token Bucket Limiter
+ * One token bucket per key, refilled at a fixed rate up to a burst size. Each
+ * bucket is kept as the single number GCRA uses, the time at which it would
+ * be full again, so taking a token is one compare-and-set and no lock is held
+ * on the request path.
+ *
+ * At most maxKeys buckets are tracked; further keys share one overflow
+ * bucket until {@link #evictFull()} drops buckets that have refilled.
+ */
+final class TokenBucketLimiter {
+
+    private static final String OVERFLOW_KEY = "";
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final long origin = System.nanoTime();
+    private final ConcurrentHashMap<String, AtomicLong> fullAt = new ConcurrentHashMap<>();
+
+    TokenBucketLimiter(double tokensPerSecond, int burst, int maxKeys) {
+        if (tokensPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("A token bucket needs a positive rate and a burst of at least 1");
+        }
+        this.nanosPerToken = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond));
+        this.burstNanos = nanosPerToken * burst;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Takes a token from the key's bucket
+     *
+     * @return 0 when a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryAcquire(String key) {
+        AtomicLong bucket = bucket(key);
+        long now = now();
+        while (true) {
+            long current = bucket.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Puts back a token taken by {@link #tryAcquire} for a request that was
+     * turned away for another reason. A bucket can never hold more than its
+     * burst, since tryAcquire counts from now at the earliest.
+     */
+    void refund(String key) {
+        AtomicLong bucket = fullAt.get(key);
+        if (bucket == null) {
+            bucket = fullAt.get(OVERFLOW_KEY);
+        }
+        if (bucket != null) {
+            bucket.addAndGet(-nanosPerToken);
+        }
+    }
+
+    /**
+     * Forgets buckets that are full again; they behave like new ones
+     */
+    void evictFull() {
+        long now = now();
+        fullAt.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    int trackedKeys() {
+        return fullAt.size();
+    }
+
+    private AtomicLong bucket(String key) {
+        AtomicLong bucket = fullAt.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        String tracked = fullAt.size() < maxKeys ? key : OVERFLOW_KEY;
+        return fullAt.computeIfAbsent(tracked, k -> new AtomicLong());
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+}
@@ -0,0 +1,160 @@
+package com.workshop4.helloworldbackend.presentation.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer Admission Control
+ * Decides whether POST /transfers may reach the database: a token bucket per
+ * sender, one per client (API key, or remote address without one) and an
+ * adaptive limit on transfers in flight that follows their latency. Requests
+ * over a limit are shed before any work is done, with the time after which a
+ * retry can succeed. Disabled with app.transfer-admission.enabled=false.
+ *
+ * Metrics: transfers.admission.limit and transfers.admission.in_flight
+ * gauges, and transfers.admission.shed counted per limit.
+ */
+@Component
+public class TransferAdmissionControl {
+
+    private final boolean enabled;
+    private final TokenBucketLimiter senderLimiter;
+    private final TokenBucketLimiter clientLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Map<Limit, Counter> shedCounters = new EnumMap<>(Limit.class);
+
+    public TransferAdmissionControl(
+            MeterRegistry meterRegistry,
+            @Value("${app.transfer-admission.enabled:true}") boolean enabled,
+            @Value("${app.transfer-admission.sender-rate:10}") double senderRate,
+            @Value("${app.transfer-admission.sender-burst:20}") int senderBurst,
+            @Value("${app.transfer-admission.client-rate:500}") double clientRate,
+            @Value("${app.transfer-admission.client-burst:1000}") int clientBurst,
+            @Value("${app.transfer-admission.max-tracked-keys:100000}") int maxTrackedKeys,
+            @Value("${app.transfer-admission.initial-concurrency:16}") int initialConcurrency,
+            @Value("${app.transfer-admission.min-concurrency:2}") int minConcurrency,
+            @Value("${app.transfer-admission.max-concurrency:64}") int maxConcurrency,
+            @Value("${app.transfer-admission.latency-tolerance:2.0}") double latencyTolerance) {
+        this.enabled = enabled;
+        this.senderLimiter = new TokenBucketLimiter(senderRate, senderBurst, maxTrackedKeys);
+        this.clientLimiter = new TokenBucketLimiter(clientRate, clientBurst, maxTrackedKeys);
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+            initialConcurrency, minConcurrency, maxConcurrency, latencyTolerance);
+
+        Gauge.builder("transfers.admission.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+            .description("Transfers allowed in flight")
+            .register(meterRegistry);
+        Gauge.builder("transfers.admission.in_flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+            .description("Transfers in flight")
+            .register(meterRegistry);
+        for (Limit limit : Limit.values()) {
+            shedCounters.put(limit, Counter.builder("transfers.admission.shed")
+                .description("Transfers rejected with 429")
+                .tag("limit", limit.name().toLowerCase())
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Admits a transfer or says why not. An admitted transfer must be
+     * {@linkplain Admitted#release() released} once it has finished. A shed
+     * transfer gives back the tokens it took, so it only counts against the
+     * limit that turned it away.
+     */
+    public Admission admit(Long senderId, String clientKey) {
+        if (!enabled) {
+            return Admitted.UNLIMITED;
+        }
+
+        long wait = clientLimiter.tryAcquire(clientKey);
+        if (wait > 0) {
+            return shed(Limit.CLIENT_RATE, retryAfterSeconds(wait));
+        }
+        String senderKey = String.valueOf(senderId);
+        wait = senderLimiter.tryAcquire(senderKey);
+        if (wait > 0) {
+            clientLimiter.refund(clientKey);
+            return shed(Limit.SENDER_RATE, retryAfterSeconds(wait));
+        }
+
+        int inFlight = concurrencyLimiter.tryAcquire();
+        if (inFlight == 0) {
+            senderLimiter.refund(senderKey);
+            clientLimiter.refund(clientKey);
+            return shed(Limit.CONCURRENCY, 1);
+        }
+        return new Admitted(this, inFlight, System.nanoTime());
+    }
+
+    /**
+     * Drops buckets that have refilled, which keeps the key maps small
+     */
+    @Scheduled(initialDelayString = "${app.transfer-admission.evict-interval-ms:60000}",
+               fixedDelayString = "${app.transfer-admission.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        senderLimiter.evictFull();
+        clientLimiter.evictFull();
+    }
+
+    private Shed shed(Limit limit, long retryAfterSeconds) {
+        shedCounters.get(limit).increment();
+        return new Shed(limit, retryAfterSeconds);
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Limits a transfer can be shed by
+     */
+    public enum Limit {
+        CLIENT_RATE,
+        SENDER_RATE,
+        CONCURRENCY
+    }
+
+    public sealed interface Admission permits Admitted, Shed {
+    }
+
+    /**
+     * The transfer may proceed and holds a concurrency slot until released
+     */
+    public static final class Admitted implements Admission {
+
+        private static final Admitted UNLIMITED = new Admitted(null, 0, 0);
+
+        private final TransferAdmissionControl control;
+        private final int inFlightAtStart;
+        private final long startNanos;
+
+        private Admitted(TransferAdmissionControl control, int inFlightAtStart, long startNanos) {
+            this.control = control;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Frees the slot and reports the transfer's latency; call exactly once
+         */
+        public void release() {
+            if (control != null) {
+                control.concurrencyLimiter.release(System.nanoTime() - startNanos, inFlightAtStart);
+            }
+        }
+    }
+
+    /**
+     * The transfer was turned away; a retry after retryAfterSeconds can succeed
+     */
+    public record Shed(Limit limit, long retryAfterSeconds) implements Admission {
+    }
+}
@@ -0,0 +1,118 @@
+package com.workshop4.helloworldbackend.presentation.controller;
+
+import com.workshop4.helloworldbackend.application.dto.ChangeEventBatchDTO;
+import com.workshop4.helloworldbackend.application.service.ChangeEventService;
+import com.workshop4.helloworldbackend.domain.repository.ChangeEventFeed;
+import com.workshop4.helloworldbackend.exception.InvalidRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Change Event Controller
+ * Streams committed user and transfer changes to downstream consumers, so
+ * they no longer poll GET /transfers. Consumers keep the offset of the last
+ * event they processed and resume after it.
+ */
+@RestController
+@RequestMapping("/events")
+public class ChangeEventController {
+
+    /**
+     * Longest a long-poll request may wait for new events
+     */
+    private static final long MAX_WAIT_MS = 60_000;
+
+    private final ChangeEventService changeEventService;
+    private final long streamTimeoutMs;
+
+    public ChangeEventController(ChangeEventService changeEventService,
+                                 @Value("${app.outbox.stream-timeout-ms:300000}") long streamTimeoutMs) {
+        this.changeEventService = changeEventService;
+        this.streamTimeoutMs = streamTimeoutMs;
+    }
+
+    /**
+     * GET /events?after={offset}&limit={n}&waitMs={ms}
+     * Returns the events after the offset; with waitMs, an up-to-date consumer
+     * is held until new events arrive or the wait ends with an empty batch
+     */
+    @GetMapping
+    public DeferredResult<ResponseEntity<ChangeEventBatchDTO>> poll(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") long waitMs
+    ) {
+        if (waitMs < 0 || waitMs > MAX_WAIT_MS) {
+            throw new InvalidRequestException("waitMs must be between 0 and " + MAX_WAIT_MS);
+        }
+
+        ChangeEventBatchDTO batch = changeEventService.read(after, limit);
+        if (!batch.events().isEmpty() || waitMs == 0) {
+            DeferredResult<ResponseEntity<ChangeEventBatchDTO>> result = new DeferredResult<>();
+            result.setResult(ResponseEntity.ok(batch));
+            return result;
+        }
+
+        DeferredResult<ResponseEntity<ChangeEventBatchDTO>> result = new DeferredResult<>(waitMs,
+            () -> ResponseEntity.ok(new ChangeEventBatchDTO(List.of(), after)));
+        ChangeEventFeed.Subscription subscription = changeEventService.subscribe(after, limit, next -> {
+            result.setResult(ResponseEntity.ok(next));
+            return false;
+        });
+        result.onCompletion(subscription::cancel);
+        return result;
+    }
+
+    /**
+     * GET /events/stream?after={offset}&limit={n}
+     * Server-sent events, one "changes" event per batch with the batch's last
+     * offset as event id. A reconnecting EventSource resumes from its
+     * Last-Event-ID; without either, the stream starts with the next event.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        long from;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                from = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new InvalidRequestException("Last-Event-ID must be an event offset");
+            }
+        } else {
+            from = after != null ? after : changeEventService.latestOffset();
+        }
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        ChangeEventFeed.Subscription subscription = changeEventService.subscribe(from, limit, batch -> {
+            try {
+                emitter.send(SseEmitter.event()
+                    .id(String.valueOf(batch.nextOffset()))
+                    .name("changes")
+                    .data(batch, MediaType.APPLICATION_JSON));
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter already completed
+                return false;
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+}
@@ -1,24 +1,42 @@
 package com.workshop4.helloworldbackend.presentation.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop4.helloworldbackend.application.dto.ApiErrorDTO;
 import com.workshop4.helloworldbackend.application.dto.TransferCreateRequestDTO;
+import com.workshop4.helloworldbackend.application.dto.TransferEnvelopeDTO;
 import com.workshop4.helloworldbackend.application.dto.TransferListResponseDTO;
 import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
 import com.workshop4.helloworldbackend.application.mapper.TransferMapper;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import com.workshop4.helloworldbackend.application.service.TransferQueryService;
 import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferOutcome;
+import com.workshop4.helloworldbackend.domain.repository.IncomingTransferFeed;
 import com.workshop4.helloworldbackend.domain.usecase.TransferUseCase;
+import com.workshop4.helloworldbackend.presentation.admission.TransferAdmissionControl;
+import com.workshop4.helloworldbackend.presentation.export.TransferExportFormat;
+import com.workshop4.helloworldbackend.presentation.export.TransferExportWriter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+
 
 /**
  * Transfer Controller
@@ -32,55 +50,88 @@ public class TransferController {
     
     private final TransferUseCase transferUseCase;
     private final TransferMapper transferMapper;
+    private final TransferQueryService transferQueryService;
+    private final ObjectMapper objectMapper;
+    private final TransferAdmissionControl admissionControl;
+    private final long streamTimeoutMs;
     
-    public TransferController(TransferUseCase transferUseCase, TransferMapper transferMapper) {
+    public TransferController(TransferUseCase transferUseCase, TransferMapper transferMapper,
+                              TransferQueryService transferQueryService, ObjectMapper objectMapper,
+                              TransferAdmissionControl admissionControl,
+                              @Value("${app.transfer-stream.timeout-ms:300000}") long streamTimeoutMs) {
         this.transferUseCase = transferUseCase;
         this.transferMapper = transferMapper;
+        this.transferQueryService = transferQueryService;
+        this.objectMapper = objectMapper;
+        this.admissionControl = admissionControl;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
     
     /**
      * POST /transfers
-     * Creates a new points transfer between users
+     * Creates a new points transfer between users. Requests over the sender's
+     * or client's rate, or beyond the transfers the database currently keeps
+     * up with, are shed with 429 and Retry-After before any work is done.
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createTransfer(@Valid @RequestBody TransferCreateRequestDTO request) {
+    public ResponseEntity<?> createTransfer(
+            @Valid @RequestBody TransferCreateRequestDTO request,
+            @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+            HttpServletRequest servletRequest) {
+        String clientKey = apiKey != null ? "key:" + apiKey : "addr:" + servletRequest.getRemoteAddr();
+        TransferAdmissionControl.Admission admission = admissionControl.admit(request.getFromUserId(), clientKey);
+        if (admission instanceof TransferAdmissionControl.Shed shed) {
+            return shedResponse(shed);
+        }
+        
+        TransferAdmissionControl.Admitted admitted = (TransferAdmissionControl.Admitted) admission;
+        try {
+            return createAdmittedTransfer(request);
+        } finally {
+            admitted.release();
+        }
+    }
+    
+    private ResponseEntity<?> createAdmittedTransfer(TransferCreateRequestDTO request) {
         try {
             // Create the transfer
-            Transfer transfer = transferUseCase.createTransfer(
+            TransferOutcome outcome = transferUseCase.createTransfer(
                 request.getFromUserId(),
                 request.getToUserId(),
                 request.getAmount(),
                 request.getNote()
             );
             
+            // Declined by a business rule: map the reason, no exception involved
+            if (outcome instanceof TransferOutcome.Rejected rejected) {
+                return rejectionResponse(rejected);
+            }
+            
+            Transfer transfer = outcome.transfer();
+            
             // Convert to response DTO
             TransferResponseDTO responseDTO = transferMapper.toResponseDTO(transfer);
             
-            // Build response with transfer wrapped in an object
-            Map<String, Object> response = new HashMap<>();
-            response.put("transfer", responseDTO);
-            
             // Add Idempotency-Key header
             HttpHeaders headers = new HttpHeaders();
             headers.add("Idempotency-Key", transfer.getIdemKey());
             
-            return new ResponseEntity<>(response, headers, HttpStatus.CREATED);
+            return new ResponseEntity<>(new TransferEnvelopeDTO(responseDTO), headers, HttpStatus.CREATED);
             
         } catch (IllegalArgumentException e) {
             // Validation errors (400 Bad Request)
             return ResponseEntity.badRequest().body(createErrorResponse("VALIDATION_ERROR", e.getMessage()));
             
         } catch (IllegalStateException e) {
-            // Business logic errors (409 Conflict for insufficient points, inactive users)
-            if (e.getMessage().contains("Insufficient points") || 
-                e.getMessage().contains("not active")) {
-                return ResponseEntity.status(HttpStatus.CONFLICT)
-                    .body(createErrorResponse("BUSINESS_RULE_VIOLATION", e.getMessage()));
-            }
-            // 422 Unprocessable Entity for other state issues
+            // 422 Unprocessable Entity for unexpected state issues
             return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
                 .body(createErrorResponse("UNPROCESSABLE", e.getMessage()));
                 
+        } catch (ConcurrencyFailureException e) {
+            // 409 Conflict when every attempt lost to concurrent transfers; nothing was applied
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(createErrorResponse("CONFLICT", "The accounts were busy with other transfers, please retry"));
+                
         } catch (Exception e) {
             // Unexpected errors (500 Internal Server Error)
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -88,23 +139,142 @@ public class TransferController {
         }
     }
     
+    /**
+     * GET /transfers/export?userId={userId}&format={ndjson|csv}
+     * Streams the complete transfer history of a user straight from the database cursor
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransfersByUserId(
+            @RequestParam @Min(1) Long userId,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        TransferExportFormat exportFormat;
+        try {
+            exportFormat = TransferExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            ApiErrorDTO error = createErrorResponse("VALIDATION_ERROR", e.getMessage());
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> objectMapper.writeValue(outputStream, error));
+        }
+        
+        StreamingResponseBody body = outputStream -> {
+            try (TransferExportWriter writer = TransferExportWriter.create(
+                    exportFormat, outputStream, objectMapper, transferMapper)) {
+                transferUseCase.exportTransfersByUserId(userId, writer::write);
+            }
+        };
+        
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(exportFormat.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+            .filename("transfers-" + userId + "." + exportFormat.getFileExtension())
+            .build());
+        
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+    
+    /**
+     * GET /transfers/stream?userId={userId}
+     * Server-sent events with one "transfer" event per transfer the user
+     * receives from now on. The stream ends when the client falls behind or
+     * after app.transfer-stream.timeout-ms; a reconnecting client reads what it
+     * missed from GET /transfers.
+     */
+    @GetMapping("/stream")
+    public ResponseEntity<SseEmitter> streamIncomingTransfers(@RequestParam @Min(1) Long userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        IncomingTransferFeed.Subscription subscription;
+        try {
+            subscription = transferUseCase.subscribeToIncomingTransfers(userId, new IncomingTransferFeed.Subscriber() {
+                @Override
+                public boolean onTransfers(List<Transfer> transfers) {
+                    try {
+                        for (Transfer transfer : transfers) {
+                            emitter.send(SseEmitter.event()
+                                .id(transfer.getIdemKey())
+                                .name("transfer")
+                                .data(transferMapper.toResponseDTO(transfer), MediaType.APPLICATION_JSON));
+                        }
+                        return true;
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away or the emitter already completed
+                        return false;
+                    }
+                }
+                
+                @Override
+                public boolean onIdle() {
+                    try {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                        return true;
+                    } catch (IOException | IllegalStateException e) {
+                        return false;
+                    }
+                }
+                
+                @Override
+                public void onDropped() {
+                    emitter.complete();
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Subscriber limit of this node reached
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            .header("X-Accel-Buffering", "no")
+            .body(emitter);
+    }
+    
     /**
      * GET /transfers/{id}
-     * Gets a transfer by its idempotency key
+     * Gets a transfer by its idempotency key. With If-None-Match, an unchanged
+     * transfer costs one index lookup and no body; finished transfers are
+     * marked immutable so clients stop asking.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getTransferById(@PathVariable String id) {
+    public ResponseEntity<?> getTransferById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        if (ifNoneMatch != null) {
+            EntityRevision current = transferQueryService.getTransferRevision(id).orElse(null);
+            if (current != null && current.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(current.eTag())
+                    .cacheControl(cacheControl(current))
+                    .build();
+            }
+        }
+        
         return transferUseCase.getTransferByIdemKey(id)
-            .map(transfer -> {
-                TransferResponseDTO responseDTO = transferMapper.toResponseDTO(transfer);
-                Map<String, Object> response = new HashMap<>();
-                response.put("transfer", responseDTO);
-                return ResponseEntity.ok(response);
+            .<ResponseEntity<?>>map(transfer -> {
+                EntityRevision revision = EntityRevision.of(transfer);
+                return ResponseEntity.ok()
+                    .eTag(revision.eTag())
+                    .cacheControl(cacheControl(revision))
+                    .body(new TransferEnvelopeDTO(transferMapper.toResponseDTO(transfer)));
             })
             .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(createErrorResponse("NOT_FOUND", "Transfer not found with id: " + id)));
     }
     
+    /**
+     * A finished transfer may be cached for a year without revalidation;
+     * one still processing must be revalidated on every use
+     */
+    private static CacheControl cacheControl(EntityRevision revision) {
+        return revision.immutable()
+            ? CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable()
+            : CacheControl.noCache().cachePrivate();
+    }
+    
     /**
      * GET /transfers?userId={userId}&page={page}&pageSize={pageSize}
      * Lists all transfers involving a specific user
@@ -116,21 +286,8 @@ public class TransferController {
             @RequestParam(defaultValue = "20") @Min(1) @Max(200) int pageSize
     ) {
         try {
-            // Get transfers from use case
-            TransferUseCase.TransferListResult result = transferUseCase.getTransfersByUserId(userId, page, pageSize);
-            
-            // Convert to response DTOs
-            List<TransferResponseDTO> transferDTOs = result.getData().stream()
-                .map(transferMapper::toResponseDTO)
-                .collect(Collectors.toList());
-            
-            // Build response
-            TransferListResponseDTO response = new TransferListResponseDTO(
-                transferDTOs,
-                result.getPage(),
-                result.getPageSize(),
-                result.getTotal()
-            );
+            // Rows are projected straight into response DTOs
+            TransferListResponseDTO response = transferQueryService.getTransfersByUserId(userId, page, pageSize);
             
             return ResponseEntity.ok(response);
             
@@ -140,13 +297,37 @@ public class TransferController {
         }
     }
     
+    /**
+     * Maps a declined transfer to its HTTP status:
+     * unknown users are bad input (400), inactive users and insufficient points are conflicts (409)
+     */
+    private ResponseEntity<ApiErrorDTO> rejectionResponse(TransferOutcome.Rejected rejected) {
+        return switch (rejected.reason()) {
+            case SENDER_NOT_FOUND, RECEIVER_NOT_FOUND -> ResponseEntity.badRequest()
+                .body(createErrorResponse("VALIDATION_ERROR", rejected.message()));
+            case SENDER_INACTIVE, RECEIVER_INACTIVE, INSUFFICIENT_POINTS -> ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(createErrorResponse("BUSINESS_RULE_VIOLATION", rejected.message()));
+        };
+    }
+    
+    /**
+     * 429 for a shed transfer, with the seconds after which a retry can succeed
+     */
+    private ResponseEntity<ApiErrorDTO> shedResponse(TransferAdmissionControl.Shed shed) {
+        String message = switch (shed.limit()) {
+            case CLIENT_RATE -> "Too many transfers from this client";
+            case SENDER_RATE -> "Too many transfers from this sender";
+            case CONCURRENCY -> "Too many transfers in progress";
+        };
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(shed.retryAfterSeconds()))
+            .body(createErrorResponse("RATE_LIMITED", message + ", retry after " + shed.retryAfterSeconds() + "s"));
+    }
+    
     /**
      * Helper method to create error response
      */
-    private Map<String, Object> createErrorResponse(String error, String message) {
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("error", error);
-        errorResponse.put("message", message);
-        return errorResponse;
+    private ApiErrorDTO createErrorResponse(String error, String message) {
+        return ApiErrorDTO.of(error, message);
     }
 }
@@ -1,20 +1,47 @@
 package com.workshop4.helloworldbackend.presentation.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop4.helloworldbackend.application.dto.ApiErrorDTO;
+import com.workshop4.helloworldbackend.application.dto.BulkUpdateProgressDTO;
+import com.workshop4.helloworldbackend.application.dto.BulkUserRequestDTO;
 import com.workshop4.helloworldbackend.application.dto.UserDTO;
+import com.workshop4.helloworldbackend.application.dto.UserDeletedDTO;
+import com.workshop4.helloworldbackend.application.dto.UserEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.UserImportEnvelopeDTO;
+import com.workshop4.helloworldbackend.application.dto.UserImportResultDTO;
+import com.workshop4.helloworldbackend.application.dto.UserListEnvelopeDTO;
 import com.workshop4.helloworldbackend.application.dto.UserResponseDTO;
+import com.workshop4.helloworldbackend.application.dto.UserStatsEnvelopeDTO;
 import com.workshop4.helloworldbackend.application.mapper.UserMapper;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import com.workshop4.helloworldbackend.application.service.UserImportService;
+import com.workshop4.helloworldbackend.application.service.UserQueryService;
+import com.workshop4.helloworldbackend.domain.model.BulkUpdateProgress;
 import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.model.UserSelection;
 import com.workshop4.helloworldbackend.domain.usecase.UserUseCase;
 import com.workshop4.helloworldbackend.domain.usecase.UserUseCase.UserStats;
+import com.workshop4.helloworldbackend.exception.InvalidRequestException;
+import com.workshop4.helloworldbackend.exception.PreconditionFailedException;
+import com.workshop4.helloworldbackend.exception.ResourceNotFoundException;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * REST Controller - Presentation layer
@@ -25,192 +52,333 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class UserController {
     
+    private static final Logger logger = LoggerFactory.getLogger(UserController.class);
+    
     private final UserUseCase userUseCase;
     private final UserMapper userMapper;
+    private final UserImportService userImportService;
+    private final UserQueryService userQueryService;
+    private final ObjectMapper objectMapper;
     
-    public UserController(UserUseCase userUseCase, UserMapper userMapper) {
+    public UserController(UserUseCase userUseCase, UserMapper userMapper,
+                          UserImportService userImportService, UserQueryService userQueryService,
+                          ObjectMapper objectMapper) {
         this.userUseCase = userUseCase;
         this.userMapper = userMapper;
+        this.userImportService = userImportService;
+        this.userQueryService = userQueryService;
+        this.objectMapper = objectMapper;
     }
     
     // GET all users
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllUsers(
+    public ResponseEntity<UserListEnvelopeDTO> getAllUsers(
             @RequestParam(required = false) Boolean activeOnly,
             @RequestParam(required = false) String search) {
         
-        List<User> users;
+        List<UserResponseDTO> userDTOs;
         
         if (search != null && !search.trim().isEmpty()) {
-            users = userUseCase.searchUsers(search);
+            userDTOs = userQueryService.searchUsers(search);
         } else if (Boolean.TRUE.equals(activeOnly)) {
-            users = userUseCase.getActiveUsers();
+            userDTOs = userQueryService.getActiveUsers();
         } else {
-            users = userUseCase.getAllUsers();
+            userDTOs = userQueryService.getAllUsers();
         }
         
-        List<UserResponseDTO> userDTOs = users.stream()
-                .map(userMapper::toResponseDTO)
-                .collect(Collectors.toList());
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("count", userDTOs.size());
-        response.put("message", "Users retrieved successfully");
-        response.put("users", userDTOs);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new UserListEnvelopeDTO("Users retrieved successfully", userDTOs));
     }
     
-    // GET user by ID
+    // GET user by ID; with If-None-Match, an unchanged user costs one tiny query and no body
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserEnvelopeDTO> getUserById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            EntityRevision current = userQueryService.getUserRevision(id).orElse(null);
+            if (current != null && current.matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(current.eTag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+            }
+        }
+        
         User user = userUseCase.getUserById(id);
         UserResponseDTO userDTO = userMapper.toResponseDTO(user);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User retrieved successfully");
-        response.put("user", userDTO);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+            .eTag(EntityRevision.of(user).eTag())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(new UserEnvelopeDTO("User retrieved successfully", userDTO));
     }
     
     // GET user by email
     @GetMapping("/email/{email}")
-    public ResponseEntity<Map<String, Object>> getUserByEmail(@PathVariable String email) {
+    public ResponseEntity<UserEnvelopeDTO> getUserByEmail(@PathVariable String email) {
         User user = userUseCase.getUserByEmail(email);
         UserResponseDTO userDTO = userMapper.toResponseDTO(user);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User retrieved successfully");
-        response.put("user", userDTO);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new UserEnvelopeDTO("User retrieved successfully", userDTO));
     }
     
     // Search users with criteria
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchUsers(
+    public ResponseEntity<UserListEnvelopeDTO> searchUsers(
             @RequestParam(required = false) String firstName,
             @RequestParam(required = false) String lastName,
             @RequestParam(required = false) String email,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) Boolean isActive) {
         
-        List<User> users = userUseCase.searchUsersByCriteria(
+        List<UserResponseDTO> userDTOs = userQueryService.searchUsersByCriteria(
                 firstName, lastName, email, city, isActive);
         
-        List<UserResponseDTO> userDTOs = users.stream()
-                .map(userMapper::toResponseDTO)
-                .collect(Collectors.toList());
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("count", userDTOs.size());
-        response.put("message", "Search completed successfully");
-        response.put("users", userDTOs);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new UserListEnvelopeDTO("Search completed successfully", userDTOs));
     }
     
     // GET user statistics
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getUserStats() {
+    public ResponseEntity<UserStatsEnvelopeDTO> getUserStats() {
         UserStats stats = userUseCase.getUserStats();
         
-        Map<String, Object> statsMap = new HashMap<>();
-        statsMap.put("totalUsers", stats.getTotalUsers());
-        statsMap.put("activeUsers", stats.getActiveUsers());
-        statsMap.put("inactiveUsers", stats.getInactiveUsers());
+        UserStatsEnvelopeDTO.Stats statsDTO = new UserStatsEnvelopeDTO.Stats(
+                stats.getTotalUsers(), stats.getActiveUsers(), stats.getInactiveUsers());
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("stats", statsMap);
-        response.put("message", "User statistics retrieved successfully");
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new UserStatsEnvelopeDTO(statsDTO, "User statistics retrieved successfully"));
     }
     
     // POST create user
     @PostMapping
-    public ResponseEntity<Map<String, Object>> createUser(@Valid @RequestBody UserDTO userDTO) {
+    public ResponseEntity<UserEnvelopeDTO> createUser(@Valid @RequestBody UserDTO userDTO) {
         User user = userMapper.toDomainModel(userDTO);
         User createdUser = userUseCase.createUser(user);
         UserResponseDTO responseDTO = userMapper.toResponseDTO(createdUser);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User created successfully");
-        response.put("user", responseDTO);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new UserEnvelopeDTO("User created successfully", responseDTO));
+    }
+    
+    // POST bulk import users from an NDJSON or CSV body
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        
+        UserImportService.Format format = MediaType.parseMediaType("text/csv").includes(contentType)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        UserImportResultDTO result;
+        try {
+            result = userImportService.importUsers(body, format);
+        } catch (IllegalArgumentException e) {
+            // Input without a CSV header row; problems in single rows are reported in the result
+            return ResponseEntity.badRequest()
+                .body(ApiErrorDTO.of(HttpStatus.BAD_REQUEST.value(), "Bad Request", e.getMessage()));
+        }
         
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.ok(new UserImportEnvelopeDTO("User import completed", result));
     }
     
-    // PUT update user (full update)
+    // PUT update user (full update); with If-Match, only if the user is still at that ETag
     @PutMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> updateUser(
+    public ResponseEntity<UserEnvelopeDTO> updateUser(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserDTO userDTO) {
         
         User user = userMapper.toDomainModel(userDTO);
+        user.setVersion(expectedVersion(id, ifMatch));
         User updatedUser = userUseCase.updateUser(id, user);
         UserResponseDTO responseDTO = userMapper.toResponseDTO(updatedUser);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User updated successfully");
-        response.put("user", responseDTO);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+            .eTag(EntityRevision.of(updatedUser).eTag())
+            .body(new UserEnvelopeDTO("User updated successfully", responseDTO));
     }
     
-    // PATCH partial update
+    // PATCH partial update; If-Match as for PUT
     @PatchMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> partialUpdateUser(
+    public ResponseEntity<UserEnvelopeDTO> partialUpdateUser(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody UserDTO userDTO) {
         
         User user = userMapper.toDomainModel(userDTO);
+        user.setVersion(expectedVersion(id, ifMatch));
         User updatedUser = userUseCase.partialUpdateUser(id, user);
         UserResponseDTO responseDTO = userMapper.toResponseDTO(updatedUser);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User updated successfully");
-        response.put("user", responseDTO);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+            .eTag(EntityRevision.of(updatedUser).eTag())
+            .body(new UserEnvelopeDTO("User updated successfully", responseDTO));
     }
     
     // DELETE user
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deleteUser(@PathVariable Long id) {
+    public ResponseEntity<UserDeletedDTO> deleteUser(@PathVariable Long id) {
         userUseCase.deleteUser(id);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User deleted successfully");
-        response.put("deletedUserId", id);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new UserDeletedDTO("User deleted successfully", id));
     }
     
     // POST activate user
     @PostMapping("/{id}/activate")
-    public ResponseEntity<Map<String, Object>> activateUser(@PathVariable Long id) {
+    public ResponseEntity<UserEnvelopeDTO> activateUser(@PathVariable Long id) {
         User user = userUseCase.activateUser(id);
         UserResponseDTO responseDTO = userMapper.toResponseDTO(user);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User activated successfully");
-        response.put("user", responseDTO);
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new UserEnvelopeDTO("User activated successfully", responseDTO));
     }
     
     // POST deactivate user
     @PostMapping("/{id}/deactivate")
-    public ResponseEntity<Map<String, Object>> deactivateUser(@PathVariable Long id) {
+    public ResponseEntity<UserEnvelopeDTO> deactivateUser(@PathVariable Long id) {
         User user = userUseCase.deactivateUser(id);
         UserResponseDTO responseDTO = userMapper.toResponseDTO(user);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User deactivated successfully");
-        response.put("user", responseDTO);
+        return ResponseEntity.ok(new UserEnvelopeDTO("User deactivated successfully", responseDTO));
+    }
+    
+    // POST bulk activate users by ids or criteria, streaming NDJSON progress
+    @PostMapping(value = "/bulk/activate", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> activateUsers(@RequestBody BulkUserRequestDTO request) {
+        UserSelection selection = selectionOf(request);
+        return streamProgress(progress -> userUseCase.activateUsers(selection, progress));
+    }
+    
+    // POST bulk deactivate users by ids or criteria, streaming NDJSON progress
+    @PostMapping(value = "/bulk/deactivate", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> deactivateUsers(@RequestBody BulkUserRequestDTO request) {
+        UserSelection selection = selectionOf(request);
+        return streamProgress(progress -> userUseCase.deactivateUsers(selection, progress));
+    }
+    
+    // POST bulk add (or deduct) points by ids or criteria, streaming NDJSON progress
+    @PostMapping(value = "/bulk/points", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> adjustPoints(@RequestBody BulkUserRequestDTO request) {
+        UserSelection selection = selectionOf(request);
+        if (request.delta() == null || request.delta() == 0) {
+            throw new InvalidRequestException("delta must be a non-zero number of points");
+        }
+        return streamProgress(progress ->
+            userUseCase.adjustPoints(selection, request.delta(), request.reason(), progress));
+    }
+    
+    /**
+     * Rejects a request that would select every user by accident: criteria
+     * must set at least one field, and selecting everyone takes all:true
+     */
+    private UserSelection selectionOf(BulkUserRequestDTO request) {
+        boolean all = Boolean.TRUE.equals(request.all());
+        BulkUserRequestDTO.Criteria criteria = request.criteria();
+        boolean hasCriteria = criteria != null && !criteria.isEmpty();
+        if ((request.ids() != null ? 1 : 0) + (hasCriteria ? 1 : 0) + (all ? 1 : 0) != 1) {
+            throw new InvalidRequestException("Exactly one of ids, non-empty criteria or all:true is required");
+        }
+        try {
+            UserSelection selection;
+            if (request.ids() != null) {
+                selection = UserSelection.byIds(request.ids());
+            } else if (all) {
+                selection = UserSelection.byCriteria(null, null, null, null, null);
+            } else {
+                selection = UserSelection.byCriteria(criteria.firstName(), criteria.lastName(), criteria.email(),
+                    criteria.city(), criteria.isActive());
+            }
+            userUseCase.validateBulkSelection(selection);
+            return selection;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException(e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Writes one progress line per committed chunk. A client that goes away
+     * stops receiving lines but does not stop the operation, since the chunks
+     * it already committed could not be taken back anyway. The status is sent
+     * before the first chunk runs, so a failure ends the stream with an error
+     * line carrying the last committed progress instead.
+     */
+    private ResponseEntity<StreamingResponseBody> streamProgress(
+            Function<Consumer<BulkUpdateProgress>, BulkUpdateProgress> operation) {
+        StreamingResponseBody body = outputStream -> {
+            ProgressWriter writer = new ProgressWriter(outputStream);
+            try {
+                operation.apply(writer);
+            } catch (ConcurrencyFailureException e) {
+                logger.warn("Bulk operation {} stopped after {} users: {}", writer.operationId(),
+                    writer.processed(), e.getMessage());
+                writer.fail(ApiErrorDTO.of("CONFLICT", "The users were busy with other writes, please retry"));
+            } catch (RuntimeException e) {
+                logger.error("Bulk operation {} failed after {} users", writer.operationId(), writer.processed(), e);
+                writer.fail(ApiErrorDTO.of("INTERNAL_ERROR", "An unexpected error occurred"));
+            }
+        };
+        
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+    
+    private class ProgressWriter implements Consumer<BulkUpdateProgress> {
+        
+        private final OutputStream outputStream;
+        private boolean connected = true;
+        private BulkUpdateProgress last;
+        
+        ProgressWriter(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+        
+        @Override
+        public void accept(BulkUpdateProgress progress) {
+            last = progress;
+            if (connected) {
+                connected = writeLine(outputStream, BulkUpdateProgressDTO.from(progress));
+            }
+        }
+        
+        void fail(ApiErrorDTO error) {
+            if (connected) {
+                connected = writeLine(outputStream, BulkUpdateProgressDTO.failed(last, error));
+            }
+        }
         
-        return ResponseEntity.ok(response);
+        String operationId() {
+            return last == null ? null : last.operationId();
+        }
+        
+        long processed() {
+            return last == null ? 0 : last.processed();
+        }
+    }
+    
+    private boolean writeLine(OutputStream outputStream, Object line) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(line));
+            outputStream.write('\n');
+            outputStream.flush();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Version an If-Match header pins the update to, or null without the
+     * header. The use case checks it again against the row it updates.
+     */
+    private Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        EntityRevision current = userQueryService.getUserRevision(id)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        if (!current.matchesStrongly(ifMatch)) {
+            throw new PreconditionFailedException(
+                "User " + id + " does not match If-Match; current ETag is " + current.eTag());
+        }
+        return current.version();
     }
 }
@@ -0,0 +1,40 @@
+package com.workshop4.helloworldbackend.presentation.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Transfer Export Format
+ * Supported wire formats for the transfer history export
+ */
+public enum TransferExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    TransferExportFormat(String mediaType, String fileExtension) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Resolves a format from its request parameter value (case-insensitive)
+     */
+    public static TransferExportFormat fromParameter(String value) {
+        for (TransferExportFormat format : values()) {
+            if (format.fileExtension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("format must be one of: ndjson, csv");
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
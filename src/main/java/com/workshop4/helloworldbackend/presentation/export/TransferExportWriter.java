@@ -0,0 +1,158 @@
+package com.workshop4.helloworldbackend.presentation.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.workshop4.helloworldbackend.application.dto.TransferResponseDTO;
+import com.workshop4.helloworldbackend.application.mapper.TransferMapper;
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Transfer Export Writer
+ * Serializes transfers one by one onto a response stream so an export
+ * never holds more than a single row in memory
+ */
+public abstract class TransferExportWriter implements Closeable {
+
+    /**
+     * Creates a writer for the given format on top of the output stream
+     */
+    public static TransferExportWriter create(TransferExportFormat format, OutputStream out,
+                                              ObjectMapper objectMapper, TransferMapper transferMapper) {
+        try {
+            return switch (format) {
+                case NDJSON -> new NdjsonWriter(out, objectMapper, transferMapper);
+                case CSV -> new CsvWriter(out);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a single transfer, wrapping I/O failures so it can be used as a Consumer
+     */
+    public void write(Transfer transfer) {
+        try {
+            writeRow(transfer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract void writeRow(Transfer transfer) throws IOException;
+
+    /**
+     * One JSON document per line, using the same shape as GET /transfers
+     */
+    private static final class NdjsonWriter extends TransferExportWriter {
+        private final JsonGenerator generator;
+        private final ObjectWriter objectWriter;
+        private final TransferMapper transferMapper;
+        private boolean empty = true;
+
+        private NdjsonWriter(OutputStream out, ObjectMapper objectMapper, TransferMapper transferMapper)
+                throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+            this.objectWriter = objectMapper.writerFor(TransferResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.transferMapper = transferMapper;
+        }
+
+        @Override
+        protected void writeRow(Transfer transfer) throws IOException {
+            objectWriter.writeValue(generator, transferMapper.toResponseDTO(transfer));
+            empty = false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row
+     */
+    private static final class CsvWriter extends TransferExportWriter {
+        private static final String HEADER =
+            "transferId,idemKey,fromUserId,toUserId,amount,status,note,createdAt,updatedAt,completedAt,failReason";
+
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write(HEADER);
+            this.writer.write("\r\n");
+        }
+
+        @Override
+        protected void writeRow(Transfer transfer) throws IOException {
+            writer.write(String.valueOf(transfer.getTransferId()));
+            writer.write(',');
+            writeField(transfer.getIdemKey());
+            writer.write(',');
+            writer.write(String.valueOf(transfer.getFromUserId()));
+            writer.write(',');
+            writer.write(String.valueOf(transfer.getToUserId()));
+            writer.write(',');
+            writer.write(String.valueOf(transfer.getAmount()));
+            writer.write(',');
+            writeField(transfer.getStatus() != null ? transfer.getStatus().name().toLowerCase() : null);
+            writer.write(',');
+            writeField(transfer.getNote());
+            writer.write(',');
+            writeTimestamp(transfer.getCreatedAt());
+            writer.write(',');
+            writeTimestamp(transfer.getUpdatedAt());
+            writer.write(',');
+            writeTimestamp(transfer.getCompletedAt());
+            writer.write(',');
+            writeField(transfer.getFailReason());
+            writer.write("\r\n");
+        }
+
+        private void writeTimestamp(LocalDateTime value) throws IOException {
+            if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean needsQuoting = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!needsQuoting) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.workshop4.helloworldbackend.presentation.filter;
+
+import com.workshop4.helloworldbackend.infrastructure.persistence.statement.StatementRecorder;
+import com.workshop4.helloworldbackend.infrastructure.persistence.statement.StatementStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement Budget Filter
+ * Counts the SQL statements each request executes on its own thread and the
+ * time the driver spent on them, and checks them against a budget per
+ * endpoint (app.statement-budget.endpoints, e.g. "POST /transfers=5"). A
+ * request over budget is logged, or fails when
+ * app.statement-budget.fail-on-exceed=true, which is how the tests keep the
+ * budgets. The same statement repeated repeat-threshold times or more in one
+ * request is logged as a likely N+1 query.
+ *
+ * With app.statement-metrics.response-headers=true the counts are also sent
+ * as X-SQL-Statements and X-SQL-Time-Ms; they cover the statements executed
+ * before the response body was started. Work done on other threads, such as
+ * streamed responses, is not counted.
+ *
+ * Metrics: sql.request.statements and sql.request.time per endpoint, and
+ * sql.request.budget_exceeded and sql.request.repeated_statements counters.
+ */
+@Component
+@ConditionalOnProperty(name = "app.statement-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementBudgetFilter.class);
+
+    static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    static final String TIME_HEADER = "X-SQL-Time-Ms";
+    private static final String UNMAPPED = "UNMAPPED";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean responseHeaders;
+    private final Map<String, Integer> budgets;
+    private final boolean failOnExceed;
+    private final int repeatThreshold;
+
+    public StatementBudgetFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.statement-metrics.response-headers:false}") boolean responseHeaders,
+            @Value("${app.statement-budget.endpoints:}") String budgets,
+            @Value("${app.statement-budget.fail-on-exceed:false}") boolean failOnExceed,
+            @Value("${app.statement-budget.repeat-threshold:10}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+        this.budgets = parseBudgets(budgets);
+        this.failOnExceed = failOnExceed;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementStatistics statistics = StatementRecorder.start();
+        try {
+            chain.doFilter(request, responseHeaders ? new StatementHeaderResponse(response, statistics) : response);
+        } finally {
+            StatementRecorder.stop();
+        }
+        if (responseHeaders) {
+            writeHeaders(response, statistics);
+        }
+        check(endpoint(request), statistics);
+    }
+
+    private void check(String endpoint, StatementStatistics statistics) {
+        DistributionSummary.builder("sql.request.statements")
+            .description("SQL statements executed per request")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry)
+            .record(statistics.count());
+        Timer.builder("sql.request.time")
+            .description("Time spent executing SQL statements per request")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry)
+            .record(statistics.nanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = statistics.repeatedAtLeast(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            counter("sql.request.repeated_statements", "Requests that repeated one statement", endpoint).increment();
+            repeated.forEach((sql, executions) ->
+                logger.warn("{} executed the same statement {} times, likely an N+1 query: {}", endpoint, executions, sql));
+        }
+
+        Integer budget = budgets.get(endpoint);
+        if (budget != null && statistics.count() > budget) {
+            counter("sql.request.budget_exceeded", "Requests over their statement budget", endpoint).increment();
+            String message = endpoint + " executed " + statistics.count() + " SQL statements, over its budget of " + budget;
+            if (failOnExceed) {
+                throw new IllegalStateException(message);
+            }
+            logger.warn(message);
+        }
+    }
+
+    private Counter counter(String name, String description, String endpoint) {
+        return Counter.builder(name).description(description).tag("endpoint", endpoint).register(meterRegistry);
+    }
+
+    /**
+     * The request's method and matched route, e.g. "GET /api/users/{id}"
+     */
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : UNMAPPED);
+    }
+
+    /**
+     * Reads "METHOD /pattern=statements" entries separated by commas
+     */
+    static Map<String, Integer> parseBudgets(String budgets) {
+        Map<String, Integer> parsed = new HashMap<>();
+        for (String entry : budgets.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Statement budget needs the form \"METHOD /path=count\": " + entry);
+            }
+            parsed.put(entry.substring(0, separator).trim().replaceAll("\\s+", " "),
+                Integer.parseInt(entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+
+    private static void writeHeaders(HttpServletResponse response, StatementStatistics statistics) {
+        if (!response.isCommitted() && !response.containsHeader(STATEMENTS_HEADER)) {
+            response.setHeader(STATEMENTS_HEADER, String.valueOf(statistics.count()));
+            response.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", statistics.nanos() / 1_000_000.0));
+        }
+    }
+
+    /**
+     * Adds the headers just before the body starts, while they can still be sent
+     */
+    private static final class StatementHeaderResponse extends HttpServletResponseWrapper {
+
+        private final StatementStatistics statistics;
+
+        StatementHeaderResponse(HttpServletResponse response, StatementStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders((HttpServletResponse) getResponse(), statistics);
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders((HttpServletResponse) getResponse(), statistics);
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders((HttpServletResponse) getResponse(), statistics);
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders((HttpServletResponse) getResponse(), statistics);
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders((HttpServletResponse) getResponse(), statistics);
+            super.sendError(sc);
+        }
+    }
+}
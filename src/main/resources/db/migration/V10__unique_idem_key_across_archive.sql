@@ -0,0 +1,14 @@
+-- Keeps idem_key unique across transfers and transfers_archive. Each table's
+-- UNIQUE index only covers its own rows, so without this a retried request
+-- whose transfer has been archived could insert a second hot transfer under
+-- the same key. The archiver only ever moves rows that are already unique, so
+-- inserts into the hot table are the only ones to check; the lookup uses the
+-- archive's idem_key index. The error is a constraint failure like the one
+-- the hot table's own index raises.
+
+CREATE TRIGGER IF NOT EXISTS transfers_idem_key_not_archived
+BEFORE INSERT ON transfers
+WHEN EXISTS (SELECT 1 FROM transfers_archive WHERE idem_key = new.idem_key)
+BEGIN
+    SELECT RAISE(ABORT, 'UNIQUE constraint failed: transfers_archive.idem_key');
+END;
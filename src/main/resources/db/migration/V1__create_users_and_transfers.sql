@@ -0,0 +1,50 @@
+-- Baseline schema for users and transfers.
+--
+-- Databases created earlier by Hibernate's ddl-auto=update are baselined at this
+-- version (spring.flyway.baseline-on-migrate) and keep their original tables;
+-- new databases get STRICT tables, so SQLite rejects values of the wrong type
+-- instead of silently storing them. Dates and timestamps are epoch millis and
+-- booleans are 0/1, matching what the JDBC driver writes. transfers.status holds
+-- TransferStatusConverter's one-byte code (0 PENDING, 1 PROCESSING, 2 COMPLETED,
+-- 3 FAILED, 4 CANCELLED, 5 REVERSED).
+--
+-- Both tables keep their rowid: the INTEGER PRIMARY KEY is an alias for it, which
+-- is already the most compact layout. WITHOUT ROWID only pays off for tables
+-- whose key is not a single integer.
+
+CREATE TABLE IF NOT EXISTS users (
+    id                INTEGER PRIMARY KEY,
+    member_id         TEXT UNIQUE,
+    first_name        TEXT    NOT NULL,
+    last_name         TEXT    NOT NULL,
+    email             TEXT    NOT NULL UNIQUE,
+    phone             TEXT,
+    birth_date        INTEGER,
+    gender            TEXT,
+    address           TEXT,
+    city              TEXT,
+    country           TEXT,
+    postal_code       TEXT,
+    bio               TEXT,
+    avatar_url        TEXT,
+    membership_level  TEXT,
+    points            INTEGER,
+    registration_date INTEGER,
+    is_active         INTEGER NOT NULL,
+    created_at        INTEGER NOT NULL,
+    updated_at        INTEGER
+) STRICT;
+
+CREATE TABLE IF NOT EXISTS transfers (
+    transfer_id  INTEGER PRIMARY KEY,
+    idem_key     TEXT    NOT NULL UNIQUE,
+    from_user_id INTEGER NOT NULL,
+    to_user_id   INTEGER NOT NULL,
+    amount       INTEGER NOT NULL,
+    status       INTEGER NOT NULL,
+    note         TEXT,
+    created_at   INTEGER NOT NULL,
+    updated_at   INTEGER NOT NULL,
+    completed_at INTEGER,
+    fail_reason  TEXT
+) STRICT;
@@ -0,0 +1,6 @@
+-- History, count and export queries filter on "from_user_id = ? OR to_user_id = ?".
+-- SQLite answers the OR with one index per side; with created_at in the key the
+-- count is served from the indexes alone and a page only touches its own rows.
+
+CREATE INDEX IF NOT EXISTS idx_transfers_from_user ON transfers (from_user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_transfers_to_user ON transfers (to_user_id, created_at);
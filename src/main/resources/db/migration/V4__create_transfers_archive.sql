@@ -0,0 +1,25 @@
+-- Cold storage for finished transfers. TransferArchiver moves COMPLETED and FAILED
+-- rows older than app.transfer-archive.max-age-days here in small batches, so the
+-- hot transfers table and its indexes only cover recent activity. Rows keep their
+-- transfer_id; reads check the hot table first and fall through to this one.
+
+CREATE TABLE IF NOT EXISTS transfers_archive (
+    transfer_id  INTEGER PRIMARY KEY,
+    idem_key     TEXT    NOT NULL UNIQUE,
+    from_user_id INTEGER NOT NULL,
+    to_user_id   INTEGER NOT NULL,
+    amount       INTEGER NOT NULL,
+    status       INTEGER NOT NULL,
+    note         TEXT,
+    created_at   INTEGER NOT NULL,
+    updated_at   INTEGER NOT NULL,
+    completed_at INTEGER,
+    fail_reason  TEXT
+) STRICT;
+
+CREATE INDEX IF NOT EXISTS idx_transfers_archive_from_user ON transfers_archive (from_user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_transfers_archive_to_user ON transfers_archive (to_user_id, created_at);
+
+-- Lets the archiver find the oldest finished hot rows without scanning the table
+-- (status codes 2 COMPLETED and 3 FAILED)
+CREATE INDEX IF NOT EXISTS idx_transfers_archivable ON transfers (created_at) WHERE status IN (2, 3);
@@ -0,0 +1,19 @@
+-- Transactional outbox (app.outbox.*).
+--
+-- Repository adapters insert one row per user or transfer change in the same
+-- transaction as the change itself. The relay publishes rows in event_id
+-- order, which on a single-writer SQLite file is commit order, by giving each a
+-- stream_offset; consumers resume from the last offset they saw. Published rows are kept for
+-- app.outbox.retention-hours, except the newest, which carries the offset
+-- counter across restarts.
+
+CREATE TABLE outbox_events (
+    event_id      INTEGER PRIMARY KEY,
+    stream_offset INTEGER UNIQUE,
+    event_type    TEXT    NOT NULL,
+    aggregate_id  TEXT    NOT NULL,
+    payload       TEXT    NOT NULL,
+    created_at    INTEGER NOT NULL
+) STRICT;
+
+CREATE INDEX idx_outbox_unpublished ON outbox_events (event_id) WHERE stream_offset IS NULL;
@@ -0,0 +1,9 @@
+-- Optimistic locking for users.
+--
+-- Hibernate checks and increments version on every UPDATE of a user, so a
+-- write based on a stale read affects no row and is reported as a conflict
+-- instead of silently overwriting the newer state. Rows inserted without the
+-- column (bulk import) start at 0. Adding a column with a constant default
+-- only rewrites the schema entry.
+
+ALTER TABLE users ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
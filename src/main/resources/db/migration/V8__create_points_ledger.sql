@@ -0,0 +1,17 @@
+-- Points ledger for bulk points adjustments (POST /api/users/bulk/points).
+--
+-- One row per member whose balance an adjustment changed, written in the same
+-- transaction as the balance itself. balance is the member's points after the
+-- entry; operation_id groups the entries of one bulk operation. Members skipped by an operation get no entry.
+
+CREATE TABLE points_ledger (
+    entry_id     INTEGER PRIMARY KEY,
+    user_id      INTEGER NOT NULL,
+    delta        INTEGER NOT NULL,
+    balance      INTEGER NOT NULL,
+    reason       TEXT,
+    operation_id TEXT    NOT NULL,
+    created_at   INTEGER NOT NULL
+) STRICT;
+
+CREATE INDEX idx_points_ledger_user ON points_ledger (user_id, entry_id);
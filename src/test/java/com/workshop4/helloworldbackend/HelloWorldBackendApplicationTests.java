@@ -2,10 +2,10 @@ package com.workshop4.helloworldbackend;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
-@TestPropertySource(locations = "classpath:application.properties")
+@ActiveProfiles("test")
 class HelloWorldBackendApplicationTests {
 
     @Test
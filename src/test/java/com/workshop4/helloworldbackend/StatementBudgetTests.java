@@ -0,0 +1,94 @@
+package com.workshop4.helloworldbackend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the main endpoints with app.statement-budget.fail-on-exceed=true, so a
+ * change that makes one execute more SQL statements than its budget in
+ * application.properties fails here. The users it works on are its own, so
+ * it does not depend on the sample data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "app.statement-budget.fail-on-exceed=true")
+class StatementBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private long senderId;
+    private long receiverId;
+
+    @BeforeEach
+    void createUsers() throws Exception {
+        senderId = createUser("Sender");
+        receiverId = createUser("Receiver");
+    }
+
+    @Test
+    void userEndpointsStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/users"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-SQL-Statements"));
+        mockMvc.perform(get("/api/users/" + senderId)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/users/search").param("firstName", "Sender").param("lastName", "Budget"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.users[*].id", hasItem((int) senderId)))
+            .andExpect(jsonPath("$.users[*].id", not(hasItem((int) receiverId))));
+        mockMvc.perform(get("/api/users/stats")).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/users/" + senderId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"statement budget\"}"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void transferEndpointsStayWithinBudget() throws Exception {
+        MvcResult created = mockMvc.perform(post("/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromUserId\":" + senderId + ",\"toUserId\":" + receiverId + ",\"amount\":1}"))
+            .andExpect(status().isCreated())
+            .andExpect(header().exists("X-SQL-Statements"))
+            .andReturn();
+        JsonNode transfer = objectMapper.readTree(created.getResponse().getContentAsString()).get("transfer");
+
+        mockMvc.perform(get("/transfers/" + transfer.get("idemKey").asText())).andExpect(status().isOk());
+        mockMvc.perform(get("/transfers").param("userId", String.valueOf(senderId))).andExpect(status().isOk());
+    }
+
+    private long createUser(String firstName) throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"" + firstName + "\",\"lastName\":\"Budget\",\"email\":\"budget-"
+                    + UUID.randomUUID() + "@example.com\",\"points\":100,\"isActive\":true}"))
+            .andExpect(status().isCreated())
+            .andReturn();
+        return objectMapper.readTree(created.getResponse().getContentAsString()).get("user").get("id").asLong();
+    }
+}
@@ -0,0 +1,154 @@
+package com.workshop4.helloworldbackend.application.service;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferOutcome;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.domain.repository.IncomingTransferFeed;
+import com.workshop4.helloworldbackend.domain.repository.TransferRejectionLog;
+import com.workshop4.helloworldbackend.domain.repository.TransferRepository;
+import com.workshop4.helloworldbackend.domain.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A transfer that loses a user's version to a concurrent writer is rolled back
+ * and repeated from freshly read users, up to app.transfer-retry.max-attempts
+ */
+class TransferUseCaseImplTests {
+
+    private static final long SENDER = 1L;
+    private static final long RECEIVER = 2L;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TransferRepository transferRepository = mock(TransferRepository.class);
+    private final IncomingTransferFeed incomingTransferFeed = mock(IncomingTransferFeed.class);
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+    private final Map<Long, User> rows = new HashMap<>();
+
+    private TransferUseCaseImpl transferUseCase;
+
+    @BeforeEach
+    void setUp() {
+        AccountStateStore accountStateStore = mock(AccountStateStore.class);
+        when(accountStateStore.lookup(anyLong())).thenReturn(AccountStateStore.ABSENT);
+        rows.put(SENDER, user(SENDER, 100));
+        rows.put(RECEIVER, user(RECEIVER, 0));
+        // Every read returns a fresh copy of the stored row, as the adapter does
+        when(userRepository.findById(anyLong()))
+            .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.<Long>getArgument(0))).map(User::copy));
+        when(transferRepository.save(any(Transfer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        transferUseCase = new TransferUseCaseImpl(transferRepository, userRepository, mock(TransferRejectionLog.class),
+            accountStateStore, incomingTransferFeed, transactionManager, MAX_ATTEMPTS, 1);
+    }
+
+    @Test
+    void repeatsTransferThatLostTheSendersVersion() {
+        // The first write finds a newer sender version, as after a concurrent update
+        when(userRepository.savePoints(anyList()))
+            .thenAnswer(invocation -> {
+                rows.get(SENDER).setVersion(rows.get(SENDER).getVersion() + 1);
+                return false;
+            })
+            .thenReturn(true);
+
+        TransferOutcome outcome = transferUseCase.createTransfer(SENDER, RECEIVER, 10, null);
+
+        assertThat(outcome).isInstanceOf(TransferOutcome.Completed.class);
+        assertThat(outcome.transfer().getStatus()).isEqualTo(TransferStatus.COMPLETED);
+        assertThat(transactionManager.rollbacks).isEqualTo(1);
+        assertThat(transactionManager.commits).isEqualTo(1);
+        verify(userRepository, times(2)).findById(SENDER);
+        verify(userRepository, times(2)).savePoints(anyList());
+        verify(transferRepository, times(1)).save(any(Transfer.class));
+        verify(incomingTransferFeed, times(1)).publish(any(Transfer.class));
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        when(userRepository.savePoints(anyList())).thenReturn(false);
+
+        assertThatThrownBy(() -> transferUseCase.createTransfer(SENDER, RECEIVER, 10, null))
+            .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(transactionManager.rollbacks).isEqualTo(MAX_ATTEMPTS);
+        assertThat(transactionManager.commits).isZero();
+        verify(userRepository, times(MAX_ATTEMPTS)).findById(SENDER);
+        verify(transferRepository, never()).save(any(Transfer.class));
+        verify(incomingTransferFeed, never()).publish(any(Transfer.class));
+    }
+
+    @Test
+    void rejectionsAreNotRepeated() {
+        rows.get(SENDER).setPoints(5);
+
+        TransferOutcome outcome = transferUseCase.createTransfer(SENDER, RECEIVER, 10, null);
+
+        assertThat(outcome).isInstanceOfSatisfying(TransferOutcome.Rejected.class,
+            rejected -> assertThat(rejected.reason()).isEqualTo(TransferOutcome.Reason.INSUFFICIENT_POINTS));
+        verify(userRepository, times(1)).findById(SENDER);
+        verify(userRepository, never()).savePoints(anyList());
+    }
+
+    private static User user(long id, int points) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName("User");
+        user.setLastName(String.valueOf(id));
+        user.setEmail("user" + id + "@example.com");
+        user.setPoints(points);
+        user.setIsActive(true);
+        user.setVersion(0L);
+        return user;
+    }
+
+    /**
+     * Runs transaction synchronization like a real manager and counts outcomes
+     */
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        int commits;
+        int rollbacks;
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits++;
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks++;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.workshop4.helloworldbackend.application.service;
+
+import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.repository.UserRepository;
+import com.workshop4.helloworldbackend.domain.usecase.UserUseCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Single-user writes read the user before writing. Every read here answers
+ * only after another connection has committed a write, as the outbox relay's
+ * may at any moment; a write transaction that had already read would then
+ * fail with SQLITE_BUSY instead of waiting for the lock.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserUseCaseImplTests {
+
+    @Autowired
+    private UserUseCase userUseCase;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    private final ExecutorService otherConnection = Executors.newSingleThreadExecutor();
+    private long bystanderId;
+
+    @BeforeEach
+    void commitElsewhereAfterEachRead() {
+        bystanderId = userUseCase.createUser(user("Bystander")).getId();
+
+        Answer<?> readThenCommitElsewhere = invocation -> {
+            Object result = invocation.callRealMethod();
+            otherConnection.submit(() -> jdbcTemplate.update("UPDATE users SET bio = ? WHERE id = ?",
+                UUID.randomUUID().toString(), bystanderId)).get(10, TimeUnit.SECONDS);
+            return result;
+        };
+        doAnswer(readThenCommitElsewhere).when(userRepository).findById(anyLong());
+        doAnswer(readThenCommitElsewhere).when(userRepository).findByEmail(anyString());
+        doAnswer(readThenCommitElsewhere).when(userRepository).existsByEmail(anyString());
+    }
+
+    @AfterEach
+    void shutdown() {
+        otherConnection.shutdownNow();
+    }
+
+    @Test
+    void createsUser() {
+        User created = userUseCase.createUser(user("Created"));
+
+        assertThat(created.getId()).isNotNull();
+    }
+
+    @Test
+    void updatesUserWithNewEmail() {
+        User existing = userUseCase.createUser(user("Existing"));
+        User changes = user("Updated");
+        changes.setPoints(25);
+
+        User updated = userUseCase.updateUser(existing.getId(), changes);
+
+        assertThat(updated.getFirstName()).isEqualTo("Updated");
+        assertThat(updated.getEmail()).isEqualTo(changes.getEmail());
+        assertThat(updated.getVersion()).isEqualTo(existing.getVersion() + 1);
+    }
+
+    @Test
+    void patchesEmailAndPoints() {
+        User existing = userUseCase.createUser(user("Patched"));
+        User changes = new User();
+        changes.setEmail("patched-" + UUID.randomUUID() + "@example.com");
+        changes.setPoints(40);
+
+        User patched = userUseCase.partialUpdateUser(existing.getId(), changes);
+
+        assertThat(patched.getEmail()).isEqualTo(changes.getEmail());
+        assertThat(patched.getPoints()).isEqualTo(40);
+        assertThat(patched.getFirstName()).isEqualTo("Patched");
+    }
+
+    @Test
+    void deactivatesActivatesAndDeletesUser() {
+        long id = userUseCase.createUser(user("Toggled")).getId();
+
+        assertThat(userUseCase.deactivateUser(id).getIsActive()).isFalse();
+        assertThat(userUseCase.activateUser(id).getIsActive()).isTrue();
+        userUseCase.deleteUser(id);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, id)).isZero();
+    }
+
+    private static User user(String firstName) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName("Tester");
+        user.setEmail("write-first-" + UUID.randomUUID() + "@example.com");
+        user.setPoints(10);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -0,0 +1,175 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour every {@link AccountTable} must have, run against each implementation
+ */
+abstract class AccountTableContract {
+
+    abstract AccountTable newTable(int expectedSize);
+
+    @Test
+    void putGetUpdateRemove() {
+        AccountTable table = newTable(4);
+
+        table.put(7, 100);
+        table.update(7, value -> value + 5);
+        table.update(8, value -> value + 5);
+
+        assertThat(table.get(7)).isEqualTo(105);
+        assertThat(table.get(8)).isEqualTo(AccountTable.MISSING);
+        assertThat(table.size()).isEqualTo(1);
+
+        table.remove(7);
+        assertThat(table.get(7)).isEqualTo(AccountTable.MISSING);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    void keepsEntriesAcrossResizes() {
+        AccountTable table = newTable(1);
+        for (long key = 1; key <= 10_000; key++) {
+            table.put(key, key * 3);
+        }
+        for (long key = 1; key <= 10_000; key += 2) {
+            table.remove(key);
+        }
+
+        assertThat(table.size()).isEqualTo(5_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(table.get(key)).isEqualTo(key % 2 == 0 ? key * 3 : AccountTable.MISSING);
+        }
+        List<Long> visited = new ArrayList<>();
+        table.forEach((key, value) -> visited.add(key));
+        assertThat(visited).hasSize(5_000);
+    }
+
+    @Test
+    void readersNeverMissAnEntryWhileTheTableGrows() throws Exception {
+        AccountTable table = newTable(1);
+        AtomicLong inserted = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readers = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Long>> misses = new ArrayList<>();
+            for (int reader = 0; reader < 3; reader++) {
+                misses.add(readers.submit(() -> {
+                    long missed = 0;
+                    long key = 1;
+                    while (!done.get()) {
+                        long upTo = inserted.get();
+                        if (upTo == 0) {
+                            continue;
+                        }
+                        key = key % upTo + 1;
+                        if (table.get(key) != key) {
+                            missed++;
+                        }
+                    }
+                    return missed;
+                }));
+            }
+            for (long key = 1; key <= 200_000; key++) {
+                table.put(key, key);
+                inserted.set(key);
+            }
+            done.set(true);
+            for (Future<Long> missed : misses) {
+                assertThat(missed.get(10, TimeUnit.SECONDS)).isZero();
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentUpdatesAreNotLost() throws Exception {
+        AccountTable table = newTable(16);
+        int threads = 4;
+        int updatesPerThread = 20_000;
+        table.put(1, 0);
+        table.put(2, (long) threads * updatesPerThread);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(writers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        table.update(1, value -> value + 1);
+                        table.update(2, value -> value - 1);
+                        // Growth while the updates run
+                        table.put(1_000 + i, i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        assertThat(table.get(1)).isEqualTo((long) threads * updatesPerThread);
+        assertThat(table.get(2)).isZero();
+    }
+
+    @Test
+    void removeAndPutChurnKeepsSizeAndEntriesConsistent() throws Exception {
+        AccountTable table = newTable(16);
+        int keys = 64;
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int seed = thread;
+                futures.add(writers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 50_000; i++) {
+                        long key = (i * 31L + seed) % keys + 1;
+                        switch ((i + seed) % 3) {
+                            case 0 -> table.put(key, key);
+                            case 1 -> table.remove(key);
+                            default -> table.update(key, value -> value);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            writers.shutdownNow();
+        }
+
+        List<Long> present = new ArrayList<>();
+        table.forEach((key, value) -> {
+            assertThat(value).isEqualTo(key);
+            present.add(key);
+        });
+        assertThat(present).doesNotHaveDuplicates().hasSize(table.size());
+        for (long key = 1; key <= keys; key++) {
+            assertThat(table.get(key)).isEqualTo(present.contains(key) ? key : AccountTable.MISSING);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import com.workshop4.helloworldbackend.domain.repository.IncomingTransferFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A client that stops reading must not hold up the subscribers behind it,
+ * even with a single delivery thread
+ */
+class IncomingTransferHubTests {
+
+    private static final long STALLED_USER = 1L;
+    private static final long OTHER_USER = 2L;
+
+    private final IncomingTransferHub hub = new IncomingTransferHub(4, 10, 100, 1, 50);
+
+    @AfterEach
+    void shutdown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void dropsSubscriberWhoseCallOutlivesTheWriteTimeoutAndKeepsDelivering() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch droppedNotice = new CountDownLatch(1);
+        hub.subscribe(STALLED_USER, new RecordingSubscriber() {
+            @Override
+            public boolean onTransfers(List<Transfer> transfers) {
+                blocked.countDown();
+                await(unblock);
+                return true;
+            }
+
+            @Override
+            public void onDropped() {
+                droppedNotice.countDown();
+            }
+        });
+        RecordingSubscriber other = new RecordingSubscriber();
+        hub.subscribe(OTHER_USER, other);
+
+        hub.publish(completed(STALLED_USER));
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The only delivery thread is stuck; the transfer waits for it
+        hub.publish(completed(OTHER_USER));
+        Thread.sleep(100);
+        assertThat(other.received).isEmpty();
+
+        hub.expireStalledCalls();
+        waitFor(() -> other.received.size() == 1);
+
+        // The stalled subscriber is gone and hears about it once its call returns
+        hub.publish(completed(STALLED_USER));
+        unblock.countDown();
+        assertThat(droppedNotice.await(5, TimeUnit.SECONDS)).isTrue();
+
+        hub.publish(completed(OTHER_USER));
+        waitFor(() -> other.received.size() == 2);
+    }
+
+    @Test
+    void leavesCallsWithinTheWriteTimeoutAlone() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        hub.subscribe(OTHER_USER, subscriber);
+
+        hub.publish(completed(OTHER_USER));
+        waitFor(() -> subscriber.received.size() == 1);
+        hub.expireStalledCalls();
+        hub.publish(completed(OTHER_USER));
+
+        waitFor(() -> subscriber.received.size() == 2);
+        assertThat(subscriber.dropped).isFalse();
+    }
+
+    private static Transfer completed(long toUserId) {
+        Transfer transfer = new Transfer("key-" + System.nanoTime(), 99L, toUserId, 1, null);
+        transfer.setStatus(TransferStatus.COMPLETED);
+        return transfer;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingSubscriber implements IncomingTransferFeed.Subscriber {
+
+        final List<Transfer> received = new CopyOnWriteArrayList<>();
+        volatile boolean dropped;
+
+        @Override
+        public boolean onTransfers(List<Transfer> transfers) {
+            received.addAll(transfers);
+            return true;
+        }
+
+        @Override
+        public boolean onIdle() {
+            return true;
+        }
+
+        @Override
+        public void onDropped() {
+            dropped = true;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+class OffHeapAccountTableTests extends AccountTableContract {
+
+    @Override
+    AccountTable newTable(int expectedSize) {
+        return new OffHeapAccountTable(expectedSize);
+    }
+}
@@ -0,0 +1,185 @@
+package com.workshop4.helloworldbackend.infrastructure.memory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrent lookups of a key share one query and get their own copies of
+ * its result; writers and read-write transactions never see a result read
+ * before their write
+ */
+class SingleFlightTests {
+
+    private static final long KEY = 1L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<Long, List<String>> singleFlight =
+        new SingleFlight<>("test", meterRegistry, ArrayList::new);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void callersArrivingDuringQueryShareItsResultAsCopies() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> first = executor.submit(() -> singleFlight.load(KEY, () -> blockingQuery(release)));
+        waitFor(() -> queries.get() == 1);
+
+        List<Future<List<String>>> joined = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            joined.add(executor.submit(() -> singleFlight.load(KEY, this::query)));
+        }
+        waitFor(() -> coalesced() == 3);
+        release.countDown();
+
+        List<String> result = get(first);
+        assertThat(result).containsExactly("row 1");
+        for (Future<List<String>> caller : joined) {
+            List<String> copy = get(caller);
+            assertThat(copy).isEqualTo(result).isNotSameAs(result);
+        }
+        assertThat(queries).hasValue(1);
+        assertThat(loads()).isEqualTo(1);
+    }
+
+    @Test
+    void failureReachesWaitingCallersAndIsNotKept() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> first = executor.submit(() -> singleFlight.load(KEY, () -> {
+            blockingQuery(release);
+            throw new IllegalStateException("database gone");
+        }));
+        waitFor(() -> queries.get() == 1);
+        Future<List<String>> joined = executor.submit(() -> singleFlight.load(KEY, this::query));
+        waitFor(() -> coalesced() == 1);
+        release.countDown();
+
+        assertThatThrownBy(first::get).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(joined::get).hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.load(KEY, this::query)).containsExactly("row 2");
+    }
+
+    @Test
+    void readWriteTransactionQueriesItself() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> running = executor.submit(() -> singleFlight.load(KEY, () -> blockingQuery(release)));
+        waitFor(() -> queries.get() == 1);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThat(singleFlight.load(KEY, this::query)).containsExactly("row 2");
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        release.countDown();
+
+        assertThat(get(running)).containsExactly("row 1");
+        assertThat(coalesced()).isZero();
+    }
+
+    @Test
+    void writerDetachesQueriesStartedBeforeItsCommit() throws Exception {
+        CountDownLatch releaseBeforeWrite = new CountDownLatch(1);
+        Future<List<String>> beforeWrite = executor.submit(() ->
+            singleFlight.load(KEY, () -> blockingQuery(releaseBeforeWrite)));
+        waitFor(() -> queries.get() == 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            singleFlight.forgetAfterCommit(KEY);
+
+            // Started after the write but before its commit, so it may read the old row too
+            CountDownLatch releaseBeforeCommit = new CountDownLatch(1);
+            Future<List<String>> beforeCommit = executor.submit(() ->
+                singleFlight.load(KEY, () -> blockingQuery(releaseBeforeCommit)));
+            waitFor(() -> queries.get() == 2);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            assertThat(singleFlight.load(KEY, this::query)).containsExactly("row 3");
+            releaseBeforeWrite.countDown();
+            releaseBeforeCommit.countDown();
+            get(beforeWrite);
+            get(beforeCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(coalesced()).isZero();
+    }
+
+    @Test
+    void writerOutsideTransactionDetachesRunningQueryAtOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<List<String>> beforeWrite = executor.submit(() -> singleFlight.load(KEY, () -> blockingQuery(release)));
+        waitFor(() -> queries.get() == 1);
+
+        singleFlight.forgetAfterCommit(KEY);
+
+        assertThat(singleFlight.load(KEY, this::query)).containsExactly("row 2");
+        release.countDown();
+        assertThat(get(beforeWrite)).containsExactly("row 1");
+    }
+
+    private List<String> query() {
+        return new ArrayList<>(List.of("row " + queries.incrementAndGet()));
+    }
+
+    private List<String> blockingQuery(CountDownLatch release) {
+        List<String> result = query();
+        try {
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private double loads() {
+        return meterRegistry.get("single_flight.loads").tag("name", "test").counter().count();
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("single_flight.coalesced").tag("name", "test").counter().count();
+    }
+
+    private static <T> T get(Future<T> future) throws InterruptedException, ExecutionException {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new AssertionError("lookup did not return in time", e);
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * sql-error-codes.xml gives JdbcTemplate the SQLite result codes: a write that
+ * finds the write lock taken must surface as a retryable
+ * CannotAcquireLockException, a constraint violation as a
+ * DataIntegrityViolationException
+ */
+class SqlErrorCodesTests {
+
+    private Path file;
+    private SQLiteDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        file = Files.createTempFile("sql-error-codes", ".db");
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(0);
+        dataSource = new SQLiteDataSource(config);
+        dataSource.setUrl("jdbc:sqlite:" + file);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE accounts (id INTEGER PRIMARY KEY, email TEXT NOT NULL UNIQUE)");
+        jdbcTemplate.update("INSERT INTO accounts (email) VALUES ('taken@example.com')");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void busyDatabaseIsCannotAcquireLock() throws Exception {
+        try (Connection holder = dataSource.getConnection(); Statement statement = holder.createStatement()) {
+            statement.execute("BEGIN IMMEDIATE");
+
+            assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO accounts (email) VALUES ('new@example.com')"))
+                .isInstanceOf(CannotAcquireLockException.class)
+                .isInstanceOf(ConcurrencyFailureException.class);
+
+            statement.execute("ROLLBACK");
+        }
+    }
+
+    @Test
+    void constraintViolationIsDataIntegrityViolation() {
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO accounts (email) VALUES ('taken@example.com')"))
+            .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
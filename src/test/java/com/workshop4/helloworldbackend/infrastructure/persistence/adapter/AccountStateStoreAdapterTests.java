@@ -0,0 +1,102 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.domain.repository.AccountStateStore;
+import com.workshop4.helloworldbackend.infrastructure.memory.WarmStartSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The store may only turn away transfers the database would also refuse: changes
+ * that help a transfer apply at once, changes that hurt one only after commit
+ */
+class AccountStateStoreAdapterTests {
+
+    private static final long USER = 1L;
+
+    private AccountStateStoreAdapter store;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+        store = new AccountStateStoreAdapter(jdbcTemplate, mock(WarmStartSnapshot.class), "heap");
+        store.register(USER, true, 100);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void creditAppliesAtOnceAndIsTakenBackOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.creditPoints(USER, 50);
+        assertThat(points()).isEqualTo(150);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(points()).isEqualTo(100);
+    }
+
+    @Test
+    void debitAppliesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.debitPoints(USER, 30);
+        assertThat(points()).isEqualTo(100);
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(points()).isEqualTo(70);
+    }
+
+    @Test
+    void rolledBackDebitIsNeverApplied() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.debitPoints(USER, 30);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(points()).isEqualTo(100);
+    }
+
+    @Test
+    void deactivationAppliesOnlyAfterCommitAndActivationAtOnce() {
+        TransactionSynchronizationManager.initSynchronization();
+        store.deactivate(USER);
+        assertThat(AccountStateStore.isActive(store.lookup(USER))).isTrue();
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(AccountStateStore.isActive(store.lookup(USER))).isFalse();
+
+        store.activate(USER);
+        assertThat(AccountStateStore.isActive(store.lookup(USER))).isTrue();
+    }
+
+    @Test
+    void changesOutsideATransactionApplyAtOnce() {
+        store.debitPoints(USER, 40);
+        assertThat(points()).isEqualTo(60);
+        assertThat(store.lookup(2L)).isEqualTo(AccountStateStore.ABSENT);
+    }
+
+    private long points() {
+        return AccountStateStore.points(store.lookup(USER));
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -0,0 +1,114 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.adapter;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.repository.TransferRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Rejected transfers must end up stored: a busy database only delays a batch,
+ * and a row that can never be written does not take its batch with it
+ */
+class TransferRejectionLogAdapterTests {
+
+    private final TransferRepository transferRepository = mock(TransferRepository.class);
+    private final List<String> stored = Collections.synchronizedList(new ArrayList<>());
+    private final TransferRejectionLogAdapter log = new TransferRejectionLogAdapter(
+        transferRepository, mock(PlatformTransactionManager.class), 100, 10, 10);
+
+    @AfterEach
+    void stop() {
+        if (log.isRunning()) {
+            log.stop();
+        }
+    }
+
+    @Test
+    void busyDatabaseDelaysBatchUntilItIsWritten() throws Exception {
+        AtomicInteger busyAttempts = new AtomicInteger(5);
+        storeUnless(batch -> {
+            if (busyAttempts.getAndDecrement() > 0) {
+                throw new CannotAcquireLockException("[SQLITE_BUSY] The database file is locked");
+            }
+        });
+        log.start();
+
+        log.record(rejected("a"));
+        log.record(rejected("b"));
+
+        waitFor(() -> stored.size() == 2);
+        assertThat(stored).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void unwritableRowOnlyCostsItself() throws Exception {
+        storeUnless(batch -> {
+            if (batch.stream().anyMatch(transfer -> transfer.getIdemKey().equals("bad"))) {
+                throw new DataIntegrityViolationException("NOT NULL constraint failed");
+            }
+        });
+
+        log.record(rejected("a"));
+        log.record(rejected("bad"));
+        log.record(rejected("b"));
+        log.start();
+
+        waitFor(() -> stored.size() == 2);
+        assertThat(stored).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void stopWritesWhatIsStillQueued() {
+        storeUnless(batch -> { });
+
+        for (int i = 0; i < 25; i++) {
+            log.record(rejected("queued-" + i));
+        }
+        log.start();
+        log.stop();
+
+        assertThat(stored).hasSize(25);
+    }
+
+    /**
+     * Stores the batch's idem keys unless the check throws
+     */
+    private void storeUnless(Consumer<List<Transfer>> check) {
+        doAnswer(invocation -> {
+            List<Transfer> batch = invocation.getArgument(0);
+            check.accept(batch);
+            batch.forEach(transfer -> stored.add(transfer.getIdemKey()));
+            return null;
+        }).when(transferRepository).insertAll(anyList());
+    }
+
+    private static Transfer rejected(String idemKey) {
+        Transfer transfer = new Transfer(idemKey, 1L, 2L, 10, null);
+        transfer.fail("Insufficient points");
+        return transfer;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
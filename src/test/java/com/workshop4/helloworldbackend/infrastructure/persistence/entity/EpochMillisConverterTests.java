@@ -0,0 +1,47 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.entity;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The converter must encode like the SQLite driver encodes the Timestamps
+ * Hibernate binds for users, also outside UTC.
+ */
+class EpochMillisConverterTests {
+
+    private TimeZone defaultZone;
+
+    @BeforeEach
+    void useBangkokTime() {
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Bangkok"));
+    }
+
+    @AfterEach
+    void restoreDefaultZone() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    void encodesLikeTheDriverEncodesTimestamps() {
+        LocalDateTime dateTime = LocalDateTime.of(2025, 11, 10, 14, 17, 24, 879_000_000);
+        long driverMillis = Timestamp.valueOf(dateTime).getTime();
+
+        assertThat(EpochMillisConverter.toEpochMillis(dateTime)).isEqualTo(driverMillis);
+        assertThat(EpochMillisConverter.fromEpochMillis(driverMillis)).isEqualTo(dateTime);
+    }
+
+    @Test
+    void decodesRowsWrittenBeforeTheConverter() {
+        // users.created_at of sample user 1 in the committed database.db
+        assertThat(EpochMillisConverter.fromEpochMillis(1762759044879L))
+            .isEqualTo(LocalDateTime.of(2025, 11, 10, 14, 17, 24, 879_000_000));
+    }
+}
@@ -0,0 +1,127 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the migrations against a copy of the committed database.db, which was
+ * created by ddl-auto=update and is baselined at V1, and against a new file.
+ * Small batch sizes make the Java migrations take several batches.
+ */
+class SchemaMigrationTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void baselinedDatabaseGetsStatusCodesAndSearchIndex() throws Exception {
+        SingleConnectionDataSource dataSource = copyOfCommittedDatabase();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        String[] names = {"PENDING", "PROCESSING", "COMPLETED", "FAILED", "CANCELLED", "REVERSED", "COMPLETED"};
+        for (int i = 0; i < names.length; i++) {
+            insertTransfer(jdbc, i + 1, names[i]);
+        }
+
+        migrate(dataSource);
+
+        assertThat(jdbc.queryForList("SELECT status FROM transfers ORDER BY transfer_id", Integer.class))
+            .containsExactly(0, 1, 2, 3, 4, 5, 2);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM transfers WHERE status = 2", Integer.class))
+            .isEqualTo(2);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users_search", Integer.class))
+            .isEqualTo(jdbc.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+        dataSource.destroy();
+    }
+
+    @Test
+    void unknownStatusNameStopsTheMigration() throws Exception {
+        SingleConnectionDataSource dataSource = copyOfCommittedDatabase();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        insertTransfer(jdbc, 1, "COMPLETED");
+        insertTransfer(jdbc, 2, "COMPLETED");
+        insertTransfer(jdbc, 3, "FAILED");
+        insertTransfer(jdbc, 4, "SETTLED");
+
+        assertThatThrownBy(() -> migrate(dataSource)).isInstanceOf(FlywayException.class);
+        // The first batch stays committed, the failing one is rolled back
+        assertThat(jdbc.queryForList("SELECT status FROM transfers ORDER BY transfer_id", String.class))
+            .containsExactly("2", "2", "FAILED", "SETTLED");
+
+        // Once the row is fixed, repair clears the failed run and it starts over
+        jdbc.update("UPDATE transfers SET status = 'COMPLETED' WHERE transfer_id = 4");
+        flyway(dataSource).repair();
+        migrate(dataSource);
+        assertThat(jdbc.queryForList("SELECT status FROM transfers ORDER BY transfer_id", Integer.class))
+            .containsExactly(2, 2, 3, 2);
+        dataSource.destroy();
+    }
+
+    @Test
+    void searchIndexFollowsUserChanges() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            "jdbc:sqlite:" + directory.resolve("new.db"), true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        migrate(dataSource);
+
+        insertUser(jdbc, "Somchai", "Jaidee");
+        insertUser(jdbc, "Malee", "Rakdee");
+        assertThat(searchByName(jdbc, "dee")).containsExactly(1L, 2L);
+        assertThat(searchByName(jdbc, "SOMCH")).containsExactly(1L);
+
+        jdbc.update("UPDATE users SET last_name = 'Meesuk' WHERE id = 2");
+        assertThat(searchByName(jdbc, "dee")).containsExactly(1L);
+        assertThat(searchByName(jdbc, "suk")).containsExactly(2L);
+
+        jdbc.update("DELETE FROM users WHERE id = 1");
+        assertThat(searchByName(jdbc, "chai")).isEmpty();
+        dataSource.destroy();
+    }
+
+    private SingleConnectionDataSource copyOfCommittedDatabase() throws Exception {
+        Path copy = directory.resolve("database.db");
+        Files.copy(Path.of("database.db"), copy);
+        return new SingleConnectionDataSource("jdbc:sqlite:" + copy, true);
+    }
+
+    private static void migrate(SingleConnectionDataSource dataSource) {
+        flyway(dataSource).migrate();
+    }
+
+    private static Flyway flyway(SingleConnectionDataSource dataSource) {
+        return Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .javaMigrations(new V3CompactTransferStatus(2), new V9CreateUserSearchIndex(2))
+            .load();
+    }
+
+    private static void insertTransfer(JdbcTemplate jdbc, long id, String status) {
+        jdbc.update("INSERT INTO transfers (transfer_id, idem_key, from_user_id, to_user_id, amount, status, " +
+            "created_at, updated_at) VALUES (?, ?, 1, 2, 100, ?, 0, 0)", id, "key-" + id, status);
+    }
+
+    private static void insertUser(JdbcTemplate jdbc, String firstName, String lastName) {
+        jdbc.update("INSERT INTO users (first_name, last_name, email, is_active, created_at) VALUES (?, ?, ?, 1, 0)",
+            firstName, lastName, firstName.toLowerCase() + "@example.com");
+    }
+
+    private static List<Long> searchByName(JdbcTemplate jdbc, String name) {
+        return jdbc.queryForList("SELECT u.id FROM users u " +
+            "WHERE u.id IN (SELECT rowid FROM users_search WHERE first_name LIKE '%' || ? || '%') " +
+            "OR u.id IN (SELECT rowid FROM users_search WHERE last_name LIKE '%' || ? || '%') ORDER BY u.id",
+            Long.class, name, name);
+    }
+}
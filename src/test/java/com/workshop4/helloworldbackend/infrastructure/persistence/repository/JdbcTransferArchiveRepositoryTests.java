@@ -0,0 +1,167 @@
+package com.workshop4.helloworldbackend.infrastructure.persistence.repository;
+
+import com.workshop4.helloworldbackend.domain.model.Transfer;
+import com.workshop4.helloworldbackend.domain.model.TransferStatus;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.EpochMillisConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.entity.TransferStatusConverter;
+import com.workshop4.helloworldbackend.infrastructure.persistence.mapper.TransferRowMapper;
+import com.workshop4.helloworldbackend.infrastructure.persistence.migration.V3CompactTransferStatus;
+import com.workshop4.helloworldbackend.infrastructure.persistence.migration.V9CreateUserSearchIndex;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcTransferArchiveRepositoryTests {
+
+    private static final long USER = 1;
+    private static final int PAGE_SIZE = 2;
+
+    @TempDir
+    Path directory;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTransferArchiveRepository archiveRepository;
+    private final TransferRowMapper rowMapper = new TransferRowMapper();
+
+    @BeforeEach
+    void migrate() {
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + directory.resolve("archive.db"), true);
+        Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .javaMigrations(new V3CompactTransferStatus(), new V9CreateUserSearchIndex())
+            .load()
+            .migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        archiveRepository = new JdbcTransferArchiveRepository(jdbcTemplate, rowMapper);
+    }
+
+    @AfterEach
+    void close() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void pagesContinueFromHotIntoArchivedRows() {
+        insert("transfers", 1, 1, TransferStatus.REVERSED);
+        insert("transfers_archive", 2, 2, TransferStatus.COMPLETED);
+        insert("transfers_archive", 3, 3, TransferStatus.COMPLETED);
+        insert("transfers", 4, 4, TransferStatus.COMPLETED);
+        insert("transfers", 5, 5, TransferStatus.COMPLETED);
+
+        assertThat(page(0)).containsExactly(5L, 4L);
+        assertThat(page(1)).containsExactly(3L, 2L);
+        assertThat(page(2)).containsExactly(1L);
+        assertThat(page(3)).isEmpty();
+    }
+
+    @Test
+    void archivedRowsNewerThanOldHotRowsAreMergedIntoTheirPage() {
+        insert("transfers", 1, 10, TransferStatus.PENDING);
+        insert("transfers", 2, 1, TransferStatus.CANCELLED);
+        insert("transfers_archive", 3, 5, TransferStatus.COMPLETED);
+        insert("transfers_archive", 4, 7, TransferStatus.FAILED);
+
+        assertThat(page(0)).containsExactly(1L, 4L);
+        assertThat(page(1)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void rejectsHotTransferWithArchivedIdemKey() {
+        insert("transfers_archive", 1, 1, TransferStatus.COMPLETED);
+
+        assertThatThrownBy(() -> insert("transfers", 2, 2, "key-1", TransferStatus.PENDING))
+            .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transfers", Integer.class)).isZero();
+    }
+
+    @Test
+    void archivesOldestFinishedTransfersButKeepsTheNewestId() {
+        insert("transfers", 1, 1, TransferStatus.COMPLETED);
+        insert("transfers", 2, 2, TransferStatus.PENDING);
+        insert("transfers", 3, 3, TransferStatus.FAILED);
+        insert("transfers", 4, 4, TransferStatus.COMPLETED);
+        insert("transfers", 5, 50, TransferStatus.COMPLETED);
+        insert("transfers", 6, 6, TransferStatus.COMPLETED);
+
+        assertThat(archiveRepository.archiveBefore(EpochMillisConverter.fromEpochMillis(10), 2)).isEqualTo(2);
+        assertThat(ids("transfers_archive")).containsExactly(1L, 3L);
+
+        assertThat(archiveRepository.archiveBefore(EpochMillisConverter.fromEpochMillis(10), 2)).isEqualTo(1);
+        assertThat(ids("transfers_archive")).containsExactly(1L, 3L, 4L);
+        assertThat(ids("transfers")).containsExactly(2L, 5L, 6L);
+
+        assertThat(archiveRepository.archiveBefore(EpochMillisConverter.fromEpochMillis(10), 2)).isZero();
+    }
+
+    @Test
+    void archiveBatchWaitsForAnotherWriterInsteadOfFailing() throws Exception {
+        insert("transfers", 1, 1, TransferStatus.COMPLETED);
+        insert("transfers", 2, 2, TransferStatus.COMPLETED);
+
+        try (Connection other = DriverManager.getConnection("jdbc:sqlite:" + directory.resolve("archive.db"))) {
+            other.setAutoCommit(false);
+            other.createStatement().executeUpdate("UPDATE transfers SET note = 'busy' WHERE transfer_id = 2");
+            CompletableFuture<Void> commitLater = CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(200);
+                    other.commit();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            Integer moved = transaction.execute(status ->
+                archiveRepository.archiveBefore(EpochMillisConverter.fromEpochMillis(10), 10));
+
+            commitLater.get(5, TimeUnit.SECONDS);
+            assertThat(moved).isEqualTo(1);
+        }
+        assertThat(ids("transfers_archive")).containsExactly(1L);
+    }
+
+    /**
+     * Same order and paging as the hot-table query the adapters run first
+     */
+    private List<Long> page(int page) {
+        long offset = (long) page * PAGE_SIZE;
+        List<Transfer> hotRows = jdbcTemplate.query("SELECT " + TransferRowMapper.COLUMNS + " FROM transfers " +
+            "WHERE from_user_id = ? OR to_user_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?",
+            rowMapper, USER, USER, PAGE_SIZE, offset);
+        return archiveRepository.completePage(USER, hotRows, offset, PAGE_SIZE, Transfer::getCreatedAt, rowMapper)
+            .stream().map(Transfer::getTransferId).toList();
+    }
+
+    private List<Long> ids(String table) {
+        return jdbcTemplate.queryForList("SELECT transfer_id FROM " + table + " ORDER BY transfer_id", Long.class);
+    }
+
+    private void insert(String table, long transferId, long createdAt, TransferStatus status) {
+        insert(table, transferId, createdAt, "key-" + transferId, status);
+    }
+
+    private void insert(String table, long transferId, long createdAt, String idemKey, TransferStatus status) {
+        jdbcTemplate.update("INSERT INTO " + table + " (" + TransferRowMapper.COLUMNS + ") " +
+            "VALUES (?, ?, ?, 2, 10, ?, NULL, ?, ?, NULL, NULL)",
+            transferId, idemKey, USER, TransferStatusConverter.toCode(status), createdAt, createdAt);
+    }
+}
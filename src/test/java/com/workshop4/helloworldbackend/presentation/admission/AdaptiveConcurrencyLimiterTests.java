@@ -0,0 +1,63 @@
+package com.workshop4.helloworldbackend.presentation.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The limit caps requests in flight, shrinks while latency rises above the
+ * tolerated multiple of its long-term average and grows only while in use
+ */
+class AdaptiveConcurrencyLimiterTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void capsRequestsInFlightAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0);
+
+        assertThat(limiter.tryAcquire()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isZero();
+
+        limiter.release(FAST, 1);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesButNotBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 2, 64, 2.0);
+        complete(limiter, 50, FAST, 1);
+        assertThat(limiter.limit()).isEqualTo(16);
+
+        complete(limiter, 100, SLOW, 1);
+
+        assertThat(limiter.limit()).isBetween(2, 7);
+    }
+
+    @Test
+    void growsOnlyWhileRequestsUseTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 2, 64, 2.0);
+
+        complete(limiter, 50, FAST, 1);
+        assertThat(limiter.limit()).isEqualTo(16);
+
+        complete(limiter, 50, FAST, 16);
+        assertThat(limiter.limit()).isGreaterThan(16).isLessThanOrEqualTo(64);
+
+        complete(limiter, 500, FAST, 64);
+        assertThat(limiter.limit()).isEqualTo(64);
+    }
+
+    private static void complete(AdaptiveConcurrencyLimiter limiter, int requests, long latencyNanos,
+                                 int inFlightAtStart) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limiter.tryAcquire()).isPositive();
+            limiter.release(latencyNanos, inFlightAtStart);
+        }
+    }
+}
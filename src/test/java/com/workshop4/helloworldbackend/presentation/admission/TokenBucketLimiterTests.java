@@ -0,0 +1,85 @@
+package com.workshop4.helloworldbackend.presentation.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Buckets start full, allow their burst and then one token per period; keys
+ * beyond the tracked maximum share the overflow bucket
+ */
+class TokenBucketLimiterTests {
+
+    // One token every 1000 seconds, so nothing refills during a test
+    private static final double RATE = 0.001;
+
+    @Test
+    void allowsBurstThenReportsWaitForNextToken() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(RATE, 2, 10);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        long wait = limiter.tryAcquire("a");
+
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1000));
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void refundedTokenCanBeTakenAgain() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(RATE, 1, 10);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        limiter.refund("a");
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void refundNeverRaisesBucketAboveBurst() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(RATE, 1, 10);
+
+        limiter.tryAcquire("a");
+        limiter.refund("a");
+        limiter.refund("a");
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void keysBeyondMaximumShareOverflowBucket() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(RATE, 1, 1);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("b")).isZero();
+        assertThat(limiter.tryAcquire("c")).isPositive();
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsOnlyBucketsThatHaveRefilled() {
+        TokenBucketLimiter fast = new TokenBucketLimiter(1_000_000, 1, 10);
+        TokenBucketLimiter slow = new TokenBucketLimiter(RATE, 1, 10);
+        fast.tryAcquire("a");
+        slow.tryAcquire("a");
+
+        waitMillis(5);
+        fast.evictFull();
+        slow.evictFull();
+
+        assertThat(fast.trackedKeys()).isZero();
+        assertThat(slow.trackedKeys()).isEqualTo(1);
+    }
+
+    private static void waitMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.workshop4.helloworldbackend.presentation.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A transfer is shed by the first limit it exceeds and only counts against
+ * that limit: tokens taken before it was turned away are given back
+ */
+class TransferAdmissionControlTests {
+
+    private static final String CLIENT = "key:client";
+    private static final String OTHER_CLIENT = "key:other";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shedsBySenderRateWithoutUsingTheClientsToken() {
+        TransferAdmissionControl control = control(1, 2, 8);
+
+        admitted(control.admit(1L, CLIENT)).release();
+        assertShedBy(control.admit(1L, CLIENT), TransferAdmissionControl.Limit.SENDER_RATE);
+
+        // The client still has the token the shed transfer took
+        admitted(control.admit(2L, CLIENT)).release();
+        assertShedBy(control.admit(3L, CLIENT), TransferAdmissionControl.Limit.CLIENT_RATE);
+        assertThat(meterRegistry.get("transfers.admission.shed").tag("limit", "sender_rate").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void shedsByConcurrencyWithoutUsingAnyToken() {
+        TransferAdmissionControl control = control(1, 1, 1);
+
+        TransferAdmissionControl.Admitted running = admitted(control.admit(1L, CLIENT));
+        assertShedBy(control.admit(2L, OTHER_CLIENT), TransferAdmissionControl.Limit.CONCURRENCY);
+        running.release();
+
+        admitted(control.admit(2L, OTHER_CLIENT)).release();
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() {
+        TransferAdmissionControl control = new TransferAdmissionControl(meterRegistry, false,
+            0.001, 1, 0.001, 1, 10, 1, 1, 1, 2.0);
+
+        for (int i = 0; i < 5; i++) {
+            admitted(control.admit(1L, CLIENT)).release();
+        }
+    }
+
+    private TransferAdmissionControl control(int senderBurst, int clientBurst, int concurrency) {
+        // Rates of one token every 1000 seconds, so nothing refills during a test
+        return new TransferAdmissionControl(meterRegistry, true, 0.001, senderBurst, 0.001, clientBurst, 10,
+            concurrency, 1, Math.max(1, concurrency), 2.0);
+    }
+
+    private static TransferAdmissionControl.Admitted admitted(TransferAdmissionControl.Admission admission) {
+        assertThat(admission).isInstanceOf(TransferAdmissionControl.Admitted.class);
+        return (TransferAdmissionControl.Admitted) admission;
+    }
+
+    private static void assertShedBy(TransferAdmissionControl.Admission admission,
+                                     TransferAdmissionControl.Limit limit) {
+        assertThat(admission).isInstanceOfSatisfying(TransferAdmissionControl.Shed.class, shed -> {
+            assertThat(shed.limit()).isEqualTo(limit);
+            assertThat(shed.retryAfterSeconds()).isPositive();
+        });
+    }
+}
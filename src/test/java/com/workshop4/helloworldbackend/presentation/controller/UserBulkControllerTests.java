@@ -0,0 +1,113 @@
+package com.workshop4.helloworldbackend.presentation.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop4.helloworldbackend.domain.model.BulkUpdateProgress;
+import com.workshop4.helloworldbackend.domain.model.UserSelection;
+import com.workshop4.helloworldbackend.domain.usecase.UserUseCase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bulk requests are checked before the NDJSON stream starts, and a stream
+ * whose operation fails ends with an error line instead of just stopping
+ */
+@SpringBootTest(properties = "app.bulk.max-ids=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserBulkControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private UserUseCase userUseCase;
+
+    @Test
+    void rejectsCriteriaWithoutAnyField() throws Exception {
+        bulkActivate("{\"criteria\":{}}").andExpect(status().isBadRequest());
+        bulkActivate("{\"criteria\":{\"city\":\" \"}}").andExpect(status().isBadRequest());
+        bulkActivate("{}").andExpect(status().isBadRequest());
+        bulkActivate("{\"ids\":[1],\"all\":true}").andExpect(status().isBadRequest());
+
+        verify(userUseCase, never()).activateUsers(any(UserSelection.class), any());
+    }
+
+    @Test
+    void selectsEveryUserOnlyWithAllFlag() throws Exception {
+        List<JsonNode> lines = stream("{\"all\":true}");
+
+        assertThat(lines).isNotEmpty();
+        assertThat(lines.get(lines.size() - 1).get("done").asBoolean()).isTrue();
+        verify(userUseCase).activateUsers(any(UserSelection.class), any());
+    }
+
+    @Test
+    void rejectsTooManyIdsBeforeStreaming() throws Exception {
+        bulkActivate("{\"ids\":[1,2,3]}").andExpect(status().isBadRequest());
+
+        verify(userUseCase, never()).activateUsers(any(UserSelection.class), any());
+    }
+
+    @Test
+    void endsStreamWithErrorLineWhenOperationFails() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BulkUpdateProgress> progress = invocation.getArgument(1);
+            progress.accept(new BulkUpdateProgress("op-1", 1, 1, 2L, false));
+            throw new IllegalStateException("disk full");
+        }).when(userUseCase).activateUsers(any(UserSelection.class), any());
+
+        List<JsonNode> lines = stream("{\"ids\":[1,2]}");
+
+        assertThat(lines).hasSize(2);
+        JsonNode last = lines.get(1);
+        assertThat(last.get("operationId").asText()).isEqualTo("op-1");
+        assertThat(last.get("processed").asLong()).isEqualTo(1);
+        assertThat(last.get("done").asBoolean()).isFalse();
+        assertThat(last.get("error").get("error").asText()).isEqualTo("INTERNAL_ERROR");
+        assertThat(lines.get(0).has("error")).isFalse();
+    }
+
+    private ResultActions bulkActivate(String body) throws Exception {
+        return mockMvc.perform(post("/api/users/bulk/activate")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(body));
+    }
+
+    private List<JsonNode> stream(String body) throws Exception {
+        MvcResult started = bulkActivate(body)
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : started.getResponse().getContentAsString().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
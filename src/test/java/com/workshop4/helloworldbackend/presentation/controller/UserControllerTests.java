@@ -0,0 +1,172 @@
+package com.workshop4.helloworldbackend.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.workshop4.helloworldbackend.application.query.EntityRevision;
+import com.workshop4.helloworldbackend.application.service.UserQueryService;
+import com.workshop4.helloworldbackend.domain.model.User;
+import com.workshop4.helloworldbackend.domain.usecase.UserUseCase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * PUT and PATCH with If-Match only apply to the user at that ETag; anything
+ * else, including a change that lands between the check and the update, is
+ * answered with 412 Precondition Failed. A busy database is not a lost
+ * precondition.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private UserQueryService userQueryService;
+
+    @SpyBean
+    private UserUseCase userUseCase;
+
+    private long userId;
+    private String eTag;
+
+    @BeforeEach
+    void createUser() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(userJson("Created")))
+            .andExpect(status().isCreated())
+            .andReturn();
+        userId = objectMapper.readTree(created.getResponse().getContentAsString()).get("user").get("id").asLong();
+        eTag = mockMvc.perform(get("/api/users/" + userId))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+    }
+
+    @Test
+    void updatesWithCurrentETagAndRejectsItOnceUsed() throws Exception {
+        String updatedETag = mockMvc.perform(put("/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(userJson("First")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.user.firstName").value("First"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(updatedETag).isNotEqualTo(eTag);
+
+        mockMvc.perform(put("/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(userJson("Second")))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/api/users/" + userId))
+            .andExpect(jsonPath("$.user.firstName").value("First"));
+    }
+
+    @Test
+    void rejectsPatchOnStaleOrWeakETag() throws Exception {
+        mockMvc.perform(patch("/api/users/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"changed without If-Match\"}"))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"stale\"}"))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(jsonPath("$.status").value(412));
+
+        String current = mockMvc.perform(get("/api/users/" + userId))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(patch("/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, "W/" + current)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"weak\"}"))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, current)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"current\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.user.bio").value("current"));
+    }
+
+    @Test
+    void rejectsUpdateWhenUserChangesAfterThePreconditionPassed() throws Exception {
+        // The revision read for the check still shows the old version, as if a
+        // concurrent write committed right after it
+        mockMvc.perform(patch("/api/users/" + userId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"concurrent\"}"))
+            .andExpect(status().isOk());
+        EntityRevision stale = new EntityRevision(0L);
+        doReturn(Optional.of(stale)).when(userQueryService).getUserRevision(userId);
+
+        mockMvc.perform(patch("/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, stale.eTag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"lost update\"}"))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/api/users/" + userId))
+            .andExpect(jsonPath("$.user.bio").value("concurrent"));
+    }
+
+    @Test
+    void busyDatabaseIsRetryableNotAPreconditionFailure() throws Exception {
+        doThrow(new CannotAcquireLockException("[SQLITE_BUSY] The database file is locked"))
+            .when(userUseCase).partialUpdateUser(eq(userId), any(User.class));
+
+        mockMvc.perform(patch("/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"busy\"}"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    @Test
+    void ifMatchOnMissingUserIsNotFound() throws Exception {
+        mockMvc.perform(patch("/api/users/" + Long.MAX_VALUE)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"bio\":\"nobody\"}"))
+            .andExpect(status().isNotFound());
+    }
+
+    private static String userJson(String firstName) {
+        return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"Tester\",\"email\":\"if-match-"
+            + UUID.randomUUID() + "@example.com\",\"points\":10,\"isActive\":true}";
+    }
+}